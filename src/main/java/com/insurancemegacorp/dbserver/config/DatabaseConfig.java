@@ -24,13 +24,18 @@ public class DatabaseConfig {
     @Bean
     @Primary
     @ConfigurationProperties("spring.datasource.db01")
-    public DataSource db01DataSource() {
-        return new HikariDataSource();
+    public DataSource db01DataSource(IngestionProperties ingestionProperties) {
+        HikariDataSource dataSource = new HikariDataSource();
+        // Let pgjdbc collapse batched INSERTs into multi-row statements
+        dataSource.addDataSourceProperty("reWriteBatchedInserts",
+                String.valueOf(ingestionProperties.getJdbc().isRewriteBatchedInserts()));
+        return dataSource;
     }
 
     @Bean
     @Primary
-    public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource db01DataSource) {
+    public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource db01DataSource,
+                                                                       IngestionProperties ingestionProperties) {
         LocalContainerEntityManagerFactoryBean em = new LocalContainerEntityManagerFactoryBean();
         em.setDataSource(db01DataSource);
         em.setPackagesToScan("com.insurancemegacorp.dbserver.model");
@@ -41,6 +46,9 @@ public class DatabaseConfig {
         Properties props = new Properties();
         props.setProperty("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
         props.setProperty("hibernate.hbm2ddl.auto", "validate");
+        // Batch and group INSERTs so saveAll() of vehicle events flushes as JDBC batches
+        props.setProperty("hibernate.jdbc.batch_size", String.valueOf(ingestionProperties.getJdbc().getBatchSize()));
+        props.setProperty("hibernate.order_inserts", "true");
         em.setJpaProperties(props);
 
         return em;
@@ -0,0 +1,737 @@
+package com.insurancemegacorp.dbserver.config;
+
+import com.insurancemegacorp.dbserver.service.IngestMode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConfigurationProperties(prefix = "ingestion")
+public class IngestionProperties {
+
+    private IngestMode mode = IngestMode.JPA;
+    private Copy copy = new Copy();
+    private Jdbc jdbc = new Jdbc();
+    private Stream stream = new Stream();
+    private Buffer buffer = new Buffer();
+    private Spool spool = new Spool();
+    private Parallel parallel = new Parallel();
+    private Partial partial = new Partial();
+    private Idempotency idempotency = new Idempotency();
+    private Dedupe dedupe = new Dedupe();
+    private Features features = new Features();
+    private Live live = new Live();
+    private Socket socket = new Socket();
+    private Export export = new Export();
+    private Sketches sketches = new Sketches();
+    private Stats stats = new Stats();
+    private Trips trips = new Trips();
+
+    public static class Copy {
+        private int chunkSize = 5000;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    public static class Jdbc {
+        private int batchSize = 500;
+        private boolean rewriteBatchedInserts = true;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public boolean isRewriteBatchedInserts() {
+            return rewriteBatchedInserts;
+        }
+
+        public void setRewriteBatchedInserts(boolean rewriteBatchedInserts) {
+            this.rewriteBatchedInserts = rewriteBatchedInserts;
+        }
+    }
+
+    public static class Stream {
+        private int chunkSize = 5000;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    public static class Buffer {
+        private boolean enabled = true;
+        private int capacity = 100000;
+        private int writerThreads = 2;
+        private int commitSize = 5000;
+        private long lingerMs = 50;
+        private IngestMode mode = IngestMode.JDBC;
+        private long waitTimeoutMs = 30000;
+        private long ackRetentionMs = 600000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public int getWriterThreads() {
+            return writerThreads;
+        }
+
+        public void setWriterThreads(int writerThreads) {
+            this.writerThreads = writerThreads;
+        }
+
+        public int getCommitSize() {
+            return commitSize;
+        }
+
+        public void setCommitSize(int commitSize) {
+            this.commitSize = commitSize;
+        }
+
+        public long getLingerMs() {
+            return lingerMs;
+        }
+
+        public void setLingerMs(long lingerMs) {
+            this.lingerMs = lingerMs;
+        }
+
+        public IngestMode getMode() {
+            return mode;
+        }
+
+        public void setMode(IngestMode mode) {
+            this.mode = mode;
+        }
+
+        public long getWaitTimeoutMs() {
+            return waitTimeoutMs;
+        }
+
+        public void setWaitTimeoutMs(long waitTimeoutMs) {
+            this.waitTimeoutMs = waitTimeoutMs;
+        }
+
+        public long getAckRetentionMs() {
+            return ackRetentionMs;
+        }
+
+        public void setAckRetentionMs(long ackRetentionMs) {
+            this.ackRetentionMs = ackRetentionMs;
+        }
+    }
+
+    public static class Spool {
+        private boolean enabled = false;
+        private String directory = System.getProperty("java.io.tmpdir") + "/imc-ingest-spool";
+        private int segmentSizeBytes = 64 * 1024 * 1024;
+        private boolean forceOnAppend = true;
+        private IngestMode mode = IngestMode.JDBC;
+        private long pollIntervalMs = 200;
+        private long maxBackoffMs = 30000;
+        private long unhealthyHoldMs = 5000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public int getSegmentSizeBytes() {
+            return segmentSizeBytes;
+        }
+
+        public void setSegmentSizeBytes(int segmentSizeBytes) {
+            this.segmentSizeBytes = segmentSizeBytes;
+        }
+
+        public boolean isForceOnAppend() {
+            return forceOnAppend;
+        }
+
+        public void setForceOnAppend(boolean forceOnAppend) {
+            this.forceOnAppend = forceOnAppend;
+        }
+
+        public IngestMode getMode() {
+            return mode;
+        }
+
+        public void setMode(IngestMode mode) {
+            this.mode = mode;
+        }
+
+        public long getPollIntervalMs() {
+            return pollIntervalMs;
+        }
+
+        public void setPollIntervalMs(long pollIntervalMs) {
+            this.pollIntervalMs = pollIntervalMs;
+        }
+
+        public long getMaxBackoffMs() {
+            return maxBackoffMs;
+        }
+
+        public void setMaxBackoffMs(long maxBackoffMs) {
+            this.maxBackoffMs = maxBackoffMs;
+        }
+
+        public long getUnhealthyHoldMs() {
+            return unhealthyHoldMs;
+        }
+
+        public void setUnhealthyHoldMs(long unhealthyHoldMs) {
+            this.unhealthyHoldMs = unhealthyHoldMs;
+        }
+    }
+
+    public static class Parallel {
+        private int partitions = 4;
+        private int commitSize = 0;
+
+        public int getPartitions() {
+            return partitions;
+        }
+
+        public void setPartitions(int partitions) {
+            this.partitions = partitions;
+        }
+
+        public int getCommitSize() {
+            return commitSize;
+        }
+
+        public void setCommitSize(int commitSize) {
+            this.commitSize = commitSize;
+        }
+    }
+
+    public static class Partial {
+        private int chunkSize = 1000;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    public static class Idempotency {
+        private boolean enabled = true;
+        private int maxEntries = 10000;
+        private long ttlMs = 3600000;
+        private long waitTimeoutMs = 30000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public long getTtlMs() {
+            return ttlMs;
+        }
+
+        public void setTtlMs(long ttlMs) {
+            this.ttlMs = ttlMs;
+        }
+
+        public long getWaitTimeoutMs() {
+            return waitTimeoutMs;
+        }
+
+        public void setWaitTimeoutMs(long waitTimeoutMs) {
+            this.waitTimeoutMs = waitTimeoutMs;
+        }
+    }
+
+    public static class Dedupe {
+        private boolean enabled = false;
+        private long expectedKeysPerGeneration = 1000000;
+        private double falsePositiveRate = 0.01;
+        private int generations = 3;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getExpectedKeysPerGeneration() {
+            return expectedKeysPerGeneration;
+        }
+
+        public void setExpectedKeysPerGeneration(long expectedKeysPerGeneration) {
+            this.expectedKeysPerGeneration = expectedKeysPerGeneration;
+        }
+
+        public double getFalsePositiveRate() {
+            return falsePositiveRate;
+        }
+
+        public void setFalsePositiveRate(double falsePositiveRate) {
+            this.falsePositiveRate = falsePositiveRate;
+        }
+
+        public int getGenerations() {
+            return generations;
+        }
+
+        public void setGenerations(int generations) {
+            this.generations = generations;
+        }
+    }
+
+    public static class Features {
+        private boolean enabled = true;
+        private long flushIntervalMs = 5000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getFlushIntervalMs() {
+            return flushIntervalMs;
+        }
+
+        public void setFlushIntervalMs(long flushIntervalMs) {
+            this.flushIntervalMs = flushIntervalMs;
+        }
+    }
+
+    public static class Live {
+        private boolean enabled = true;
+        private int maxSubscribers = 200;
+        private int bufferSize = 1000;
+        private long heartbeatMs = 15000;
+        private long timeoutMs = 0;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxSubscribers() {
+            return maxSubscribers;
+        }
+
+        public void setMaxSubscribers(int maxSubscribers) {
+            this.maxSubscribers = maxSubscribers;
+        }
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public long getHeartbeatMs() {
+            return heartbeatMs;
+        }
+
+        public void setHeartbeatMs(long heartbeatMs) {
+            this.heartbeatMs = heartbeatMs;
+        }
+
+        public long getTimeoutMs() {
+            return timeoutMs;
+        }
+
+        public void setTimeoutMs(long timeoutMs) {
+            this.timeoutMs = timeoutMs;
+        }
+    }
+
+    public static class Socket {
+        private boolean enabled = true;
+        private List<String> deviceTokens = new ArrayList<>();
+        private boolean allowAnonymous = false;
+        private int maxFrameBytes = 1024 * 1024;
+        private long idleTimeoutMs = 300000;
+        private double backlogHighWatermark = 0.8;
+        private long backlogWaitMs = 5000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<String> getDeviceTokens() {
+            return deviceTokens;
+        }
+
+        public void setDeviceTokens(List<String> deviceTokens) {
+            this.deviceTokens = deviceTokens;
+        }
+
+        public boolean isAllowAnonymous() {
+            return allowAnonymous;
+        }
+
+        public void setAllowAnonymous(boolean allowAnonymous) {
+            this.allowAnonymous = allowAnonymous;
+        }
+
+        public int getMaxFrameBytes() {
+            return maxFrameBytes;
+        }
+
+        public void setMaxFrameBytes(int maxFrameBytes) {
+            this.maxFrameBytes = maxFrameBytes;
+        }
+
+        public long getIdleTimeoutMs() {
+            return idleTimeoutMs;
+        }
+
+        public void setIdleTimeoutMs(long idleTimeoutMs) {
+            this.idleTimeoutMs = idleTimeoutMs;
+        }
+
+        public double getBacklogHighWatermark() {
+            return backlogHighWatermark;
+        }
+
+        public void setBacklogHighWatermark(double backlogHighWatermark) {
+            this.backlogHighWatermark = backlogHighWatermark;
+        }
+
+        public long getBacklogWaitMs() {
+            return backlogWaitMs;
+        }
+
+        public void setBacklogWaitMs(long backlogWaitMs) {
+            this.backlogWaitMs = backlogWaitMs;
+        }
+    }
+
+    public static class Sketches {
+        private boolean enabled = true;
+        private long flushIntervalMs = 10000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getFlushIntervalMs() {
+            return flushIntervalMs;
+        }
+
+        public void setFlushIntervalMs(long flushIntervalMs) {
+            this.flushIntervalMs = flushIntervalMs;
+        }
+    }
+
+    public static class Stats {
+        private boolean enabled = true;
+        private long flushIntervalMs = 5000;
+        private long reconcileIntervalMs = 3600000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getFlushIntervalMs() {
+            return flushIntervalMs;
+        }
+
+        public void setFlushIntervalMs(long flushIntervalMs) {
+            this.flushIntervalMs = flushIntervalMs;
+        }
+
+        public long getReconcileIntervalMs() {
+            return reconcileIntervalMs;
+        }
+
+        public void setReconcileIntervalMs(long reconcileIntervalMs) {
+            this.reconcileIntervalMs = reconcileIntervalMs;
+        }
+    }
+
+    public static class Trips {
+        private boolean enabled = true;
+        private long maxGapMs = 300000;
+        private long stopMs = 180000;
+        private float minMovingSpeedMph = 3.0f;
+        private long flushIntervalMs = 5000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaxGapMs() {
+            return maxGapMs;
+        }
+
+        public void setMaxGapMs(long maxGapMs) {
+            this.maxGapMs = maxGapMs;
+        }
+
+        public long getStopMs() {
+            return stopMs;
+        }
+
+        public void setStopMs(long stopMs) {
+            this.stopMs = stopMs;
+        }
+
+        public float getMinMovingSpeedMph() {
+            return minMovingSpeedMph;
+        }
+
+        public void setMinMovingSpeedMph(float minMovingSpeedMph) {
+            this.minMovingSpeedMph = minMovingSpeedMph;
+        }
+
+        public long getFlushIntervalMs() {
+            return flushIntervalMs;
+        }
+
+        public void setFlushIntervalMs(long flushIntervalMs) {
+            this.flushIntervalMs = flushIntervalMs;
+        }
+    }
+
+    public static class Export {
+        private int fetchSize = 5000;
+        private int bufferBytes = 64 * 1024;
+        private int arrowBatchRows = 8192;
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+
+        public int getBufferBytes() {
+            return bufferBytes;
+        }
+
+        public void setBufferBytes(int bufferBytes) {
+            this.bufferBytes = bufferBytes;
+        }
+
+        public int getArrowBatchRows() {
+            return arrowBatchRows;
+        }
+
+        public void setArrowBatchRows(int arrowBatchRows) {
+            this.arrowBatchRows = arrowBatchRows;
+        }
+    }
+
+    public IngestMode getMode() {
+        return mode;
+    }
+
+    public void setMode(IngestMode mode) {
+        this.mode = mode;
+    }
+
+    public Copy getCopy() {
+        return copy;
+    }
+
+    public void setCopy(Copy copy) {
+        this.copy = copy;
+    }
+
+    public Jdbc getJdbc() {
+        return jdbc;
+    }
+
+    public void setJdbc(Jdbc jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public Stream getStream() {
+        return stream;
+    }
+
+    public void setStream(Stream stream) {
+        this.stream = stream;
+    }
+
+    public Buffer getBuffer() {
+        return buffer;
+    }
+
+    public void setBuffer(Buffer buffer) {
+        this.buffer = buffer;
+    }
+
+    public Spool getSpool() {
+        return spool;
+    }
+
+    public void setSpool(Spool spool) {
+        this.spool = spool;
+    }
+
+    public Parallel getParallel() {
+        return parallel;
+    }
+
+    public void setParallel(Parallel parallel) {
+        this.parallel = parallel;
+    }
+
+    public Partial getPartial() {
+        return partial;
+    }
+
+    public void setPartial(Partial partial) {
+        this.partial = partial;
+    }
+
+    public Idempotency getIdempotency() {
+        return idempotency;
+    }
+
+    public void setIdempotency(Idempotency idempotency) {
+        this.idempotency = idempotency;
+    }
+
+    public Dedupe getDedupe() {
+        return dedupe;
+    }
+
+    public void setDedupe(Dedupe dedupe) {
+        this.dedupe = dedupe;
+    }
+
+    public Features getFeatures() {
+        return features;
+    }
+
+    public void setFeatures(Features features) {
+        this.features = features;
+    }
+
+    public Live getLive() {
+        return live;
+    }
+
+    public void setLive(Live live) {
+        this.live = live;
+    }
+
+    public Socket getSocket() {
+        return socket;
+    }
+
+    public void setSocket(Socket socket) {
+        this.socket = socket;
+    }
+
+    public Export getExport() {
+        return export;
+    }
+
+    public void setExport(Export export) {
+        this.export = export;
+    }
+
+    public Sketches getSketches() {
+        return sketches;
+    }
+
+    public void setSketches(Sketches sketches) {
+        this.sketches = sketches;
+    }
+
+    public Stats getStats() {
+        return stats;
+    }
+
+    public void setStats(Stats stats) {
+        this.stats = stats;
+    }
+
+    public Trips getTrips() {
+        return trips;
+    }
+
+    public void setTrips(Trips trips) {
+        this.trips = trips;
+    }
+}
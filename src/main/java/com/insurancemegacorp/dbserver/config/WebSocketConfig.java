@@ -0,0 +1,42 @@
+package com.insurancemegacorp.dbserver.config;
+
+import com.insurancemegacorp.dbserver.controller.VehicleEventStreamHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
+
+@Configuration
+@EnableWebSocket
+@ConditionalOnProperty(prefix = "ingestion.socket", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final VehicleEventStreamHandler vehicleEventStreamHandler;
+    private final IngestionProperties ingestionProperties;
+
+    public WebSocketConfig(VehicleEventStreamHandler vehicleEventStreamHandler,
+                           IngestionProperties ingestionProperties) {
+        this.vehicleEventStreamHandler = vehicleEventStreamHandler;
+        this.ingestionProperties = ingestionProperties;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(vehicleEventStreamHandler, "/api/*/vehicle-events/stream")
+                .addInterceptors(vehicleEventStreamHandler);
+    }
+
+    @Bean
+    public ServletServerContainerFactoryBean webSocketContainer() {
+        IngestionProperties.Socket socket = ingestionProperties.getSocket();
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        // Frames carry whole batches, well beyond the 8 KB container default
+        container.setMaxTextMessageBufferSize(socket.getMaxFrameBytes());
+        container.setMaxBinaryMessageBufferSize(socket.getMaxFrameBytes());
+        container.setMaxSessionIdleTimeout(socket.getIdleTimeoutMs());
+        return container;
+    }
+}
@@ -0,0 +1,44 @@
+package com.insurancemegacorp.dbserver.controller;
+
+import com.insurancemegacorp.dbserver.service.ExportFormat;
+import com.insurancemegacorp.dbserver.service.ExportTarget;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Response side of the bulk export endpoints: an attachment in the requested format,
+ * gzip-encoded when the client accepts it.
+ */
+final class ExportResponses {
+
+    private ExportResponses() {
+    }
+
+    /**
+     * Headers are only set when the target is opened, i.e. once the export's inputs have
+     * been validated and rows are about to flow, so earlier failures still get the usual
+     * JSON error response.
+     */
+    static ExportTarget attachment(HttpServletRequest request, HttpServletResponse response,
+                                   ExportFormat format, String baseName) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        return () -> {
+            response.setContentType(format.getContentType());
+            if (format != ExportFormat.ARROW) {
+                response.setCharacterEncoding("UTF-8");
+            }
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    "attachment; filename=\"" + baseName + "." + format.getFileExtension() + "\"");
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (!gzip) {
+                return response.getOutputStream();
+            }
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return new GZIPOutputStream(response.getOutputStream(), 8192);
+        };
+    }
+}
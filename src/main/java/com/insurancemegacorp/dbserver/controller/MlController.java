@@ -5,11 +5,15 @@ import com.insurancemegacorp.dbserver.dto.ApiResponse;
 import com.insurancemegacorp.dbserver.dto.JobStatusDto;
 import com.insurancemegacorp.dbserver.dto.MlModelInfoDto;
 import com.insurancemegacorp.dbserver.exception.DatabaseInstanceNotFoundException;
+import com.insurancemegacorp.dbserver.service.ExportFormat;
 import com.insurancemegacorp.dbserver.service.JobTrackingService;
 import com.insurancemegacorp.dbserver.service.MlService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -63,6 +67,19 @@ public class MlController {
                 .body(ApiResponse.success(response).withExecutionTime(executionTime));
     }
 
+    @GetMapping("/training-data/export")
+    public void exportTrainingData(
+            @PathVariable String instance,
+            @RequestParam(required = false) String format,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        validateInstance(instance);
+        ExportFormat exportFormat = ExportFormat.from(format);
+        mlService.exportTrainingData(exportFormat,
+                ExportResponses.attachment(request, response, exportFormat, "driver-ml-training-data"));
+    }
+
     @GetMapping("/job-status/{jobId}")
     public ResponseEntity<ApiResponse<JobStatusDto>> getJobStatus(
             @PathVariable String instance,
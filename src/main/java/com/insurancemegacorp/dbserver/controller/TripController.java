@@ -0,0 +1,91 @@
+package com.insurancemegacorp.dbserver.controller;
+
+import com.insurancemegacorp.dbserver.config.DatabaseInstanceManager;
+import com.insurancemegacorp.dbserver.dto.ApiResponse;
+import com.insurancemegacorp.dbserver.dto.SlicePageDto;
+import com.insurancemegacorp.dbserver.dto.TripDto;
+import com.insurancemegacorp.dbserver.exception.DatabaseInstanceNotFoundException;
+import com.insurancemegacorp.dbserver.service.TripService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/{instance}")
+public class TripController {
+
+    private final TripService tripService;
+    private final DatabaseInstanceManager databaseInstanceManager;
+
+    public TripController(TripService tripService, DatabaseInstanceManager databaseInstanceManager) {
+        this.tripService = tripService;
+        this.databaseInstanceManager = databaseInstanceManager;
+    }
+
+    @GetMapping("/trips")
+    public ResponseEntity<ApiResponse<SlicePageDto<TripDto>>> getTrips(
+            @PathVariable String instance,
+            @RequestParam(required = false) String vehicle_id,
+            @RequestParam(required = false) String driver_id,
+            @RequestParam(required = false) String date_from,
+            @RequestParam(required = false) String date_to,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Integer offset) {
+
+        long startTime = System.currentTimeMillis();
+        validateInstance(instance);
+
+        SlicePageDto<TripDto> trips = tripService.findTrips(vehicle_id, driver_id, date_from, date_to, limit, offset);
+
+        long executionTime = System.currentTimeMillis() - startTime;
+        return ResponseEntity.ok(ApiResponse.success(trips).withExecutionTime(executionTime));
+    }
+
+    @GetMapping("/trips/{tripId}")
+    public ResponseEntity<ApiResponse<TripDto>> getTrip(
+            @PathVariable String instance,
+            @PathVariable long tripId,
+            @RequestParam(defaultValue = "true") boolean include_events) {
+
+        long startTime = System.currentTimeMillis();
+        validateInstance(instance);
+
+        TripDto trip = tripService.getTrip(tripId, include_events);
+
+        if (trip == null) {
+            long executionTime = System.currentTimeMillis() - startTime;
+            return ResponseEntity.notFound()
+                    .header("X-Execution-Time", String.valueOf(executionTime))
+                    .build();
+        }
+
+        long executionTime = System.currentTimeMillis() - startTime;
+        return ResponseEntity.ok(ApiResponse.success(trip).withExecutionTime(executionTime));
+    }
+
+    @PostMapping("/trips/resegment")
+    public ResponseEntity<ApiResponse<Map<String, Integer>>> resegmentTrips(
+            @PathVariable String instance,
+            @RequestParam(required = false) String vehicle_id,
+            @RequestParam(required = false) String date_from,
+            @RequestParam(required = false) String date_to) {
+
+        long startTime = System.currentTimeMillis();
+        validateInstance(instance);
+
+        int trips = tripService.resegmentTrips(vehicle_id, date_from, date_to);
+        Map<String, Integer> response = new HashMap<>();
+        response.put("trips_written", trips);
+
+        long executionTime = System.currentTimeMillis() - startTime;
+        return ResponseEntity.ok(ApiResponse.success(response).withExecutionTime(executionTime));
+    }
+
+    private void validateInstance(String instance) {
+        if (!databaseInstanceManager.isInstanceAvailable(instance)) {
+            throw new DatabaseInstanceNotFoundException(instance);
+        }
+    }
+}
@@ -1,14 +1,33 @@
 package com.insurancemegacorp.dbserver.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.insurancemegacorp.dbserver.config.DatabaseInstanceManager;
+import com.insurancemegacorp.dbserver.dto.ActiveCountsDto;
 import com.insurancemegacorp.dbserver.dto.ApiResponse;
+import com.insurancemegacorp.dbserver.dto.BatchIngestResultDto;
+import com.insurancemegacorp.dbserver.dto.CursorPageDto;
+import com.insurancemegacorp.dbserver.dto.IngestAckDto;
+import com.insurancemegacorp.dbserver.dto.SlicePageDto;
+import com.insurancemegacorp.dbserver.dto.StreamIngestResultDto;
+import com.insurancemegacorp.dbserver.dto.TelemetryBucketDto;
 import com.insurancemegacorp.dbserver.dto.VehicleEventDto;
 import com.insurancemegacorp.dbserver.exception.DatabaseInstanceNotFoundException;
+import com.insurancemegacorp.dbserver.service.CountMode;
+import com.insurancemegacorp.dbserver.service.ExportFormat;
+import com.insurancemegacorp.dbserver.service.IdempotencyStore;
+import com.insurancemegacorp.dbserver.service.IngestMode;
 import com.insurancemegacorp.dbserver.service.VehicleEventService;
+import com.insurancemegacorp.dbserver.util.VehicleEventBinaryCodec;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -19,15 +38,21 @@ public class VehicleEventController {
 
     private final VehicleEventService vehicleEventService;
     private final DatabaseInstanceManager databaseInstanceManager;
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
 
     public VehicleEventController(VehicleEventService vehicleEventService,
-                                 DatabaseInstanceManager databaseInstanceManager) {
+                                 DatabaseInstanceManager databaseInstanceManager,
+                                 IdempotencyStore idempotencyStore,
+                                 ObjectMapper objectMapper) {
         this.vehicleEventService = vehicleEventService;
         this.databaseInstanceManager = databaseInstanceManager;
+        this.idempotencyStore = idempotencyStore;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping("/vehicle-events")
-    public ResponseEntity<ApiResponse<Page<VehicleEventDto>>> getVehicleEvents(
+    public ResponseEntity<ApiResponse<?>> getVehicleEvents(
             @PathVariable String instance,
             @RequestParam(required = false) String driver_id,
             @RequestParam(required = false) String vehicle_id,
@@ -37,10 +62,13 @@ public class VehicleEventController {
             @RequestParam(required = false) String date_to,
             @RequestParam(required = false) Integer limit,
             @RequestParam(required = false) Integer offset,
-            @RequestParam(required = false) String order_by) {
+            @RequestParam(required = false) String order_by,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String count) {
 
         long startTime = System.currentTimeMillis();
         validateInstance(instance);
+        CountMode countMode = CountMode.from(count);
         
         // Validate event_type if provided
         if (event_type != null && !isValidEventType(event_type)) {
@@ -54,6 +82,20 @@ public class VehicleEventController {
                     .body(ApiResponse.error("Invalid severity: " + severity));
         }
 
+        if (cursor != null) {
+            CursorPageDto<VehicleEventDto> page = vehicleEventService.findEventsAfterCursor(
+                    driver_id, vehicle_id, date_from, date_to, limit, cursor, order_by);
+            long executionTime = System.currentTimeMillis() - startTime;
+            return ResponseEntity.ok(ApiResponse.success(page).withExecutionTime(executionTime));
+        }
+
+        if (countMode != CountMode.EXACT) {
+            SlicePageDto<VehicleEventDto> slice = vehicleEventService.findEventSliceWithFilters(
+                    driver_id, vehicle_id, date_from, date_to, limit, offset, order_by, countMode);
+            long executionTime = System.currentTimeMillis() - startTime;
+            return ResponseEntity.ok(ApiResponse.success(slice).withExecutionTime(executionTime));
+        }
+
         Page<VehicleEventDto> events = vehicleEventService.findEventsWithFilters(
                 driver_id, vehicle_id, event_type, severity, 
                 date_from, date_to, limit, offset, order_by
@@ -64,12 +106,29 @@ public class VehicleEventController {
     }
 
     @GetMapping("/vehicle-events/recent")
-    public ResponseEntity<ApiResponse<Page<VehicleEventDto>>> getRecentVehicleEvents(
+    public ResponseEntity<ApiResponse<?>> getRecentVehicleEvents(
             @PathVariable String instance,
-            @RequestParam(defaultValue = "10") Integer limit) {
+            @RequestParam(defaultValue = "10") Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String count) {
 
         long startTime = System.currentTimeMillis();
         validateInstance(instance);
+        CountMode countMode = CountMode.from(count);
+
+        if (cursor != null) {
+            CursorPageDto<VehicleEventDto> page = vehicleEventService.findEventsAfterCursor(
+                    null, null, null, null, limit, cursor, null);
+            long executionTime = System.currentTimeMillis() - startTime;
+            return ResponseEntity.ok(ApiResponse.success(page).withExecutionTime(executionTime));
+        }
+
+        if (countMode != CountMode.EXACT) {
+            SlicePageDto<VehicleEventDto> slice = vehicleEventService.findEventSliceWithFilters(
+                    null, null, null, null, limit, 0, "event_time DESC", countMode);
+            long executionTime = System.currentTimeMillis() - startTime;
+            return ResponseEntity.ok(ApiResponse.success(slice).withExecutionTime(executionTime));
+        }
 
         // Get recent events ordered by timestamp descending
         Page<VehicleEventDto> recentEvents = vehicleEventService.findEventsWithFilters(
@@ -81,15 +140,43 @@ public class VehicleEventController {
         return ResponseEntity.ok(ApiResponse.success(recentEvents).withExecutionTime(executionTime));
     }
 
+    @GetMapping("/vehicle-events/live")
+    public SseEmitter streamLiveVehicleEvents(
+            @PathVariable String instance,
+            @RequestParam(required = false) String driver_id,
+            @RequestParam(required = false) String vehicle_id,
+            @RequestParam(required = false) Double min_g_force) {
+
+        validateInstance(instance);
+        return vehicleEventService.subscribeLiveEvents(driver_id, vehicle_id, min_g_force);
+    }
+
     @GetMapping("/vehicle-events/high-gforce")
-    public ResponseEntity<ApiResponse<Page<VehicleEventDto>>> getHighGForceEvents(
+    public ResponseEntity<ApiResponse<?>> getHighGForceEvents(
             @PathVariable String instance,
             @RequestParam(defaultValue = "50") Integer limit,
             @RequestParam(required = false) Integer offset,
-            @RequestParam(required = false) String order_by) {
+            @RequestParam(required = false) String order_by,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String count) {
 
         long startTime = System.currentTimeMillis();
         validateInstance(instance);
+        CountMode countMode = CountMode.from(count);
+
+        if (cursor != null) {
+            CursorPageDto<VehicleEventDto> page = vehicleEventService.findHighGForceEventsAfterCursor(
+                    limit, cursor, order_by);
+            long executionTime = System.currentTimeMillis() - startTime;
+            return ResponseEntity.ok(ApiResponse.success(page).withExecutionTime(executionTime));
+        }
+
+        if (countMode != CountMode.EXACT) {
+            SlicePageDto<VehicleEventDto> slice = vehicleEventService.findHighGForceEventSlice(
+                    limit, offset, order_by, countMode);
+            long executionTime = System.currentTimeMillis() - startTime;
+            return ResponseEntity.ok(ApiResponse.success(slice).withExecutionTime(executionTime));
+        }
 
         Page<VehicleEventDto> highGForceEvents = vehicleEventService.findHighGForceEvents(
                 limit, offset, order_by
@@ -99,6 +186,64 @@ public class VehicleEventController {
         return ResponseEntity.ok(ApiResponse.success(highGForceEvents).withExecutionTime(executionTime));
     }
 
+    @GetMapping("/vehicle-events/within-box")
+    public ResponseEntity<ApiResponse<SlicePageDto<VehicleEventDto>>> getVehicleEventsInBox(
+            @PathVariable String instance,
+            @RequestParam(required = false) Double min_lat,
+            @RequestParam(required = false) Double min_lon,
+            @RequestParam(required = false) Double max_lat,
+            @RequestParam(required = false) Double max_lon,
+            @RequestParam(required = false) String date_from,
+            @RequestParam(required = false) String date_to,
+            @RequestParam(required = false) Integer limit) {
+
+        long startTime = System.currentTimeMillis();
+        validateInstance(instance);
+
+        SlicePageDto<VehicleEventDto> events = vehicleEventService.findEventsInBox(
+                min_lat, min_lon, max_lat, max_lon, date_from, date_to, limit);
+
+        long executionTime = System.currentTimeMillis() - startTime;
+        return ResponseEntity.ok(ApiResponse.success(events).withExecutionTime(executionTime));
+    }
+
+    @GetMapping("/vehicle-events/near")
+    public ResponseEntity<ApiResponse<SlicePageDto<VehicleEventDto>>> getVehicleEventsNear(
+            @PathVariable String instance,
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lon,
+            @RequestParam(required = false) Double radius_m,
+            @RequestParam(required = false) String date_from,
+            @RequestParam(required = false) String date_to,
+            @RequestParam(required = false) Integer limit) {
+
+        long startTime = System.currentTimeMillis();
+        validateInstance(instance);
+
+        SlicePageDto<VehicleEventDto> events = vehicleEventService.findEventsNear(
+                lat, lon, radius_m, date_from, date_to, limit);
+
+        long executionTime = System.currentTimeMillis() - startTime;
+        return ResponseEntity.ok(ApiResponse.success(events).withExecutionTime(executionTime));
+    }
+
+    @GetMapping("/vehicle-events/export")
+    public void exportVehicleEvents(
+            @PathVariable String instance,
+            @RequestParam(required = false) String driver_id,
+            @RequestParam(required = false) String vehicle_id,
+            @RequestParam(required = false) String date_from,
+            @RequestParam(required = false) String date_to,
+            @RequestParam(required = false) String format,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        validateInstance(instance);
+        ExportFormat exportFormat = ExportFormat.from(format);
+        vehicleEventService.exportEvents(driver_id, vehicle_id, date_from, date_to, exportFormat,
+                ExportResponses.attachment(request, response, exportFormat, "vehicle-events"));
+    }
+
     @GetMapping("/telemetry/events-count")
     public ResponseEntity<ApiResponse<Map<String, Object>>> getTelemetryEventsCount(
             @PathVariable String instance,
@@ -115,6 +260,81 @@ public class VehicleEventController {
         return ResponseEntity.ok(ApiResponse.success(response).withExecutionTime(executionTime));
     }
 
+    /**
+     * JSON only, capped in bucket count; {@code /telemetry/timeseries/export} streams the same
+     * buckets as an attachment without the cap.
+     */
+    @GetMapping("/telemetry/timeseries")
+    public ResponseEntity<ApiResponse<List<TelemetryBucketDto>>> getTelemetryTimeseries(
+            @PathVariable String instance,
+            @RequestParam(required = false) String bucket,
+            @RequestParam(required = false) String date_from,
+            @RequestParam(required = false) String date_to,
+            @RequestParam(required = false) String driver_id,
+            @RequestParam(required = false) String vehicle_id) {
+
+        long startTime = System.currentTimeMillis();
+        validateInstance(instance);
+
+        List<TelemetryBucketDto> buckets = vehicleEventService.getTelemetryTimeseries(
+                bucket, date_from, date_to, driver_id, vehicle_id);
+
+        long executionTime = System.currentTimeMillis() - startTime;
+        return ResponseEntity.ok(ApiResponse.success(buckets).withExecutionTime(executionTime));
+    }
+
+    @GetMapping("/telemetry/timeseries/export")
+    public void exportTelemetryTimeseries(
+            @PathVariable String instance,
+            @RequestParam(required = false) String bucket,
+            @RequestParam(required = false) String date_from,
+            @RequestParam(required = false) String date_to,
+            @RequestParam(required = false) String driver_id,
+            @RequestParam(required = false) String vehicle_id,
+            @RequestParam(required = false) String format,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        validateInstance(instance);
+        ExportFormat exportFormat = ExportFormat.from(format);
+        vehicleEventService.exportTelemetryTimeseries(bucket, date_from, date_to, driver_id, vehicle_id,
+                exportFormat, ExportResponses.attachment(request, response, exportFormat, "telemetry-timeseries"));
+    }
+
+    @GetMapping("/telemetry/active-counts")
+    public ResponseEntity<ApiResponse<ActiveCountsDto>> getActiveCounts(
+            @PathVariable String instance,
+            @RequestParam(required = false) String date_from,
+            @RequestParam(required = false) String date_to,
+            @RequestParam(required = false) String bucket,
+            @RequestParam(defaultValue = "false") boolean exact) {
+
+        long startTime = System.currentTimeMillis();
+        validateInstance(instance);
+
+        ActiveCountsDto counts = vehicleEventService.getActiveCounts(date_from, date_to, bucket, exact);
+
+        long executionTime = System.currentTimeMillis() - startTime;
+        return ResponseEntity.ok(ApiResponse.success(counts).withExecutionTime(executionTime));
+    }
+
+    @PostMapping("/telemetry/active-counts/backfill")
+    public ResponseEntity<ApiResponse<Map<String, Long>>> backfillActiveCounts(
+            @PathVariable String instance,
+            @RequestParam(required = false) String date_from,
+            @RequestParam(required = false) String date_to) {
+
+        long startTime = System.currentTimeMillis();
+        validateInstance(instance);
+
+        long rows = vehicleEventService.backfillActivitySketches(date_from, date_to);
+        Map<String, Long> response = new HashMap<>();
+        response.put("rows_scanned", rows);
+
+        long executionTime = System.currentTimeMillis() - startTime;
+        return ResponseEntity.ok(ApiResponse.success(response).withExecutionTime(executionTime));
+    }
+
     @GetMapping("/telemetry/table-counts")
     public ResponseEntity<ApiResponse<Map<String, Object>>> getTelemetryTableCounts(
             @PathVariable String instance) {
@@ -148,20 +368,180 @@ public class VehicleEventController {
     @PostMapping("/vehicle-events/batch")
     public ResponseEntity<ApiResponse<Map<String, Object>>> batchInsertEvents(
             @PathVariable String instance,
+            @RequestParam(required = false) String mode,
+            @RequestParam(defaultValue = "false") boolean buffered,
+            @RequestParam(defaultValue = "false") boolean wait,
+            @RequestParam(defaultValue = "false") boolean parallel,
+            @RequestParam(defaultValue = "false") boolean ack_only,
+            @RequestParam(defaultValue = "false") boolean partial,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @RequestBody List<VehicleEventDto> events) {
 
         long startTime = System.currentTimeMillis();
         validateInstance(instance);
 
-        List<VehicleEventDto> savedEvents = vehicleEventService.batchInsertEvents(events);
+        String fingerprint = idempotencyKey == null ? null : String.join(":", "json", String.valueOf(mode),
+                String.valueOf(buffered), String.valueOf(wait), String.valueOf(parallel), String.valueOf(ack_only),
+                String.valueOf(partial), IdempotencyStore.digest(toJson(events)));
+        return idempotencyStore.execute(scopedKey(instance, idempotencyKey), fingerprint,
+                () -> insertBatch(events, mode, buffered, wait, parallel, ack_only, partial, startTime));
+    }
+
+    private ResponseEntity<ApiResponse<Map<String, Object>>> insertBatch(
+            List<VehicleEventDto> events, String mode, boolean buffered, boolean wait,
+            boolean parallel, boolean ackOnly, boolean partial, long startTime) {
+
+        if (buffered) {
+            IngestAckDto ack = vehicleEventService.bufferEvents(events, wait);
+            Map<String, Object> response = new HashMap<>();
+            response.put("ack_id", ack.getAckId());
+            response.put("status", ack.getStatus());
+            response.put("event_count", ack.getEventCount());
+            if (ack.getInsertedCount() != null) {
+                response.put("inserted_count", ack.getInsertedCount());
+            }
+            if (ack.getError() != null) {
+                response.put("error", ack.getError());
+            }
+
+            long executionTime = System.currentTimeMillis() - startTime;
+            if ("FAILED".equals(ack.getStatus())) {
+                ApiResponse<Map<String, Object>> failure = ApiResponse.error("Buffered batch " + ack.getAckId() + " failed: " + ack.getError());
+                failure.setData(response);
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(failure.withExecutionTime(executionTime));
+            }
+            HttpStatus status = "COMMITTED".equals(ack.getStatus()) ? HttpStatus.OK : HttpStatus.ACCEPTED;
+            return ResponseEntity.status(status).body(ApiResponse.success(response).withExecutionTime(executionTime));
+        }
+
+        IngestMode ingestMode = vehicleEventService.resolveIngestMode(mode);
+        BatchIngestResultDto result;
+        if (ackOnly || partial) {
+            result = vehicleEventService.insertValidEvents(events, ingestMode, parallel, partial);
+        } else {
+            result = vehicleEventService.insertEvents(events, ingestMode, parallel);
+        }
+
+        return batchInsertResponse(result, ingestMode, ackOnly, startTime);
+    }
 
+    @PostMapping(value = "/vehicle-events/batch", consumes = VehicleEventBinaryCodec.MEDIA_TYPE)
+    public ResponseEntity<ApiResponse<Map<String, Object>>> binaryInsertEvents(
+            @PathVariable String instance,
+            @RequestParam(required = false) String mode,
+            @RequestParam(defaultValue = "false") boolean parallel,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody byte[] body) {
+
+        long startTime = System.currentTimeMillis();
+        validateInstance(instance);
+
+        String fingerprint = idempotencyKey == null ? null : String.join(":", "binary", String.valueOf(mode),
+                String.valueOf(parallel), IdempotencyStore.digest(body));
+        return idempotencyStore.execute(scopedKey(instance, idempotencyKey), fingerprint, () -> {
+            IngestMode ingestMode = vehicleEventService.resolveIngestMode(mode);
+            BatchIngestResultDto result = vehicleEventService.insertBinaryEvents(body, ingestMode, parallel);
+            return batchInsertResponse(result, ingestMode, false, startTime);
+        });
+    }
+
+    @GetMapping("/vehicle-events/acks/{ackId}")
+    public ResponseEntity<ApiResponse<IngestAckDto>> getIngestAck(
+            @PathVariable String instance,
+            @PathVariable String ackId) {
+
+        long startTime = System.currentTimeMillis();
+        validateInstance(instance);
+
+        IngestAckDto ack = vehicleEventService.getIngestAck(ackId);
+        if (ack == null) {
+            long executionTime = System.currentTimeMillis() - startTime;
+            return ResponseEntity.notFound()
+                    .header("X-Execution-Time", String.valueOf(executionTime))
+                    .build();
+        }
+
+        long executionTime = System.currentTimeMillis() - startTime;
+        return ResponseEntity.ok(ApiResponse.success(ack).withExecutionTime(executionTime));
+    }
+
+    @PostMapping(value = "/vehicle-events/batch", consumes = "application/x-ndjson")
+    public ResponseEntity<ApiResponse<StreamIngestResultDto>> streamInsertEvents(
+            @PathVariable String instance,
+            @RequestParam(required = false) String mode,
+            HttpServletRequest request) throws IOException {
+
+        long startTime = System.currentTimeMillis();
+        validateInstance(instance);
+
+        IngestMode ingestMode = vehicleEventService.resolveIngestMode(mode);
+        StreamIngestResultDto result = vehicleEventService.streamInsertEvents(request.getInputStream(), ingestMode);
+
+        long executionTime = System.currentTimeMillis() - startTime;
+        if (!result.isComplete()) {
+            ApiResponse<StreamIngestResultDto> response = ApiResponse.error("Streaming ingest failed: " + result.getError());
+            response.setData(result);
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(response.withExecutionTime(executionTime));
+        }
+        return ResponseEntity.ok(ApiResponse.success(result).withExecutionTime(executionTime));
+    }
+
+    private ResponseEntity<ApiResponse<Map<String, Object>>> batchInsertResponse(
+            BatchIngestResultDto result, IngestMode ingestMode, boolean ackOnly, long startTime) {
         Map<String, Object> response = new HashMap<>();
-        response.put("inserted_count", savedEvents.size());
-        response.put("status", "success");
-        response.put("message", "Events inserted successfully");
+        response.put("inserted_count", result.getInsertedCount());
+        response.put("ingest_mode", ingestMode.name().toLowerCase());
+        if (result.isSpooled()) {
+            response.put("spooled_count", result.getSpooledCount());
+            response.put("status", "spooled");
+            response.put("message", "Events spooled locally and will be written when the database is available");
+        } else {
+            response.put("status", "success");
+            response.put("message", "Events inserted successfully");
+        }
+
+        if (result.getPartitions() != null) {
+            response.put("partitions", result.getPartitions());
+        }
+        if (result.getRejections() != null) {
+            if (ackOnly) {
+                response.put("rejected_indices", result.getRejectedIndices());
+                response.remove("message");
+            } else {
+                response.put("rejected_count", result.getRejections().size());
+                response.put("rejected", result.getRejections());
+            }
+            if (!result.getRejections().isEmpty()) {
+                response.put("status", "partial");
+            }
+            response.put("checksum", result.getChecksum());
+        }
 
         long executionTime = System.currentTimeMillis() - startTime;
-        return ResponseEntity.ok(ApiResponse.success(response).withExecutionTime(executionTime));
+        List<String> partitionErrors = result.getPartitionErrors();
+        if (!partitionErrors.isEmpty()) {
+            // Healthy partitions are already committed; report them alongside the failures
+            response.put("status", "partial");
+            response.remove("message");
+            ApiResponse<Map<String, Object>> error = ApiResponse.error("Parallel ingest failed for "
+                    + String.join("; ", partitionErrors));
+            error.setData(response);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error.withExecutionTime(executionTime));
+        }
+        HttpStatus status = result.isSpooled() ? HttpStatus.ACCEPTED : HttpStatus.OK;
+        return ResponseEntity.status(status).body(ApiResponse.success(response).withExecutionTime(executionTime));
+    }
+
+    private static String scopedKey(String instance, String idempotencyKey) {
+        return idempotencyKey != null ? instance + ":" + idempotencyKey : null;
+    }
+
+    private byte[] toJson(List<VehicleEventDto> events) {
+        try {
+            return objectMapper.writeValueAsBytes(events);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not serialize events for the Idempotency-Key check", e);
+        }
     }
 
     private void validateInstance(String instance) {
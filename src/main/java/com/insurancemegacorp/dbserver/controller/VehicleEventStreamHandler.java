@@ -0,0 +1,251 @@
+package com.insurancemegacorp.dbserver.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.insurancemegacorp.dbserver.config.DatabaseInstanceManager;
+import com.insurancemegacorp.dbserver.config.IngestionProperties;
+import com.insurancemegacorp.dbserver.dto.BatchIngestResultDto;
+import com.insurancemegacorp.dbserver.dto.IngestAckDto;
+import com.insurancemegacorp.dbserver.dto.VehicleEventDto;
+import com.insurancemegacorp.dbserver.exception.IngestionBackpressureException;
+import com.insurancemegacorp.dbserver.service.IngestMode;
+import com.insurancemegacorp.dbserver.service.VehicleEventService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Long-lived ingestion socket at {@code /api/{instance}/vehicle-events/stream}. The device
+ * authenticates and picks its options once, on the handshake; every frame after that is a
+ * batch fed to the same insert path as {@code POST /vehicle-events/batch}, without another
+ * pass through the servlet filter chain. Text frames hold a JSON event or array of events,
+ * binary frames a {@code VehicleEventBinaryCodec} batch. Each frame is answered with an
+ * {@code ack} or {@code error} message carrying the frame's sequence number.
+ *
+ * <p>Flow control comes from the server's write backlog: a session's frames are handled one
+ * at a time on the container thread, and in buffered mode a frame is held while the
+ * group-commit buffer is above {@code ingestion.socket.backlog-high-watermark}. While a frame
+ * is held the container stops reading that connection, so TCP pushes back on the device.
+ *
+ * <p>Handshakes must present one of {@code ingestion.socket.device-tokens}; with none
+ * configured every handshake is refused unless {@code ingestion.socket.allow-anonymous} is on.
+ */
+@Component
+public class VehicleEventStreamHandler extends AbstractWebSocketHandler implements HandshakeInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(VehicleEventStreamHandler.class);
+
+    private static final String INSTANCE = "instance";
+    private static final String MODE = "mode";
+    private static final String BUFFERED = "buffered";
+    private static final String SEQUENCE = "sequence";
+
+    private final VehicleEventService vehicleEventService;
+    private final DatabaseInstanceManager databaseInstanceManager;
+    private final IngestionProperties.Socket config;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader frameReader;
+
+    public VehicleEventStreamHandler(VehicleEventService vehicleEventService,
+                                     DatabaseInstanceManager databaseInstanceManager,
+                                     IngestionProperties ingestionProperties,
+                                     ObjectMapper objectMapper) {
+        this.vehicleEventService = vehicleEventService;
+        this.databaseInstanceManager = databaseInstanceManager;
+        this.config = ingestionProperties.getSocket();
+        this.objectMapper = objectMapper;
+        this.frameReader = objectMapper.readerForListOf(VehicleEventDto.class)
+                .with(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY);
+    }
+
+    @PostConstruct
+    void warnIfUnauthenticated() {
+        if (!config.isEnabled() || !config.getDeviceTokens().isEmpty()) {
+            return;
+        }
+        if (config.isAllowAnonymous()) {
+            log.warn("SECURITY: ingestion.socket.allow-anonymous is on with no device tokens configured, "
+                    + "any client can write events through /vehicle-events/stream");
+        } else {
+            log.warn("No ingestion.socket.device-tokens configured, every /vehicle-events/stream handshake "
+                    + "will be refused with 401");
+        }
+    }
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        String[] segments = request.getURI().getPath().split("/");
+        // ["", "api", "{instance}", "vehicle-events", "stream"]
+        String instance = segments.length > 2 ? segments[2] : null;
+        if (instance == null || !databaseInstanceManager.isInstanceAvailable(instance)) {
+            response.setStatusCode(HttpStatus.NOT_FOUND);
+            return false;
+        }
+        if (!isAuthorized(request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION))) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+
+        MultiValueMap<String, String> params = UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams();
+        try {
+            attributes.put(MODE, vehicleEventService.resolveIngestMode(params.getFirst(MODE)));
+        } catch (IllegalArgumentException e) {
+            response.setStatusCode(HttpStatus.BAD_REQUEST);
+            return false;
+        }
+        attributes.put(INSTANCE, instance);
+        attributes.put(BUFFERED, Boolean.parseBoolean(params.getFirst(BUFFERED)));
+        attributes.put(SEQUENCE, new AtomicLong());
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws IOException {
+        long seq = nextSequence(session);
+        List<VehicleEventDto> events;
+        try {
+            events = frameReader.readValue(message.getPayload());
+        } catch (JsonProcessingException e) {
+            reply(session, error(seq, "Malformed frame: " + e.getOriginalMessage(), false));
+            return;
+        }
+
+        IngestMode mode = (IngestMode) session.getAttributes().get(MODE);
+        if (isBuffered(session)) {
+            reply(session, ingest(seq, () -> buffer(() -> vehicleEventService.bufferEvents(events, false))));
+        } else {
+            reply(session, ingest(seq, () -> result(events.size(), vehicleEventService.insertEvents(events, mode, false))));
+        }
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws IOException {
+        long seq = nextSequence(session);
+        ByteBuffer payload = message.getPayload();
+        byte[] body = new byte[payload.remaining()];
+        payload.get(body);
+
+        IngestMode mode = (IngestMode) session.getAttributes().get(MODE);
+        if (isBuffered(session)) {
+            reply(session, ingest(seq, () -> buffer(() -> vehicleEventService.bufferBinaryEvents(body, false))));
+        } else {
+            reply(session, ingest(seq, () -> {
+                BatchIngestResultDto result = vehicleEventService.insertBinaryEvents(body, mode, false);
+                return result(null, result);
+            }));
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        log.debug("Ingestion stream for {} closed after {} frames: {}", session.getAttributes().get(INSTANCE),
+                ((AtomicLong) session.getAttributes().get(SEQUENCE)).get(), status);
+    }
+
+    private Map<String, Object> ingest(long seq, Supplier<Map<String, Object>> write) {
+        try {
+            Map<String, Object> response = write.get();
+            response.put("type", "ack");
+            response.put("seq", seq);
+            response.put("backlog", vehicleEventService.getBufferBacklogRatio());
+            return response;
+        } catch (IngestionBackpressureException e) {
+            return error(seq, e.getMessage(), true);
+        } catch (IllegalArgumentException e) {
+            return error(seq, e.getMessage(), false);
+        } catch (RuntimeException e) {
+            log.error("Ingestion stream frame {} failed: {}", seq, e.getMessage());
+            return error(seq, e.getMessage(), true);
+        }
+    }
+
+    private Map<String, Object> buffer(Supplier<IngestAckDto> submit) {
+        // Holds the container thread, and with it reads from this connection, until writers drain
+        vehicleEventService.awaitBufferBacklog(config.getBacklogHighWatermark(), config.getBacklogWaitMs());
+        IngestAckDto ack = submit.get();
+        Map<String, Object> response = new HashMap<>();
+        response.put("ack_id", ack.getAckId());
+        response.put("status", ack.getStatus());
+        response.put("event_count", ack.getEventCount());
+        return response;
+    }
+
+    private boolean isAuthorized(String authorization) {
+        if (config.getDeviceTokens().isEmpty()) {
+            return config.isAllowAnonymous();
+        }
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return false;
+        }
+        byte[] presented = authorization.substring("Bearer ".length()).trim().getBytes(StandardCharsets.UTF_8);
+        for (String token : config.getDeviceTokens()) {
+            if (MessageDigest.isEqual(presented, token.getBytes(StandardCharsets.UTF_8))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isBuffered(WebSocketSession session) {
+        return Boolean.TRUE.equals(session.getAttributes().get(BUFFERED));
+    }
+
+    private long nextSequence(WebSocketSession session) {
+        return ((AtomicLong) session.getAttributes().get(SEQUENCE)).incrementAndGet();
+    }
+
+    private void reply(WebSocketSession session, Map<String, Object> response) throws IOException {
+        session.sendMessage(new TextMessage(objectMapper.writeValueAsString(response)));
+    }
+
+    private static Map<String, Object> result(Integer eventCount, BatchIngestResultDto result) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", result.isSpooled() ? "SPOOLED" : "COMMITTED");
+        if (eventCount != null) {
+            response.put("event_count", eventCount);
+        }
+        response.put("inserted_count", result.getInsertedCount());
+        return response;
+    }
+
+    private static Map<String, Object> error(long seq, String message, boolean retryable) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("type", "error");
+        response.put("seq", seq);
+        response.put("error", message);
+        response.put("retryable", retryable);
+        return response;
+    }
+}
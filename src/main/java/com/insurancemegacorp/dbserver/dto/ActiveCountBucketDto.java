@@ -0,0 +1,40 @@
+package com.insurancemegacorp.dbserver.dto;
+
+public class ActiveCountBucketDto {
+
+    private long bucketStart;
+    private long activeDrivers;
+    private long activeVehicles;
+
+    public ActiveCountBucketDto() {}
+
+    public ActiveCountBucketDto(long bucketStart, long activeDrivers, long activeVehicles) {
+        this.bucketStart = bucketStart;
+        this.activeDrivers = activeDrivers;
+        this.activeVehicles = activeVehicles;
+    }
+
+    public long getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(long bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public long getActiveDrivers() {
+        return activeDrivers;
+    }
+
+    public void setActiveDrivers(long activeDrivers) {
+        this.activeDrivers = activeDrivers;
+    }
+
+    public long getActiveVehicles() {
+        return activeVehicles;
+    }
+
+    public void setActiveVehicles(long activeVehicles) {
+        this.activeVehicles = activeVehicles;
+    }
+}
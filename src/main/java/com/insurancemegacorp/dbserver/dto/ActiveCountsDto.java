@@ -0,0 +1,76 @@
+package com.insurancemegacorp.dbserver.dto;
+
+import java.util.List;
+
+/**
+ * Distinct drivers and vehicles over whole UTC days from {@code rangeStart} (inclusive) to
+ * {@code rangeEnd} (exclusive). Approximate counts carry their relative standard error.
+ */
+public class ActiveCountsDto {
+
+    private long rangeStart;
+    private long rangeEnd;
+    private boolean exact;
+    private Double relativeStandardError;
+    private long activeDrivers;
+    private long activeVehicles;
+    private List<ActiveCountBucketDto> buckets;
+
+    public ActiveCountsDto() {}
+
+    public long getRangeStart() {
+        return rangeStart;
+    }
+
+    public void setRangeStart(long rangeStart) {
+        this.rangeStart = rangeStart;
+    }
+
+    public long getRangeEnd() {
+        return rangeEnd;
+    }
+
+    public void setRangeEnd(long rangeEnd) {
+        this.rangeEnd = rangeEnd;
+    }
+
+    public boolean isExact() {
+        return exact;
+    }
+
+    public void setExact(boolean exact) {
+        this.exact = exact;
+    }
+
+    public Double getRelativeStandardError() {
+        return relativeStandardError;
+    }
+
+    public void setRelativeStandardError(Double relativeStandardError) {
+        this.relativeStandardError = relativeStandardError;
+    }
+
+    public long getActiveDrivers() {
+        return activeDrivers;
+    }
+
+    public void setActiveDrivers(long activeDrivers) {
+        this.activeDrivers = activeDrivers;
+    }
+
+    public long getActiveVehicles() {
+        return activeVehicles;
+    }
+
+    public void setActiveVehicles(long activeVehicles) {
+        this.activeVehicles = activeVehicles;
+    }
+
+    public List<ActiveCountBucketDto> getBuckets() {
+        return buckets;
+    }
+
+    public void setBuckets(List<ActiveCountBucketDto> buckets) {
+        this.buckets = buckets;
+    }
+}
@@ -0,0 +1,80 @@
+package com.insurancemegacorp.dbserver.dto;
+
+import java.util.List;
+
+public class BatchIngestResultDto {
+
+    private long insertedCount;
+    private long spooledCount;
+    private List<PartitionIngestResultDto> partitions;
+    private List<RowRejectionDto> rejections;
+    private String checksum;
+
+    public BatchIngestResultDto() {}
+
+    public BatchIngestResultDto(long insertedCount, long spooledCount) {
+        this.insertedCount = insertedCount;
+        this.spooledCount = spooledCount;
+    }
+
+    public boolean isSpooled() {
+        return spooledCount > 0;
+    }
+
+    public List<String> getPartitionErrors() {
+        if (partitions == null) {
+            return List.of();
+        }
+        return partitions.stream()
+                .filter(partition -> partition.getError() != null)
+                .map(partition -> "partition " + partition.getPartition() + ": " + partition.getError())
+                .toList();
+    }
+
+    public List<Integer> getRejectedIndices() {
+        if (rejections == null) {
+            return List.of();
+        }
+        return rejections.stream().map(RowRejectionDto::getIndex).toList();
+    }
+
+    public long getInsertedCount() {
+        return insertedCount;
+    }
+
+    public void setInsertedCount(long insertedCount) {
+        this.insertedCount = insertedCount;
+    }
+
+    public long getSpooledCount() {
+        return spooledCount;
+    }
+
+    public void setSpooledCount(long spooledCount) {
+        this.spooledCount = spooledCount;
+    }
+
+    public List<PartitionIngestResultDto> getPartitions() {
+        return partitions;
+    }
+
+    public void setPartitions(List<PartitionIngestResultDto> partitions) {
+        this.partitions = partitions;
+    }
+
+    public List<RowRejectionDto> getRejections() {
+        return rejections;
+    }
+
+    public void setRejections(List<RowRejectionDto> rejections) {
+        this.rejections = rejections;
+    }
+
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public void setChecksum(String checksum) {
+        this.checksum = checksum;
+    }
+}
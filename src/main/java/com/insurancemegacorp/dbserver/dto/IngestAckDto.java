@@ -0,0 +1,77 @@
+package com.insurancemegacorp.dbserver.dto;
+
+public class IngestAckDto {
+
+    private String ackId;
+    private String status;
+    private Integer eventCount;
+    private Long insertedCount;
+    private Long submittedAt;
+    private Long committedAt;
+    private String error;
+
+    public IngestAckDto() {}
+
+    public IngestAckDto(String ackId, String status, Integer eventCount) {
+        this.ackId = ackId;
+        this.status = status;
+        this.eventCount = eventCount;
+        this.submittedAt = System.currentTimeMillis();
+    }
+
+    public String getAckId() {
+        return ackId;
+    }
+
+    public void setAckId(String ackId) {
+        this.ackId = ackId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Integer getEventCount() {
+        return eventCount;
+    }
+
+    public void setEventCount(Integer eventCount) {
+        this.eventCount = eventCount;
+    }
+
+    public Long getInsertedCount() {
+        return insertedCount;
+    }
+
+    public void setInsertedCount(Long insertedCount) {
+        this.insertedCount = insertedCount;
+    }
+
+    public Long getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public void setSubmittedAt(Long submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+
+    public Long getCommittedAt() {
+        return committedAt;
+    }
+
+    public void setCommittedAt(Long committedAt) {
+        this.committedAt = committedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,62 @@
+package com.insurancemegacorp.dbserver.dto;
+
+public class PartitionIngestResultDto {
+
+    private int partition;
+    private int eventCount;
+    private long insertedCount;
+    private int commits;
+    private String error;
+
+    public PartitionIngestResultDto() {}
+
+    public PartitionIngestResultDto(int partition, int eventCount) {
+        this.partition = partition;
+        this.eventCount = eventCount;
+    }
+
+    public void recordCommit(long committed) {
+        commits++;
+        insertedCount += committed;
+    }
+
+    public int getPartition() {
+        return partition;
+    }
+
+    public void setPartition(int partition) {
+        this.partition = partition;
+    }
+
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    public void setEventCount(int eventCount) {
+        this.eventCount = eventCount;
+    }
+
+    public long getInsertedCount() {
+        return insertedCount;
+    }
+
+    public void setInsertedCount(long insertedCount) {
+        this.insertedCount = insertedCount;
+    }
+
+    public int getCommits() {
+        return commits;
+    }
+
+    public void setCommits(int commits) {
+        this.commits = commits;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,40 @@
+package com.insurancemegacorp.dbserver.dto;
+
+public class RowRejectionDto {
+
+    private int index;
+    private String code;
+    private String message;
+
+    public RowRejectionDto() {}
+
+    public RowRejectionDto(int index, String code, String message) {
+        this.index = index;
+        this.code = code;
+        this.message = message;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,64 @@
+package com.insurancemegacorp.dbserver.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class StreamIngestResultDto {
+
+    private long insertedCount;
+    private long spooledCount;
+    private List<Long> chunkCommits = new ArrayList<>();
+    private boolean complete;
+    private String error;
+
+    public StreamIngestResultDto() {}
+
+    public void recordChunk(long committed) {
+        chunkCommits.add(committed);
+        insertedCount += committed;
+    }
+
+    public void recordSpooled(long spooled) {
+        spooledCount += spooled;
+    }
+
+    public long getInsertedCount() {
+        return insertedCount;
+    }
+
+    public void setInsertedCount(long insertedCount) {
+        this.insertedCount = insertedCount;
+    }
+
+    public long getSpooledCount() {
+        return spooledCount;
+    }
+
+    public void setSpooledCount(long spooledCount) {
+        this.spooledCount = spooledCount;
+    }
+
+    public List<Long> getChunkCommits() {
+        return chunkCommits;
+    }
+
+    public void setChunkCommits(List<Long> chunkCommits) {
+        this.chunkCommits = chunkCommits;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,61 @@
+package com.insurancemegacorp.dbserver.dto;
+
+public class TelemetryBucketDto {
+
+    private long bucketStart;
+    private long eventCount;
+    private Double avgSpeedMph;
+    private Float maxSpeedMph;
+    private Float maxGForce;
+    private long speedingCount;
+
+    public TelemetryBucketDto() {}
+
+    public long getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(long bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    public void setEventCount(long eventCount) {
+        this.eventCount = eventCount;
+    }
+
+    public Double getAvgSpeedMph() {
+        return avgSpeedMph;
+    }
+
+    public void setAvgSpeedMph(Double avgSpeedMph) {
+        this.avgSpeedMph = avgSpeedMph;
+    }
+
+    public Float getMaxSpeedMph() {
+        return maxSpeedMph;
+    }
+
+    public void setMaxSpeedMph(Float maxSpeedMph) {
+        this.maxSpeedMph = maxSpeedMph;
+    }
+
+    public Float getMaxGForce() {
+        return maxGForce;
+    }
+
+    public void setMaxGForce(Float maxGForce) {
+        this.maxGForce = maxGForce;
+    }
+
+    public long getSpeedingCount() {
+        return speedingCount;
+    }
+
+    public void setSpeedingCount(long speedingCount) {
+        this.speedingCount = speedingCount;
+    }
+}
@@ -0,0 +1,168 @@
+package com.insurancemegacorp.dbserver.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Trip summary; {@code events} is only filled in for a single trip's detail.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TripDto {
+
+    private Long tripId;
+    private long vehicleId;
+    private Integer driverId;
+    private long startTime;
+    private long endTime;
+    private long durationMs;
+    private Double startLatitude;
+    private Double startLongitude;
+    private Double endLatitude;
+    private Double endLongitude;
+    private double distanceMeters;
+    private Float maxSpeedMph;
+    private Float maxGForce;
+    private double speedingSeconds;
+    private int eventCount;
+    private boolean open;
+    private List<VehicleEventDto> events;
+
+    public TripDto() {}
+
+    public Long getTripId() {
+        return tripId;
+    }
+
+    public void setTripId(Long tripId) {
+        this.tripId = tripId;
+    }
+
+    public long getVehicleId() {
+        return vehicleId;
+    }
+
+    public void setVehicleId(long vehicleId) {
+        this.vehicleId = vehicleId;
+    }
+
+    public Integer getDriverId() {
+        return driverId;
+    }
+
+    public void setDriverId(Integer driverId) {
+        this.driverId = driverId;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(long startTime) {
+        this.startTime = startTime;
+    }
+
+    public long getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(long endTime) {
+        this.endTime = endTime;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public Double getStartLatitude() {
+        return startLatitude;
+    }
+
+    public void setStartLatitude(Double startLatitude) {
+        this.startLatitude = startLatitude;
+    }
+
+    public Double getStartLongitude() {
+        return startLongitude;
+    }
+
+    public void setStartLongitude(Double startLongitude) {
+        this.startLongitude = startLongitude;
+    }
+
+    public Double getEndLatitude() {
+        return endLatitude;
+    }
+
+    public void setEndLatitude(Double endLatitude) {
+        this.endLatitude = endLatitude;
+    }
+
+    public Double getEndLongitude() {
+        return endLongitude;
+    }
+
+    public void setEndLongitude(Double endLongitude) {
+        this.endLongitude = endLongitude;
+    }
+
+    public double getDistanceMeters() {
+        return distanceMeters;
+    }
+
+    public void setDistanceMeters(double distanceMeters) {
+        this.distanceMeters = distanceMeters;
+    }
+
+    public Float getMaxSpeedMph() {
+        return maxSpeedMph;
+    }
+
+    public void setMaxSpeedMph(Float maxSpeedMph) {
+        this.maxSpeedMph = maxSpeedMph;
+    }
+
+    public Float getMaxGForce() {
+        return maxGForce;
+    }
+
+    public void setMaxGForce(Float maxGForce) {
+        this.maxGForce = maxGForce;
+    }
+
+    public double getSpeedingSeconds() {
+        return speedingSeconds;
+    }
+
+    public void setSpeedingSeconds(double speedingSeconds) {
+        this.speedingSeconds = speedingSeconds;
+    }
+
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    public void setEventCount(int eventCount) {
+        this.eventCount = eventCount;
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    public void setOpen(boolean open) {
+        this.open = open;
+    }
+
+    public List<VehicleEventDto> getEvents() {
+        return events;
+    }
+
+    public void setEvents(List<VehicleEventDto> events) {
+        this.events = events;
+    }
+}
@@ -0,0 +1,12 @@
+package com.insurancemegacorp.dbserver.exception;
+
+/**
+ * An export failed after its response started streaming. The stream is left open so the
+ * container resets the connection instead of ending the download cleanly.
+ */
+public class ExportAbortedException extends RuntimeException {
+
+    public ExportAbortedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -23,6 +23,46 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.error(ex.getMessage()));
     }
 
+    @ExceptionHandler(IngestionBackpressureException.class)
+    public ResponseEntity<ApiResponse<Object>> handleIngestionBackpressure(IngestionBackpressureException ex) {
+        logger.warn("Ingestion rejected: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<ApiResponse<Object>> handleIdempotencyConflict(IdempotencyConflictException ex) {
+        logger.warn("Idempotent request conflict: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header("Retry-After", "1")
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+
+    @ExceptionHandler(LiveFeedUnavailableException.class)
+    public ResponseEntity<ApiResponse<Object>> handleLiveFeedUnavailable(LiveFeedUnavailableException ex) {
+        logger.warn("Live feed subscription rejected: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "5")
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+
+    @ExceptionHandler(TripsUnavailableException.class)
+    public ResponseEntity<ApiResponse<Object>> handleTripsUnavailable(TripsUnavailableException ex) {
+        logger.warn("Trip request rejected: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+
+    /**
+     * Rethrown so the container resets the connection; the response is already streaming.
+     */
+    @ExceptionHandler(ExportAbortedException.class)
+    public void handleExportAborted(ExportAbortedException ex) {
+        logger.error("Export aborted", ex);
+        throw ex;
+    }
+
     @ExceptionHandler({MethodArgumentNotValidException.class, BindException.class})
     public ResponseEntity<ApiResponse<Object>> handleValidationException(Exception ex) {
         logger.warn("Validation error: {}", ex.getMessage());
@@ -0,0 +1,8 @@
+package com.insurancemegacorp.dbserver.exception;
+
+public class IngestionBackpressureException extends RuntimeException {
+
+    public IngestionBackpressureException(String message) {
+        super(message);
+    }
+}
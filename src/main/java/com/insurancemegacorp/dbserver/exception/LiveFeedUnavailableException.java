@@ -0,0 +1,8 @@
+package com.insurancemegacorp.dbserver.exception;
+
+public class LiveFeedUnavailableException extends RuntimeException {
+
+    public LiveFeedUnavailableException(String message) {
+        super(message);
+    }
+}
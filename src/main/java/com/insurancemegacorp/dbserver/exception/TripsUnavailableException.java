@@ -0,0 +1,8 @@
+package com.insurancemegacorp.dbserver.exception;
+
+public class TripsUnavailableException extends RuntimeException {
+
+    public TripsUnavailableException() {
+        super("Trip segmentation is disabled or the vehicle_trips table is missing");
+    }
+}
@@ -0,0 +1,99 @@
+package com.insurancemegacorp.dbserver.model;
+
+/**
+ * In-memory partial aggregate of one driver's events, merged into
+ * {@code driver_feature_state}. Not a JPA entity.
+ *
+ * <p>Feature definitions match the ML training query: speed compliance is 100 at or below
+ * 65 mph and {@code 65 / speed * 100} above it, a harsh event has |accelerometer x or y| above
+ * 0.5, and g-force is the accelerometer vector magnitude. Speed variance is tracked with
+ * Welford's algorithm so deltas can be merged without revisiting events.
+ */
+public class DriverFeatureDelta {
+
+    private static final double SPEED_LIMIT_MPH = 65.0;
+    private static final double HARSH_ACCELERATION = 0.5;
+
+    private long eventCount;
+    private long speedCount;
+    private double speedComplianceSum;
+    private long harshEventCount;
+    private long gForceCount;
+    private double gForceSum;
+    private double speedMean;
+    private double speedM2;
+
+    public void add(VehicleEvent event) {
+        eventCount++;
+
+        Float speed = event.getSpeedMph();
+        if (speed != null) {
+            speedCount++;
+            speedComplianceSum += speed <= SPEED_LIMIT_MPH ? 100.0 : SPEED_LIMIT_MPH / speed * 100;
+            double delta = speed - speedMean;
+            speedMean += delta / speedCount;
+            speedM2 += delta * (speed - speedMean);
+        }
+
+        Float x = event.getAccelerometerX();
+        Float y = event.getAccelerometerY();
+        Float z = event.getAccelerometerZ();
+        if ((x != null && Math.abs(x) > HARSH_ACCELERATION) || (y != null && Math.abs(y) > HARSH_ACCELERATION)) {
+            harshEventCount++;
+        }
+        if (x != null && y != null && z != null) {
+            gForceCount++;
+            gForceSum += Math.sqrt((double) x * x + (double) y * y + (double) z * z);
+        }
+    }
+
+    /**
+     * Folds another delta into this one (Chan et al. parallel variance combination).
+     */
+    public void merge(DriverFeatureDelta other) {
+        long combinedSpeedCount = speedCount + other.speedCount;
+        if (combinedSpeedCount > 0) {
+            double delta = other.speedMean - speedMean;
+            speedM2 += other.speedM2 + delta * delta * speedCount * other.speedCount / combinedSpeedCount;
+            speedMean += delta * other.speedCount / combinedSpeedCount;
+        }
+        speedCount = combinedSpeedCount;
+        eventCount += other.eventCount;
+        speedComplianceSum += other.speedComplianceSum;
+        harshEventCount += other.harshEventCount;
+        gForceCount += other.gForceCount;
+        gForceSum += other.gForceSum;
+    }
+
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    public long getSpeedCount() {
+        return speedCount;
+    }
+
+    public double getSpeedComplianceSum() {
+        return speedComplianceSum;
+    }
+
+    public long getHarshEventCount() {
+        return harshEventCount;
+    }
+
+    public long getGForceCount() {
+        return gForceCount;
+    }
+
+    public double getGForceSum() {
+        return gForceSum;
+    }
+
+    public double getSpeedMean() {
+        return speedMean;
+    }
+
+    public double getSpeedM2() {
+        return speedM2;
+    }
+}
@@ -0,0 +1,221 @@
+package com.insurancemegacorp.dbserver.model;
+
+import com.insurancemegacorp.dbserver.util.GeoBox;
+
+/**
+ * Running summary of one vehicle trip, persisted to {@code vehicle_trips}. Not a JPA entity.
+ *
+ * <p>Distance is the haversine length of the GPS track. Speeding time is the time from each
+ * event reported above its {@code speed_limit_mph} to the next event of the trip.
+ */
+public class TripSummary {
+
+    private Long tripId;
+    private long vehicleId;
+    private Integer driverId;
+    private long startTime;
+    private long endTime;
+    private Double startLatitude;
+    private Double startLongitude;
+    private Double endLatitude;
+    private Double endLongitude;
+    private double distanceMeters;
+    private Float maxSpeedMph;
+    private Float maxGForce;
+    private double speedingSeconds;
+    private int eventCount;
+    private boolean open = true;
+
+    // Previous event, for the distance and speeding of the next interval; not persisted
+    private boolean lastSpeeding;
+
+    public TripSummary() {}
+
+    public TripSummary(long vehicleId, VehicleEvent first) {
+        this.vehicleId = vehicleId;
+        this.driverId = first.getDriverId();
+        this.startTime = first.getEventTime();
+        this.startLatitude = first.getGpsLatitude();
+        this.startLongitude = first.getGpsLongitude();
+        this.endTime = first.getEventTime();
+        add(first);
+    }
+
+    /**
+     * Extends the trip to {@code event}, which must not be older than {@link #getEndTime()}.
+     */
+    public void add(VehicleEvent event) {
+        long time = event.getEventTime();
+        if (eventCount > 0) {
+            if (lastSpeeding) {
+                speedingSeconds += (time - endTime) / 1000.0;
+            }
+            if (endLatitude != null && endLongitude != null
+                    && event.getGpsLatitude() != null && event.getGpsLongitude() != null) {
+                distanceMeters += GeoBox.distanceMeters(endLatitude, endLongitude,
+                        event.getGpsLatitude(), event.getGpsLongitude());
+            }
+        }
+        eventCount++;
+        endTime = time;
+        if (event.getGpsLatitude() != null && event.getGpsLongitude() != null) {
+            endLatitude = event.getGpsLatitude();
+            endLongitude = event.getGpsLongitude();
+        }
+        Float speed = event.getSpeedMph();
+        if (speed != null && (maxSpeedMph == null || speed > maxSpeedMph)) {
+            maxSpeedMph = speed;
+        }
+        Float gForce = event.getGForce();
+        if (gForce != null && (maxGForce == null || gForce > maxGForce)) {
+            maxGForce = gForce;
+        }
+        Float limit = event.getSpeedLimitMph();
+        lastSpeeding = speed != null && limit != null && limit > 0 && speed > limit;
+    }
+
+    public TripSummary copy() {
+        TripSummary copy = new TripSummary();
+        copy.tripId = tripId;
+        copy.vehicleId = vehicleId;
+        copy.driverId = driverId;
+        copy.startTime = startTime;
+        copy.endTime = endTime;
+        copy.startLatitude = startLatitude;
+        copy.startLongitude = startLongitude;
+        copy.endLatitude = endLatitude;
+        copy.endLongitude = endLongitude;
+        copy.distanceMeters = distanceMeters;
+        copy.maxSpeedMph = maxSpeedMph;
+        copy.maxGForce = maxGForce;
+        copy.speedingSeconds = speedingSeconds;
+        copy.eventCount = eventCount;
+        copy.open = open;
+        copy.lastSpeeding = lastSpeeding;
+        return copy;
+    }
+
+    public long getDurationMs() {
+        return endTime - startTime;
+    }
+
+    public Long getTripId() {
+        return tripId;
+    }
+
+    public void setTripId(Long tripId) {
+        this.tripId = tripId;
+    }
+
+    public long getVehicleId() {
+        return vehicleId;
+    }
+
+    public void setVehicleId(long vehicleId) {
+        this.vehicleId = vehicleId;
+    }
+
+    public Integer getDriverId() {
+        return driverId;
+    }
+
+    public void setDriverId(Integer driverId) {
+        this.driverId = driverId;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(long startTime) {
+        this.startTime = startTime;
+    }
+
+    public long getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(long endTime) {
+        this.endTime = endTime;
+    }
+
+    public Double getStartLatitude() {
+        return startLatitude;
+    }
+
+    public void setStartLatitude(Double startLatitude) {
+        this.startLatitude = startLatitude;
+    }
+
+    public Double getStartLongitude() {
+        return startLongitude;
+    }
+
+    public void setStartLongitude(Double startLongitude) {
+        this.startLongitude = startLongitude;
+    }
+
+    public Double getEndLatitude() {
+        return endLatitude;
+    }
+
+    public void setEndLatitude(Double endLatitude) {
+        this.endLatitude = endLatitude;
+    }
+
+    public Double getEndLongitude() {
+        return endLongitude;
+    }
+
+    public void setEndLongitude(Double endLongitude) {
+        this.endLongitude = endLongitude;
+    }
+
+    public double getDistanceMeters() {
+        return distanceMeters;
+    }
+
+    public void setDistanceMeters(double distanceMeters) {
+        this.distanceMeters = distanceMeters;
+    }
+
+    public Float getMaxSpeedMph() {
+        return maxSpeedMph;
+    }
+
+    public void setMaxSpeedMph(Float maxSpeedMph) {
+        this.maxSpeedMph = maxSpeedMph;
+    }
+
+    public Float getMaxGForce() {
+        return maxGForce;
+    }
+
+    public void setMaxGForce(Float maxGForce) {
+        this.maxGForce = maxGForce;
+    }
+
+    public double getSpeedingSeconds() {
+        return speedingSeconds;
+    }
+
+    public void setSpeedingSeconds(double speedingSeconds) {
+        this.speedingSeconds = speedingSeconds;
+    }
+
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    public void setEventCount(int eventCount) {
+        this.eventCount = eventCount;
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    public void setOpen(boolean open) {
+        this.open = open;
+    }
+}
@@ -1,11 +1,12 @@
 package com.insurancemegacorp.dbserver.model;
 
 import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
 
 @Entity
 @Table(name = "vehicle_events")
 @IdClass(VehicleEventId.class)
-public class VehicleEvent {
+public class VehicleEvent implements Persistable<VehicleEventId> {
     
     @Id
     @Column(name = "policy_id")
@@ -110,8 +111,30 @@ public class VehicleEvent {
     @Column(name = "device_charging")
     private Boolean deviceCharging;
 
+    // Telemetry is append-only and the composite id is assigned by the device, so Spring Data
+    // cannot infer newness from the id. Treat unloaded instances as new so saveAll() persists
+    // instead of merging, which would SELECT every row before inserting it.
+    @Transient
+    private boolean newEvent = true;
+
     public VehicleEvent() {}
 
+    @Override
+    public VehicleEventId getId() {
+        return new VehicleEventId(policyId, vehicleId, driverId, eventTime);
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEvent;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEvent = false;
+    }
+
     // Getters and Setters
     public Long getPolicyId() {
         return policyId;
@@ -0,0 +1,121 @@
+package com.insurancemegacorp.dbserver.repository;
+
+import com.insurancemegacorp.dbserver.util.HyperLogLog;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * JDBC access to {@code activity_sketches} (see {@code sql/activity_sketches.sql}), plus the
+ * exact {@code COUNT(DISTINCT)} queries over {@code vehicle_events} the sketches stand in for.
+ */
+@Repository
+public class ActivitySketchRepository {
+
+    public static final String DRIVER = "driver";
+    public static final String VEHICLE = "vehicle";
+    public static final long DAY_MILLIS = 86_400_000L;
+
+    private static final String INSERT_SQL = """
+            INSERT INTO activity_sketches (dimension, bucket_day, registers, updated_at)
+            VALUES (?, ?, ?, now())
+            ON CONFLICT (dimension, bucket_day) DO NOTHING
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ActivitySketchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean tableExists() {
+        Boolean exists = jdbcTemplate.queryForObject(
+                "SELECT to_regclass('activity_sketches') IS NOT NULL", Boolean.class);
+        return Boolean.TRUE.equals(exists);
+    }
+
+    /**
+     * Folds {@code sketch} into the stored one for the day. The stored row is locked while it
+     * is merged, so this must run inside a transaction; concurrent writers merge one after the
+     * other instead of overwriting each other.
+     */
+    public void merge(String dimension, int bucketDay, HyperLogLog sketch) {
+        if (jdbcTemplate.update(INSERT_SQL, dimension, bucketDay, sketch.toBytes()) > 0) {
+            return;
+        }
+        byte[] stored = jdbcTemplate.queryForObject(
+                "SELECT registers FROM activity_sketches WHERE dimension = ? AND bucket_day = ? FOR UPDATE",
+                byte[].class, dimension, bucketDay);
+        HyperLogLog merged = HyperLogLog.fromBytes(stored);
+        merged.merge(sketch);
+        jdbcTemplate.update(
+                "UPDATE activity_sketches SET registers = ?, updated_at = now() WHERE dimension = ? AND bucket_day = ?",
+                merged.toBytes(), dimension, bucketDay);
+    }
+
+    /**
+     * Stored sketches for {@code fromDay} to {@code toDay} inclusive, keyed by day.
+     */
+    public Map<Integer, HyperLogLog> findSketches(String dimension, int fromDay, int toDay) {
+        Map<Integer, HyperLogLog> sketches = new TreeMap<>();
+        jdbcTemplate.query(
+                "SELECT bucket_day, registers FROM activity_sketches WHERE dimension = ? AND bucket_day BETWEEN ? AND ?",
+                (RowCallbackHandler) rs -> sketches.put(rs.getInt(1), HyperLogLog.fromBytes(rs.getBytes(2))),
+                dimension, fromDay, toDay);
+        return sketches;
+    }
+
+    /**
+     * Streams the distinct (day, driver, vehicle) combinations of {@code vehicle_events} in
+     * the day range to {@code handler}.
+     */
+    public void scanActivity(int fromDay, int toDay, int fetchSize, RowCallbackHandler handler) {
+        String sql = "SELECT DISTINCT event_time / " + DAY_MILLIS + " AS bucket_day, driver_id, vehicle_id"
+                + " FROM vehicle_events WHERE event_time >= ? AND event_time < ?";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(Math.max(1, fetchSize));
+            statement.setLong(1, fromDay * DAY_MILLIS);
+            statement.setLong(2, (toDay + 1L) * DAY_MILLIS);
+            return statement;
+        }, handler);
+    }
+
+    /**
+     * Exact distinct drivers and vehicles in the day range, as {@code [drivers, vehicles]}.
+     */
+    public long[] countDistinct(int fromDay, int toDay) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT driver_id), COUNT(DISTINCT vehicle_id) FROM vehicle_events"
+                        + " WHERE event_time >= ? AND event_time < ?",
+                (rs, rowNum) -> new long[] {rs.getLong(1), rs.getLong(2)},
+                fromDay * DAY_MILLIS, (toDay + 1L) * DAY_MILLIS);
+    }
+
+    /**
+     * Exact distinct drivers and vehicles per bucket of {@code bucketDays} days, keyed by the
+     * first day of the bucket. Buckets start {@code offsetDays} after the epoch day; only
+     * buckets with events are returned.
+     */
+    public Map<Integer, long[]> countDistinctPerBucket(int fromDay, int toDay, int bucketDays, int offsetDays) {
+        String bucket = "((event_time / " + DAY_MILLIS + " - ?) / ?) * ? + ?";
+        String sql = "SELECT " + bucket + " AS bucket_day, COUNT(DISTINCT driver_id), COUNT(DISTINCT vehicle_id)"
+                + " FROM vehicle_events WHERE event_time >= ? AND event_time < ? GROUP BY 1";
+        List<Object> args = new ArrayList<>(List.of(offsetDays, bucketDays, bucketDays, offsetDays));
+        args.add(fromDay * DAY_MILLIS);
+        args.add((toDay + 1L) * DAY_MILLIS);
+        Map<Integer, long[]> counts = new HashMap<>();
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs ->
+                counts.put(rs.getInt(1), new long[] {rs.getLong(2), rs.getLong(3)}), args.toArray());
+        return counts;
+    }
+}
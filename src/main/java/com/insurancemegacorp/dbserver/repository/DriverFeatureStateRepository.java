@@ -0,0 +1,96 @@
+package com.insurancemegacorp.dbserver.repository;
+
+import com.insurancemegacorp.dbserver.model.DriverFeatureDelta;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC access to {@code driver_feature_state} (see {@code sql/driver_feature_state.sql}).
+ */
+@Repository
+public class DriverFeatureStateRepository {
+
+    // Every right-hand side reads the pre-update row, so the Welford merge can use s.speed_count
+    private static final String MERGE_SQL = """
+            INSERT INTO driver_feature_state AS s (driver_id, event_count, speed_count, speed_compliance_sum,
+                                                   harsh_event_count, g_force_count, g_force_sum, speed_mean, speed_m2, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, now())
+            ON CONFLICT (driver_id) DO UPDATE SET
+                event_count = s.event_count + EXCLUDED.event_count,
+                speed_count = s.speed_count + EXCLUDED.speed_count,
+                speed_compliance_sum = s.speed_compliance_sum + EXCLUDED.speed_compliance_sum,
+                harsh_event_count = s.harsh_event_count + EXCLUDED.harsh_event_count,
+                g_force_count = s.g_force_count + EXCLUDED.g_force_count,
+                g_force_sum = s.g_force_sum + EXCLUDED.g_force_sum,
+                speed_mean = CASE WHEN s.speed_count + EXCLUDED.speed_count = 0 THEN 0
+                    ELSE s.speed_mean + (EXCLUDED.speed_mean - s.speed_mean) * EXCLUDED.speed_count
+                        / (s.speed_count + EXCLUDED.speed_count) END,
+                speed_m2 = CASE WHEN s.speed_count + EXCLUDED.speed_count = 0 THEN 0
+                    ELSE s.speed_m2 + EXCLUDED.speed_m2 + (EXCLUDED.speed_mean - s.speed_mean) * (EXCLUDED.speed_mean - s.speed_mean)
+                        * s.speed_count * EXCLUDED.speed_count / (s.speed_count + EXCLUDED.speed_count) END,
+                updated_at = now()
+            """;
+
+    private static final String REBUILD_SQL = """
+            INSERT INTO driver_feature_state (driver_id, event_count, speed_count, speed_compliance_sum,
+                                              harsh_event_count, g_force_count, g_force_sum, speed_mean, speed_m2, updated_at)
+            SELECT
+                driver_id,
+                COUNT(*),
+                COUNT(speed_mph),
+                COALESCE(SUM(CASE WHEN speed_mph <= 65 THEN 100.0 ELSE (65.0 / NULLIF(speed_mph, 0)) * 100 END), 0),
+                COUNT(CASE WHEN ABS(accelerometer_x) > 0.5 OR ABS(accelerometer_y) > 0.5 THEN 1 END),
+                COUNT(SQRT(accelerometer_x*accelerometer_x + accelerometer_y*accelerometer_y + accelerometer_z*accelerometer_z)),
+                COALESCE(SUM(SQRT(accelerometer_x*accelerometer_x + accelerometer_y*accelerometer_y + accelerometer_z*accelerometer_z)), 0),
+                COALESCE(AVG(speed_mph), 0),
+                COALESCE(VAR_SAMP(speed_mph) * (COUNT(speed_mph) - 1), 0),
+                now()
+            FROM vehicle_events
+            WHERE driver_id IS NOT NULL
+            GROUP BY driver_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DriverFeatureStateRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean tableExists() {
+        Boolean exists = jdbcTemplate.queryForObject(
+                "SELECT to_regclass('driver_feature_state') IS NOT NULL", Boolean.class);
+        return Boolean.TRUE.equals(exists);
+    }
+
+    public boolean isEmpty() {
+        Boolean empty = jdbcTemplate.queryForObject(
+                "SELECT NOT EXISTS (SELECT 1 FROM driver_feature_state)", Boolean.class);
+        return Boolean.TRUE.equals(empty);
+    }
+
+    public void merge(Map<Integer, DriverFeatureDelta> deltas) {
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((driverId, delta) -> rows.add(new Object[] {
+                driverId, delta.getEventCount(), delta.getSpeedCount(), delta.getSpeedComplianceSum(),
+                delta.getHarshEventCount(), delta.getGForceCount(), delta.getGForceSum(),
+                delta.getSpeedMean(), delta.getSpeedM2()
+        }));
+        jdbcTemplate.batchUpdate(MERGE_SQL, rows);
+    }
+
+    public void truncate() {
+        jdbcTemplate.execute("TRUNCATE driver_feature_state");
+    }
+
+    /**
+     * Computes the whole state table from {@code vehicle_events} in one scan. The table must be
+     * empty; run it in the same transaction as {@link #truncate()}.
+     */
+    public int seed() {
+        return jdbcTemplate.update(REBUILD_SQL);
+    }
+}
@@ -0,0 +1,100 @@
+package com.insurancemegacorp.dbserver.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC access to {@code event_day_counts} (see {@code sql/event_day_counts.sql}).
+ */
+@Repository
+public class EventDayCountRepository {
+
+    public static final long DAY_MILLIS = 86_400_000L;
+    public static final float HIGH_G_FORCE = 2.0f;
+
+    private static final String MERGE_SQL = """
+            INSERT INTO event_day_counts AS c (bucket_day, event_count, high_g_force_count, updated_at)
+            VALUES (?, ?, ?, now())
+            ON CONFLICT (bucket_day) DO UPDATE SET
+                event_count = c.event_count + EXCLUDED.event_count,
+                high_g_force_count = c.high_g_force_count + EXCLUDED.high_g_force_count,
+                updated_at = now()
+            """;
+
+    private static final String RECONCILE_SQL = """
+            INSERT INTO event_day_counts AS c (bucket_day, event_count, high_g_force_count, updated_at)
+            SELECT event_time / 86400000, COUNT(*), COUNT(CASE WHEN g_force > 2.0 THEN 1 END), now()
+            FROM vehicle_events
+            WHERE event_time IS NOT NULL
+            GROUP BY 1
+            ON CONFLICT (bucket_day) DO UPDATE SET
+                event_count = EXCLUDED.event_count,
+                high_g_force_count = EXCLUDED.high_g_force_count,
+                updated_at = now()
+            """;
+
+    private static final String TOTALS_SQL = """
+            SELECT COALESCE(SUM(event_count), 0),
+                   COALESCE(SUM(high_g_force_count), 0),
+                   COALESCE(SUM(CASE WHEN bucket_day >= ? THEN event_count END), 0)
+            FROM event_day_counts
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EventDayCountRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean tableExists() {
+        Boolean exists = jdbcTemplate.queryForObject(
+                "SELECT to_regclass('event_day_counts') IS NOT NULL", Boolean.class);
+        return Boolean.TRUE.equals(exists);
+    }
+
+    public boolean isEmpty() {
+        Boolean empty = jdbcTemplate.queryForObject(
+                "SELECT NOT EXISTS (SELECT 1 FROM event_day_counts)", Boolean.class);
+        return Boolean.TRUE.equals(empty);
+    }
+
+    /**
+     * Adds {@code [events, highGForceEvents]} deltas to their days.
+     */
+    public void merge(Map<Integer, long[]> deltas) {
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((day, delta) -> rows.add(new Object[] {day, delta[0], delta[1]}));
+        jdbcTemplate.batchUpdate(MERGE_SQL, rows);
+    }
+
+    /**
+     * Replaces every day's counts with an exact count from {@code vehicle_events}, in one scan,
+     * and drops days that no longer have events. Must run inside a transaction.
+     *
+     * @return the number of days with events
+     */
+    public int reconcile() {
+        int days = jdbcTemplate.update(RECONCILE_SQL);
+        jdbcTemplate.update("DELETE FROM event_day_counts c WHERE NOT EXISTS (SELECT 1 FROM vehicle_events v"
+                + " WHERE v.event_time >= c.bucket_day * 86400000::bigint"
+                + " AND v.event_time < (c.bucket_day + 1) * 86400000::bigint)");
+        return days;
+    }
+
+    /**
+     * Totals as {@code [events, highGForceEvents, eventsSinceDay]}, the last counting days
+     * from {@code sinceDay} on.
+     */
+    public long[] totals(int sinceDay) {
+        return jdbcTemplate.queryForObject(TOTALS_SQL,
+                (rs, rowNum) -> new long[] {rs.getLong(1), rs.getLong(2), rs.getLong(3)}, sinceDay);
+    }
+
+    public Long countTelemetryDataV2() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM vehicle_telemetry_data_v2", Long.class);
+    }
+}
@@ -0,0 +1,82 @@
+package com.insurancemegacorp.dbserver.repository;
+
+import com.insurancemegacorp.dbserver.dto.TelemetryBucketDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-bucket telemetry aggregates computed in the database. Buckets are integer divisions of
+ * the epoch-millis {@code event_time}, so grouping needs no timestamp conversion and an
+ * index on {@code event_time} (or on a filter column plus {@code event_time}) serves the
+ * range. Only non-empty buckets are returned.
+ */
+@Repository
+public class TelemetryTimeseriesRepository {
+
+    private static final String SELECT_BUCKETS = """
+            SELECT (event_time / ?) * ? AS bucket_start,
+                   COUNT(*) AS event_count,
+                   AVG(speed_mph) AS avg_speed_mph,
+                   MAX(speed_mph) AS max_speed_mph,
+                   MAX(g_force) AS max_g_force,
+                   SUM(CASE WHEN speed_mph > speed_limit_mph THEN 1 ELSE 0 END) AS speeding_count
+            FROM vehicle_events
+            WHERE 1 = 1""";
+
+    private static final String GROUP_BY = " GROUP BY 1 ORDER BY 1";
+
+    private static final RowMapper<TelemetryBucketDto> BUCKET_ROW_MAPPER = (rs, rowNum) -> {
+        TelemetryBucketDto bucket = new TelemetryBucketDto();
+        bucket.setBucketStart(rs.getLong("bucket_start"));
+        bucket.setEventCount(rs.getLong("event_count"));
+        bucket.setAvgSpeedMph(rs.getObject("avg_speed_mph", Double.class));
+        bucket.setMaxSpeedMph(rs.getObject("max_speed_mph", Float.class));
+        bucket.setMaxGForce(rs.getObject("max_g_force", Float.class));
+        bucket.setSpeedingCount(rs.getLong("speeding_count"));
+        return bucket;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TelemetryTimeseriesRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<TelemetryBucketDto> findBuckets(VehicleEventFilter filter, long bucketMillis) {
+        return jdbcTemplate.query(SELECT_BUCKETS + filter.positionalPredicates() + GROUP_BY,
+                BUCKET_ROW_MAPPER, args(filter, bucketMillis));
+    }
+
+    /**
+     * Hands the buckets to {@code extractor} through a cursor, {@code fetchSize} rows at a
+     * time; call inside a transaction, as for {@link VehicleEventListingRepository#export}.
+     */
+    public <T> T export(VehicleEventFilter filter, long bucketMillis, int fetchSize, ResultSetExtractor<T> extractor) {
+        String sql = SELECT_BUCKETS + filter.positionalPredicates() + GROUP_BY;
+        Object[] args = args(filter, bucketMillis);
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(Math.max(1, fetchSize));
+            for (int i = 0; i < args.length; i++) {
+                statement.setObject(i + 1, args[i]);
+            }
+            return statement;
+        }, extractor);
+    }
+
+    private static Object[] args(VehicleEventFilter filter, long bucketMillis) {
+        List<Object> args = new ArrayList<>();
+        args.add(bucketMillis);
+        args.add(bucketMillis);
+        filter.bindPositional(args);
+        return args.toArray();
+    }
+}
@@ -0,0 +1,183 @@
+package com.insurancemegacorp.dbserver.repository;
+
+import com.insurancemegacorp.dbserver.model.TripSummary;
+import com.insurancemegacorp.dbserver.model.VehicleEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * JDBC access to {@code vehicle_trips} (see {@code sql/vehicle_trips.sql}), plus the ordered
+ * event scan trips are re-segmented from.
+ */
+@Repository
+public class TripRepository {
+
+    private static final String COLUMNS = "trip_id, vehicle_id, driver_id, start_time, end_time, start_latitude, "
+            + "start_longitude, end_latitude, end_longitude, distance_meters, max_speed_mph, max_g_force, "
+            + "speeding_seconds, event_count, is_open";
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO vehicle_trips (vehicle_id, driver_id, start_time, end_time, start_latitude, start_longitude,
+                                       end_latitude, end_longitude, distance_meters, max_speed_mph, max_g_force,
+                                       speeding_seconds, event_count, is_open, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, now())
+            ON CONFLICT (vehicle_id, start_time) DO UPDATE SET
+                driver_id = EXCLUDED.driver_id,
+                end_time = EXCLUDED.end_time,
+                end_latitude = EXCLUDED.end_latitude,
+                end_longitude = EXCLUDED.end_longitude,
+                distance_meters = EXCLUDED.distance_meters,
+                max_speed_mph = EXCLUDED.max_speed_mph,
+                max_g_force = EXCLUDED.max_g_force,
+                speeding_seconds = EXCLUDED.speeding_seconds,
+                event_count = EXCLUDED.event_count,
+                is_open = EXCLUDED.is_open,
+                updated_at = now()
+            """;
+
+    private static final RowMapper<TripSummary> TRIP_ROW_MAPPER = (rs, rowNum) -> {
+        TripSummary trip = new TripSummary();
+        trip.setTripId(rs.getLong("trip_id"));
+        trip.setVehicleId(rs.getLong("vehicle_id"));
+        trip.setDriverId(rs.getObject("driver_id", Integer.class));
+        trip.setStartTime(rs.getLong("start_time"));
+        trip.setEndTime(rs.getLong("end_time"));
+        trip.setStartLatitude(rs.getObject("start_latitude", Double.class));
+        trip.setStartLongitude(rs.getObject("start_longitude", Double.class));
+        trip.setEndLatitude(rs.getObject("end_latitude", Double.class));
+        trip.setEndLongitude(rs.getObject("end_longitude", Double.class));
+        trip.setDistanceMeters(rs.getDouble("distance_meters"));
+        trip.setMaxSpeedMph(rs.getObject("max_speed_mph", Float.class));
+        trip.setMaxGForce(rs.getObject("max_g_force", Float.class));
+        trip.setSpeedingSeconds(rs.getDouble("speeding_seconds"));
+        trip.setEventCount(rs.getInt("event_count"));
+        trip.setOpen(rs.getBoolean("is_open"));
+        return trip;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TripRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean tableExists() {
+        Boolean exists = jdbcTemplate.queryForObject(
+                "SELECT to_regclass('vehicle_trips') IS NOT NULL", Boolean.class);
+        return Boolean.TRUE.equals(exists);
+    }
+
+    public void upsert(Collection<TripSummary> trips) {
+        List<Object[]> rows = new ArrayList<>(trips.size());
+        for (TripSummary trip : trips) {
+            rows.add(new Object[] {
+                    trip.getVehicleId(), trip.getDriverId(), trip.getStartTime(), trip.getEndTime(),
+                    trip.getStartLatitude(), trip.getStartLongitude(), trip.getEndLatitude(), trip.getEndLongitude(),
+                    trip.getDistanceMeters(), trip.getMaxSpeedMph(), trip.getMaxGForce(),
+                    trip.getSpeedingSeconds(), trip.getEventCount(), trip.isOpen()
+            });
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+    }
+
+    /**
+     * Open trips, oldest first.
+     */
+    public List<TripSummary> findOpen() {
+        return jdbcTemplate.query("SELECT " + COLUMNS + " FROM vehicle_trips WHERE is_open ORDER BY start_time", TRIP_ROW_MAPPER);
+    }
+
+    public TripSummary findById(long tripId) {
+        List<TripSummary> trips = jdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM vehicle_trips WHERE trip_id = ?", TRIP_ROW_MAPPER, tripId);
+        return trips.isEmpty() ? null : trips.get(0);
+    }
+
+    /**
+     * Trips starting in the range, newest first; null arguments are not filtered on.
+     */
+    public List<TripSummary> find(Long vehicleId, Integer driverId, Long startFrom, Long startTo,
+                                  long offset, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS).append(" FROM vehicle_trips WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (vehicleId != null) {
+            sql.append(" AND vehicle_id = ?");
+            args.add(vehicleId);
+        }
+        if (driverId != null) {
+            sql.append(" AND driver_id = ?");
+            args.add(driverId);
+        }
+        if (startFrom != null) {
+            sql.append(" AND start_time >= ?");
+            args.add(startFrom);
+        }
+        if (startTo != null) {
+            sql.append(" AND start_time <= ?");
+            args.add(startTo);
+        }
+        sql.append(" ORDER BY start_time DESC LIMIT ? OFFSET ?");
+        args.add(limit);
+        args.add(offset);
+        return jdbcTemplate.query(sql.toString(), TRIP_ROW_MAPPER, args.toArray());
+    }
+
+    /**
+     * Start of the earliest trip of the vehicle still running at {@code time}, or
+     * {@code time} when there is none.
+     */
+    public long findSegmentStart(long vehicleId, long time) {
+        Long start = jdbcTemplate.queryForObject(
+                "SELECT MIN(start_time) FROM vehicle_trips WHERE vehicle_id = ? AND start_time < ? AND end_time >= ?",
+                Long.class, vehicleId, time, time);
+        return start != null ? start : time;
+    }
+
+    public int deleteStartingBetween(long vehicleId, long startFrom, long startTo) {
+        return jdbcTemplate.update(
+                "DELETE FROM vehicle_trips WHERE vehicle_id = ? AND start_time >= ? AND start_time <= ?",
+                vehicleId, startFrom, startTo);
+    }
+
+    /**
+     * Streams the vehicle's events in the range, oldest first, with the columns trip
+     * segmentation reads.
+     */
+    public void scanEvents(long vehicleId, long from, long to, int fetchSize, Consumer<VehicleEvent> consumer) {
+        String sql = "SELECT driver_id, event_time, speed_mph, speed_limit_mph, g_force, gps_latitude, gps_longitude"
+                + " FROM vehicle_events WHERE vehicle_id = ? AND event_time >= ? AND event_time <= ?"
+                + " ORDER BY event_time";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(Math.max(1, fetchSize));
+            statement.setLong(1, vehicleId);
+            statement.setLong(2, from);
+            statement.setLong(3, to);
+            return statement;
+        }, (RowCallbackHandler) rs -> consumer.accept(mapScannedEvent(rs, vehicleId)));
+    }
+
+    private static VehicleEvent mapScannedEvent(ResultSet rs, long vehicleId) throws SQLException {
+        VehicleEvent event = new VehicleEvent();
+        event.setVehicleId(vehicleId);
+        event.setDriverId(rs.getObject("driver_id", Integer.class));
+        event.setEventTime(rs.getLong("event_time"));
+        event.setSpeedMph(rs.getObject("speed_mph", Float.class));
+        event.setSpeedLimitMph(rs.getObject("speed_limit_mph", Float.class));
+        event.setGForce(rs.getObject("g_force", Float.class));
+        event.setGpsLatitude(rs.getObject("gps_latitude", Double.class));
+        event.setGpsLongitude(rs.getObject("gps_longitude", Double.class));
+        return event;
+    }
+}
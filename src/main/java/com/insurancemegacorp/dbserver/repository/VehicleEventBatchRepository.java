@@ -0,0 +1,177 @@
+package com.insurancemegacorp.dbserver.repository;
+
+import com.insurancemegacorp.dbserver.model.VehicleEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Insert-only JDBC batch writer for append-only telemetry. Never looks rows up before
+ * inserting them; with pgjdbc's {@code reWriteBatchedInserts} enabled each JDBC batch is
+ * sent as multi-row INSERT statements.
+ */
+@Repository
+public class VehicleEventBatchRepository {
+
+    static final String INSERT_SQL = "INSERT INTO vehicle_events (" + VehicleEventCopyRepository.COLUMN_LIST + ") "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int COLUMN_COUNT = 33;
+    private static final String ROW_PLACEHOLDERS = "(" + "?, ".repeat(COLUMN_COUNT - 1) + "?)";
+    // PostgreSQL caps a statement at 32767 bind parameters
+    private static final int MAX_ROWS_PER_STATEMENT = Short.MAX_VALUE / COLUMN_COUNT;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DistributionSummary rowsPerBatch;
+    private final DistributionSummary batchesPerWrite;
+
+    public VehicleEventBatchRepository(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rowsPerBatch = DistributionSummary.builder("ingest.jdbc.rows.per.batch")
+                // Not per SQL statement: with reWriteBatchedInserts the driver regroups these rows into multi-row INSERTs
+                .description("Rows sent per JDBC batch execution on the insert-only path")
+                .baseUnit("rows")
+                .register(meterRegistry);
+        this.batchesPerWrite = DistributionSummary.builder("ingest.jdbc.batches.per.write")
+                .description("JDBC batch executions needed per ingested batch")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Inserts the events using JDBC batches of {@code batchSize} rows.
+     *
+     * @return the number of rows inserted
+     */
+    public long insertBatch(List<VehicleEvent> events, int batchSize) {
+        return executeBatch(INSERT_SQL, events, batchSize);
+    }
+
+    /**
+     * Inserts the events with {@code ON CONFLICT DO NOTHING}, silently skipping rows whose key
+     * already exists. Used for rows the ingest dedupe filter flags as probable duplicates.
+     * Each group of up to {@code batchSize} rows is one multi-row INSERT whose
+     * {@code RETURNING} clause names the keys actually inserted, since rewritten JDBC batches
+     * report no per-row counts.
+     *
+     * @return the events inserted, in request order within each statement
+     */
+    public List<VehicleEvent> insertIgnoringDuplicates(List<VehicleEvent> events, int batchSize) {
+        List<VehicleEvent> inserted = new ArrayList<>();
+        if (events.isEmpty()) {
+            return inserted;
+        }
+        int step = Math.max(1, Math.min(batchSize, MAX_ROWS_PER_STATEMENT));
+        int statements = 0;
+        for (int from = 0; from < events.size(); from += step) {
+            List<VehicleEvent> chunk = events.subList(from, Math.min(from + step, events.size()));
+            // A key repeated in the statement is inserted once and returned once
+            Map<EventKey, Deque<VehicleEvent>> byKey = new HashMap<>();
+            for (VehicleEvent event : chunk) {
+                byKey.computeIfAbsent(EventKey.of(event), key -> new ArrayDeque<>()).add(event);
+            }
+            jdbcTemplate.query(insertIgnoringDuplicatesSql(chunk.size()), ps -> {
+                for (int i = 0; i < chunk.size(); i++) {
+                    bind(ps, chunk.get(i), i * COLUMN_COUNT);
+                }
+            }, rs -> {
+                EventKey key = new EventKey(rs.getObject(1, Long.class), rs.getObject(2, Long.class),
+                        rs.getObject(3, Integer.class), rs.getObject(4, Long.class));
+                Deque<VehicleEvent> matches = byKey.get(key);
+                if (matches != null && !matches.isEmpty()) {
+                    inserted.add(matches.poll());
+                }
+            });
+            rowsPerBatch.record(chunk.size());
+            statements++;
+        }
+        batchesPerWrite.record(statements);
+        return inserted;
+    }
+
+    private static String insertIgnoringDuplicatesSql(int rows) {
+        StringBuilder sql = new StringBuilder("INSERT INTO vehicle_events (")
+                .append(VehicleEventCopyRepository.COLUMN_LIST).append(") VALUES ");
+        for (int i = 0; i < rows; i++) {
+            sql.append(i > 0 ? ", " : "").append(ROW_PLACEHOLDERS);
+        }
+        return sql.append(" ON CONFLICT DO NOTHING RETURNING policy_id, vehicle_id, driver_id, event_time").toString();
+    }
+
+    private long executeBatch(String sql, List<VehicleEvent> events, int batchSize) {
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        int[][] results = jdbcTemplate.batchUpdate(sql, events, Math.max(1, batchSize),
+                VehicleEventBatchRepository::bind);
+
+        long inserted = 0;
+        for (int[] statementResult : results) {
+            rowsPerBatch.record(statementResult.length);
+            for (int rowCount : statementResult) {
+                // Rewritten batches report SUCCESS_NO_INFO per row instead of a count
+                inserted += rowCount == Statement.SUCCESS_NO_INFO ? 1 : rowCount;
+            }
+        }
+        batchesPerWrite.record(results.length);
+        return inserted;
+    }
+
+    static void bind(PreparedStatement ps, VehicleEvent event) throws SQLException {
+        bind(ps, event, 0);
+    }
+
+    private static void bind(PreparedStatement ps, VehicleEvent event, int offset) throws SQLException {
+        ps.setObject(offset + 1, event.getPolicyId(), Types.BIGINT);
+        ps.setObject(offset + 2, event.getVehicleId(), Types.BIGINT);
+        ps.setObject(offset + 3, event.getDriverId(), Types.INTEGER);
+        ps.setObject(offset + 4, event.getEventTime(), Types.BIGINT);
+        ps.setObject(offset + 5, event.getVin(), Types.VARCHAR);
+        ps.setObject(offset + 6, event.getSpeedMph(), Types.REAL);
+        ps.setObject(offset + 7, event.getSpeedLimitMph(), Types.REAL);
+        ps.setObject(offset + 8, event.getCurrentStreet(), Types.VARCHAR);
+        ps.setObject(offset + 9, event.getGForce(), Types.REAL);
+        ps.setObject(offset + 10, event.getGpsLatitude(), Types.DOUBLE);
+        ps.setObject(offset + 11, event.getGpsLongitude(), Types.DOUBLE);
+        ps.setObject(offset + 12, event.getGpsAltitude(), Types.DOUBLE);
+        ps.setObject(offset + 13, event.getGpsSpeed(), Types.REAL);
+        ps.setObject(offset + 14, event.getGpsBearing(), Types.REAL);
+        ps.setObject(offset + 15, event.getGpsAccuracy(), Types.REAL);
+        ps.setObject(offset + 16, event.getGpsSatelliteCount(), Types.INTEGER);
+        ps.setObject(offset + 17, event.getGpsFixTime(), Types.INTEGER);
+        ps.setObject(offset + 18, event.getAccelerometerX(), Types.REAL);
+        ps.setObject(offset + 19, event.getAccelerometerY(), Types.REAL);
+        ps.setObject(offset + 20, event.getAccelerometerZ(), Types.REAL);
+        ps.setObject(offset + 21, event.getGyroscopeX(), Types.REAL);
+        ps.setObject(offset + 22, event.getGyroscopeY(), Types.REAL);
+        ps.setObject(offset + 23, event.getGyroscopeZ(), Types.REAL);
+        ps.setObject(offset + 24, event.getMagnetometerX(), Types.REAL);
+        ps.setObject(offset + 25, event.getMagnetometerY(), Types.REAL);
+        ps.setObject(offset + 26, event.getMagnetometerZ(), Types.REAL);
+        ps.setObject(offset + 27, event.getMagnetometerHeading(), Types.REAL);
+        ps.setObject(offset + 28, event.getBarometricPressure(), Types.REAL);
+        ps.setObject(offset + 29, event.getDeviceBatteryLevel(), Types.REAL);
+        ps.setObject(offset + 30, event.getDeviceSignalStrength(), Types.INTEGER);
+        ps.setObject(offset + 31, event.getDeviceOrientation(), Types.VARCHAR);
+        ps.setObject(offset + 32, event.getDeviceScreenOn(), Types.BOOLEAN);
+        ps.setObject(offset + 33, event.getDeviceCharging(), Types.BOOLEAN);
+    }
+
+    private record EventKey(Long policyId, Long vehicleId, Integer driverId, Long eventTime) {
+        static EventKey of(VehicleEvent event) {
+            return new EventKey(event.getPolicyId(), event.getVehicleId(), event.getDriverId(), event.getEventTime());
+        }
+    }
+}
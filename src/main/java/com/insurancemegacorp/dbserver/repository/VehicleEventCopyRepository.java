@@ -0,0 +1,135 @@
+package com.insurancemegacorp.dbserver.repository;
+
+import com.insurancemegacorp.dbserver.model.VehicleEvent;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Streams vehicle events into {@code vehicle_events} with PostgreSQL's COPY protocol,
+ * bypassing the persistence context entirely. Uses the text format, which both
+ * PostgreSQL and Greenplum accept, and joins the caller's transaction when one is active.
+ */
+@Repository
+public class VehicleEventCopyRepository {
+
+    static final String COLUMN_LIST = """
+        policy_id, vehicle_id, driver_id, event_time, vin, speed_mph, speed_limit_mph,
+            current_street, g_force, gps_latitude, gps_longitude, gps_altitude, gps_speed, gps_bearing,
+            gps_accuracy, gps_satellite_count, gps_fix_time, accelerometer_x, accelerometer_y, accelerometer_z,
+            gyroscope_x, gyroscope_y, gyroscope_z, magnetometer_x, magnetometer_y, magnetometer_z,
+            magnetometer_heading, barometric_pressure, device_battery_level, device_signal_strength,
+            device_orientation, device_screen_on, device_charging""";
+
+    static final String COPY_SQL = "COPY vehicle_events (" + COLUMN_LIST + ") FROM STDIN";
+
+    private static final String NULL_VALUE = "\\N";
+
+    private final DataSource dataSource;
+
+    public VehicleEventCopyRepository(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Copies the events in chunks of {@code chunkSize} rows, one COPY round trip per chunk.
+     *
+     * @return the number of rows the server reports as copied
+     */
+    public long copyIn(List<VehicleEvent> events, int chunkSize) {
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            int size = Math.max(1, chunkSize);
+            long copied = 0;
+
+            for (int from = 0; from < events.size(); from += size) {
+                List<VehicleEvent> chunk = events.subList(from, Math.min(from + size, events.size()));
+                StringBuilder buffer = new StringBuilder(chunk.size() * 256);
+                for (VehicleEvent event : chunk) {
+                    appendRow(buffer, event);
+                }
+                copied += copyManager.copyIn(COPY_SQL, new StringReader(buffer.toString()));
+            }
+            return copied;
+        } catch (SQLException | IOException e) {
+            throw new IllegalStateException("COPY into vehicle_events failed: " + e.getMessage(), e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    static void appendRow(StringBuilder buffer, VehicleEvent event) {
+        appendValue(buffer, event.getPolicyId()).append('\t');
+        appendValue(buffer, event.getVehicleId()).append('\t');
+        appendValue(buffer, event.getDriverId()).append('\t');
+        appendValue(buffer, event.getEventTime()).append('\t');
+        appendText(buffer, event.getVin()).append('\t');
+        appendValue(buffer, event.getSpeedMph()).append('\t');
+        appendValue(buffer, event.getSpeedLimitMph()).append('\t');
+        appendText(buffer, event.getCurrentStreet()).append('\t');
+        appendValue(buffer, event.getGForce()).append('\t');
+        appendValue(buffer, event.getGpsLatitude()).append('\t');
+        appendValue(buffer, event.getGpsLongitude()).append('\t');
+        appendValue(buffer, event.getGpsAltitude()).append('\t');
+        appendValue(buffer, event.getGpsSpeed()).append('\t');
+        appendValue(buffer, event.getGpsBearing()).append('\t');
+        appendValue(buffer, event.getGpsAccuracy()).append('\t');
+        appendValue(buffer, event.getGpsSatelliteCount()).append('\t');
+        appendValue(buffer, event.getGpsFixTime()).append('\t');
+        appendValue(buffer, event.getAccelerometerX()).append('\t');
+        appendValue(buffer, event.getAccelerometerY()).append('\t');
+        appendValue(buffer, event.getAccelerometerZ()).append('\t');
+        appendValue(buffer, event.getGyroscopeX()).append('\t');
+        appendValue(buffer, event.getGyroscopeY()).append('\t');
+        appendValue(buffer, event.getGyroscopeZ()).append('\t');
+        appendValue(buffer, event.getMagnetometerX()).append('\t');
+        appendValue(buffer, event.getMagnetometerY()).append('\t');
+        appendValue(buffer, event.getMagnetometerZ()).append('\t');
+        appendValue(buffer, event.getMagnetometerHeading()).append('\t');
+        appendValue(buffer, event.getBarometricPressure()).append('\t');
+        appendValue(buffer, event.getDeviceBatteryLevel()).append('\t');
+        appendValue(buffer, event.getDeviceSignalStrength()).append('\t');
+        appendText(buffer, event.getDeviceOrientation()).append('\t');
+        appendBoolean(buffer, event.getDeviceScreenOn()).append('\t');
+        appendBoolean(buffer, event.getDeviceCharging()).append('\n');
+    }
+
+    private static StringBuilder appendValue(StringBuilder buffer, Number value) {
+        return value == null ? buffer.append(NULL_VALUE) : buffer.append(value);
+    }
+
+    private static StringBuilder appendBoolean(StringBuilder buffer, Boolean value) {
+        return value == null ? buffer.append(NULL_VALUE) : buffer.append(value ? 't' : 'f');
+    }
+
+    private static StringBuilder appendText(StringBuilder buffer, String value) {
+        if (value == null) {
+            return buffer.append(NULL_VALUE);
+        }
+        // Escape the characters that are significant in COPY text format
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> buffer.append("\\\\");
+                case '\t' -> buffer.append("\\t");
+                case '\n' -> buffer.append("\\n");
+                case '\r' -> buffer.append("\\r");
+                default -> buffer.append(c);
+            }
+        }
+        return buffer;
+    }
+}
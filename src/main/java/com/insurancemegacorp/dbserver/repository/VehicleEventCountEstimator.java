@@ -0,0 +1,50 @@
+package com.insurancemegacorp.dbserver.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Approximate row counts for {@code vehicle_events} from planner statistics instead of
+ * {@code COUNT(*)}. An unfiltered count reads {@code pg_class.reltuples}; a filtered one (or a
+ * table that has never been analyzed) uses the top-level row estimate of {@code EXPLAIN}.
+ * Both are only as fresh as the last {@code ANALYZE}.
+ */
+@Repository
+public class VehicleEventCountEstimator {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public VehicleEventCountEstimator(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    public long estimate(VehicleEventFilter filter) {
+        if (filter.isEmpty()) {
+            // reltuples is -1 until the table is first vacuumed or analyzed
+            Long reltuples = jdbcTemplate.queryForObject(
+                    "SELECT reltuples::bigint FROM pg_class WHERE oid = 'vehicle_events'::regclass", Long.class);
+            if (reltuples != null && reltuples >= 0) {
+                return reltuples;
+            }
+        }
+
+        String sql = "EXPLAIN (FORMAT JSON) SELECT 1 FROM vehicle_events WHERE 1 = 1" + filter.positionalPredicates();
+        List<Object> args = new ArrayList<>();
+        filter.bindPositional(args);
+        String plan = jdbcTemplate.queryForObject(sql, String.class, args.toArray());
+        try {
+            JsonNode root = objectMapper.readTree(plan);
+            return root.path(0).path("Plan").path("Plan Rows").asLong();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable EXPLAIN output", e);
+        }
+    }
+}
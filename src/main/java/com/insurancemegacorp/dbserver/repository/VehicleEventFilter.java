@@ -0,0 +1,151 @@
+package com.insurancemegacorp.dbserver.repository;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Optional predicates of a vehicle event listing; unset (null) filters are left out of the
+ * generated SQL entirely so the statement stays sargable. The {@code WHERE} fragment of
+ * each combination of set filters, its {@link #shape()}, is built once up front, so every
+ * request with the same combination sends identical SQL text and reuses the driver's
+ * prepared statement and the server's plan for it.
+ */
+public final class VehicleEventFilter {
+
+    private static final VehicleEventFilter NONE = new VehicleEventFilter(null, null, null, null, null);
+
+    private static final int DRIVER = 1;
+    private static final int VEHICLE = 1 << 1;
+    private static final int DATE_FROM = 1 << 2;
+    private static final int DATE_TO = 1 << 3;
+    private static final int MIN_G_FORCE = 1 << 4;
+    static final int SHAPES = 1 << 5;
+
+    private static final String[] NAMED_PREDICATES = predicates(new String[] {
+        "driver_id = :driverId", "vehicle_id = :vehicleId", "event_time >= :dateFrom",
+        "event_time <= :dateTo", "g_force > :minGForce"});
+    private static final String[] POSITIONAL_PREDICATES = predicates(new String[] {
+        "driver_id = ?", "vehicle_id = ?", "event_time >= ?", "event_time <= ?", "g_force > ?"});
+
+    private final Integer driverId;
+    private final Long vehicleId;
+    private final Long dateFrom;
+    private final Long dateTo;
+    private final Float minGForce;
+
+    /**
+     * @param dateFrom  inclusive lower bound on {@code event_time} in epoch millis, or null
+     * @param dateTo    inclusive upper bound on {@code event_time} in epoch millis, or null
+     * @param minGForce exclusive lower bound on {@code g_force}, or null
+     */
+    public VehicleEventFilter(Integer driverId, Long vehicleId, Long dateFrom, Long dateTo, Float minGForce) {
+        this.driverId = driverId;
+        this.vehicleId = vehicleId;
+        this.dateFrom = dateFrom;
+        this.dateTo = dateTo;
+        this.minGForce = minGForce;
+    }
+
+    public static VehicleEventFilter none() {
+        return NONE;
+    }
+
+    public static VehicleEventFilter minGForce(float minGForce) {
+        return new VehicleEventFilter(null, null, null, null, minGForce);
+    }
+
+    public boolean isEmpty() {
+        return shape() == 0;
+    }
+
+    /**
+     * Bit set of the filters that are set, in {@code [0, SHAPES)}.
+     */
+    int shape() {
+        return (driverId != null ? DRIVER : 0)
+            | (vehicleId != null ? VEHICLE : 0)
+            | (dateFrom != null ? DATE_FROM : 0)
+            | (dateTo != null ? DATE_TO : 0)
+            | (minGForce != null ? MIN_G_FORCE : 0);
+    }
+
+    /**
+     * {@code AND}-ed predicates for the set filters with named parameters, see {@link #bindNamed}.
+     */
+    String namedPredicates() {
+        return NAMED_PREDICATES[shape()];
+    }
+
+    static String predicatesForShape(int shape) {
+        return NAMED_PREDICATES[shape];
+    }
+
+    static String positionalPredicatesForShape(int shape) {
+        return POSITIONAL_PREDICATES[shape];
+    }
+
+    void bindNamed(Map<String, Object> params) {
+        putIfSet(params, "driverId", driverId);
+        putIfSet(params, "vehicleId", vehicleId);
+        putIfSet(params, "dateFrom", dateFrom);
+        putIfSet(params, "dateTo", dateTo);
+        putIfSet(params, "minGForce", minGForce);
+    }
+
+    /**
+     * {@code AND}-ed predicates for the set filters with positional parameters, see
+     * {@link #bindPositional}.
+     */
+    String positionalPredicates() {
+        return POSITIONAL_PREDICATES[shape()];
+    }
+
+    void bindPositional(List<Object> args) {
+        // Same order as the predicates
+        for (Object value : new Object[] {driverId, vehicleId, dateFrom, dateTo, minGForce}) {
+            if (value != null) {
+                args.add(value);
+            }
+        }
+    }
+
+    private static void putIfSet(Map<String, Object> params, String name, Object value) {
+        if (value != null) {
+            params.put(name, value);
+        }
+    }
+
+    private static String[] predicates(String[] byBit) {
+        String[] fragments = new String[SHAPES];
+        for (int shape = 0; shape < SHAPES; shape++) {
+            StringBuilder where = new StringBuilder();
+            for (int bit = 0; bit < byBit.length; bit++) {
+                if ((shape & (1 << bit)) != 0) {
+                    where.append(" AND ").append(byBit[bit]);
+                }
+            }
+            fragments[shape] = where.toString();
+        }
+        return fragments;
+    }
+
+    public Integer getDriverId() {
+        return driverId;
+    }
+
+    public Long getVehicleId() {
+        return vehicleId;
+    }
+
+    public Long getDateFrom() {
+        return dateFrom;
+    }
+
+    public Long getDateTo() {
+        return dateTo;
+    }
+
+    public Float getMinGForce() {
+        return minGForce;
+    }
+}
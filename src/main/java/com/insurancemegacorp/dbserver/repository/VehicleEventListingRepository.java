@@ -0,0 +1,227 @@
+package com.insurancemegacorp.dbserver.repository;
+
+import com.insurancemegacorp.dbserver.model.VehicleEvent;
+import com.insurancemegacorp.dbserver.util.EventCursor;
+import com.insurancemegacorp.dbserver.util.GeoBox;
+import com.insurancemegacorp.dbserver.util.GeoGrid;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read path for the vehicle event listing endpoints. Selects only the columns the listing
+ * response uses (plus {@code policy_id} for cursors) through plain JDBC, so rows never enter
+ * the persistence context and the other ~30 columns are never transferred or decoded. Rows
+ * are returned as unmanaged {@link VehicleEvent}s with just those fields populated.
+ *
+ * <p>Keyset pages order by {@code event_time DESC} with the primary key columns as
+ * tie-breakers and start strictly after the cursor's key with a row-value comparison, so
+ * they cost the same however deep the client has paged; {@code sql/vehicle_events_keyset_index.sql}
+ * provides the matching index.
+ *
+ * <p>Statements are assembled once per filter shape (and ordering) and cached, so the SQL
+ * text only ever contains the predicates that were supplied and stays identical between
+ * requests of the same shape; {@code sql/vehicle_events_filter_indexes.sql} lists the indexes
+ * for the common shapes.
+ *
+ * <p>Area queries ({@link #findInBox}, {@link #findNear}) restrict to the {@code geo_cell}
+ * grid cells the area overlaps when {@code sql/vehicle_events_geo_cell.sql} has been applied,
+ * then check the exact coordinates; without the column they fall back to coordinate ranges.
+ *
+ * <p>{@link #export} is the exception to the narrow projection: it streams every column of
+ * every matching row through a server-side cursor for bulk downloads.
+ */
+@Repository
+public class VehicleEventListingRepository {
+
+    private static final String SELECT_COLUMNS =
+            "SELECT policy_id, vehicle_id, driver_id, event_time, speed_mph, g_force, gps_latitude, gps_longitude "
+            + "FROM vehicle_events WHERE 1 = 1";
+
+    private static final String KEY_COLUMNS = "event_time, policy_id, vehicle_id, driver_id";
+
+    private static final String KEYSET_ORDER =
+            " ORDER BY event_time DESC, policy_id DESC, vehicle_id DESC, driver_id DESC LIMIT :limit";
+
+    // Beyond this many cells (e.g. a box of 3 x 3 degrees) the cell list costs more than it prunes
+    private static final int MAX_GEO_CELLS = 1024;
+
+    // Rounding can push the haversine term just past 1 for near-antipodal points; asin would then fail
+    private static final String HAVERSINE_METERS = GeoBox.EARTH_RADIUS_METERS + " * 2 * asin(LEAST(1, sqrt("
+            + "power(sin(radians(gps_latitude - :lat) / 2), 2)"
+            + " + cos(radians(:lat)) * cos(radians(gps_latitude)) * power(sin(radians(gps_longitude - :lon) / 2), 2))))";
+
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "eventTime", "event_time",
+            "driverId", "driver_id",
+            "vehicleId", "vehicle_id",
+            "speedMph", "speed_mph",
+            "gForce", "g_force",
+            "gpsLatitude", "gps_latitude",
+            "gpsLongitude", "gps_longitude");
+
+    private static final RowMapper<VehicleEvent> LISTING_ROW_MAPPER = (rs, rowNum) -> {
+        VehicleEvent event = new VehicleEvent();
+        event.setPolicyId(rs.getObject("policy_id", Long.class));
+        event.setVehicleId(rs.getObject("vehicle_id", Long.class));
+        event.setDriverId(rs.getObject("driver_id", Integer.class));
+        event.setEventTime(rs.getObject("event_time", Long.class));
+        event.setSpeedMph(rs.getObject("speed_mph", Float.class));
+        event.setGForce(rs.getObject("g_force", Float.class));
+        event.setGpsLatitude(rs.getObject("gps_latitude", Double.class));
+        event.setGpsLongitude(rs.getObject("gps_longitude", Double.class));
+        return event;
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final Map<String, String> pageStatements = new ConcurrentHashMap<>();
+    private final String[] countStatements = new String[VehicleEventFilter.SHAPES];
+    private final String[] firstPageStatements = new String[VehicleEventFilter.SHAPES];
+    private final String[] nextPageStatements = new String[VehicleEventFilter.SHAPES];
+    private final String[] exportStatements = new String[VehicleEventFilter.SHAPES];
+    private volatile Boolean geoCellAvailable;
+
+    public VehicleEventListingRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        for (int shape = 0; shape < VehicleEventFilter.SHAPES; shape++) {
+            String predicates = VehicleEventFilter.predicatesForShape(shape);
+            countStatements[shape] = "SELECT COUNT(*) FROM vehicle_events WHERE 1 = 1" + predicates;
+            firstPageStatements[shape] = SELECT_COLUMNS + predicates + KEYSET_ORDER;
+            nextPageStatements[shape] = SELECT_COLUMNS + predicates
+                    + " AND (" + KEY_COLUMNS + ") < (:afterTime, :afterPolicy, :afterVehicle, :afterDriver)"
+                    + KEYSET_ORDER;
+            exportStatements[shape] = "SELECT " + VehicleEventCopyRepository.COLUMN_LIST
+                    + " FROM vehicle_events WHERE 1 = 1" + VehicleEventFilter.positionalPredicatesForShape(shape)
+                    + " ORDER BY event_time";
+        }
+    }
+
+    /**
+     * Offset page, newest first; {@code sort} adds secondary orderings, as the JPQL listing
+     * queries did.
+     */
+    public List<VehicleEvent> findPage(VehicleEventFilter filter, Sort sort, long offset, int limit) {
+        StringBuilder order = new StringBuilder(" ORDER BY event_time DESC");
+        for (Sort.Order sortOrder : sort) {
+            String column = SORT_COLUMNS.get(sortOrder.getProperty());
+            if (column != null && !column.equals("event_time")) {
+                order.append(", ").append(column).append(sortOrder.isAscending() ? " ASC" : " DESC");
+            }
+        }
+        // Bounded: 32 shapes times the few orderings the mapped sort columns allow
+        String sql = pageStatements.computeIfAbsent(filter.shape() + order.toString(),
+                key -> SELECT_COLUMNS + filter.namedPredicates() + order + " LIMIT :limit OFFSET :offset");
+
+        Map<String, Object> params = new LinkedHashMap<>();
+        filter.bindNamed(params);
+        params.put("limit", limit);
+        params.put("offset", offset);
+        return jdbcTemplate.query(sql, params, LISTING_ROW_MAPPER);
+    }
+
+    public long count(VehicleEventFilter filter) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        filter.bindNamed(params);
+        Long count = jdbcTemplate.queryForObject(countStatements[filter.shape()], params, Long.class);
+        return count != null ? count : 0L;
+    }
+
+    /**
+     * @param after key of the last row of the previous page, or null for the first page
+     */
+    public List<VehicleEvent> findAfter(VehicleEventFilter filter, EventCursor after, int limit) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        filter.bindNamed(params);
+        if (after != null) {
+            params.put("afterTime", after.getEventTime());
+            params.put("afterPolicy", after.getPolicyId());
+            params.put("afterVehicle", after.getVehicleId());
+            params.put("afterDriver", after.getDriverId());
+        }
+        params.put("limit", limit);
+        String sql = after != null ? nextPageStatements[filter.shape()] : firstPageStatements[filter.shape()];
+        return jdbcTemplate.query(sql, params, LISTING_ROW_MAPPER);
+    }
+
+    /**
+     * Hands every matching row, oldest first, to {@code extractor}. PostgreSQL only streams
+     * with a cursor, {@code fetchSize} rows per round trip, when the connection is not in
+     * auto-commit, so call this inside a transaction; otherwise the driver buffers the
+     * whole result.
+     */
+    public <T> T export(VehicleEventFilter filter, int fetchSize, ResultSetExtractor<T> extractor) {
+        String sql = exportStatements[filter.shape()];
+        List<Object> args = new ArrayList<>();
+        filter.bindPositional(args);
+        return jdbcTemplate.getJdbcTemplate().query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(Math.max(1, fetchSize));
+            for (int i = 0; i < args.size(); i++) {
+                statement.setObject(i + 1, args.get(i));
+            }
+            return statement;
+        }, extractor);
+    }
+
+    /**
+     * Newest events inside the box.
+     */
+    public List<VehicleEvent> findInBox(VehicleEventFilter filter, GeoBox box, int limit) {
+        return findInArea(filter, box, "", new LinkedHashMap<>(), limit);
+    }
+
+    /**
+     * Newest events within {@code radiusMeters} great-circle distance of the point.
+     */
+    public List<VehicleEvent> findNear(VehicleEventFilter filter, double lat, double lon, double radiusMeters,
+                                       int limit) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("lat", lat);
+        params.put("lon", lon);
+        params.put("radius", radiusMeters);
+        return findInArea(filter, GeoBox.around(lat, lon, radiusMeters),
+                " AND " + HAVERSINE_METERS + " <= :radius", params, limit);
+    }
+
+    private List<VehicleEvent> findInArea(VehicleEventFilter filter, GeoBox box, String areaPredicate,
+                                          Map<String, Object> params, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT_COLUMNS).append(filter.namedPredicates());
+        filter.bindNamed(params);
+        long[] cells = isGeoCellAvailable() ? GeoGrid.cellsCovering(box, MAX_GEO_CELLS) : null;
+        if (cells != null) {
+            sql.append(" AND geo_cell = ANY(:cells)");
+            params.put("cells", cells);
+        }
+        sql.append(" AND gps_latitude BETWEEN :minLat AND :maxLat AND gps_longitude BETWEEN :minLon AND :maxLon");
+        params.put("minLat", box.getMinLat());
+        params.put("maxLat", box.getMaxLat());
+        params.put("minLon", box.getMinLon());
+        params.put("maxLon", box.getMaxLon());
+        sql.append(areaPredicate).append(" ORDER BY event_time DESC LIMIT :limit");
+        params.put("limit", limit);
+        return jdbcTemplate.query(sql.toString(), params, LISTING_ROW_MAPPER);
+    }
+
+    private boolean isGeoCellAvailable() {
+        Boolean available = geoCellAvailable;
+        if (available == null) {
+            available = Boolean.TRUE.equals(jdbcTemplate.getJdbcTemplate().queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM information_schema.columns "
+                    + "WHERE table_name = 'vehicle_events' AND column_name = 'geo_cell')", Boolean.class));
+            geoCellAvailable = available;
+        }
+        return available;
+    }
+}
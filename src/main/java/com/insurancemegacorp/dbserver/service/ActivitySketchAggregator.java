@@ -0,0 +1,164 @@
+package com.insurancemegacorp.dbserver.service;
+
+import com.insurancemegacorp.dbserver.config.IngestionProperties;
+import com.insurancemegacorp.dbserver.model.VehicleEvent;
+import com.insurancemegacorp.dbserver.repository.ActivitySketchRepository;
+import com.insurancemegacorp.dbserver.util.HyperLogLog;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains per-day {@link HyperLogLog} sketches of the distinct drivers and vehicles in
+ * {@code vehicle_events}. Committed events are added to in-memory sketches, which a background
+ * thread merges into {@code activity_sketches} every {@code ingestion.sketches.flush-interval-ms}.
+ * Distinct counts over a range of days then merge a few kilobytes per day instead of running
+ * {@code COUNT(DISTINCT)} over the events.
+ *
+ * <p>Sketch merges are idempotent, so re-adding events already counted (a retried flush, a
+ * {@link #backfill} overlapping live ingest) never inflates a count. Sketches not yet flushed
+ * are lost if the process dies; {@link #backfill} recovers them. The aggregator disables
+ * itself if the sketch table has not been created.
+ */
+@Service
+public class ActivitySketchAggregator extends IngestAggregator<ActivitySketchAggregator.SketchKey, HyperLogLog> {
+
+    private static final Logger log = LoggerFactory.getLogger(ActivitySketchAggregator.class);
+
+    private final ActivitySketchRepository activitySketchRepository;
+    private final IngestionProperties.Sketches config;
+    private final int fetchSize;
+
+    public ActivitySketchAggregator(ActivitySketchRepository activitySketchRepository,
+                                    IngestionProperties ingestionProperties,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry) {
+        super("activity_sketches", "approximate distinct counts", transactionManager);
+        this.activitySketchRepository = activitySketchRepository;
+        this.config = ingestionProperties.getSketches();
+        this.fetchSize = ingestionProperties.getExport().getFetchSize();
+
+        Gauge.builder("telemetry.sketches.pending", pending, Map::size)
+                .description("Daily activity sketches not yet merged into activity_sketches")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    @Override
+    protected boolean tableExists() {
+        return activitySketchRepository.tableExists();
+    }
+
+    @Override
+    protected long flushIntervalMs() {
+        return config.getFlushIntervalMs();
+    }
+
+    @Override
+    public void onEventsCommitted(List<VehicleEvent> events) {
+        if (!isRunning()) {
+            return;
+        }
+        Map<SketchKey, HyperLogLog> local = new HashMap<>();
+        for (VehicleEvent event : events) {
+            add(local, event.getEventTime(), event.getDriverId() != null ? (long) event.getDriverId() : null,
+                    event.getVehicleId());
+        }
+        mergePending(local);
+    }
+
+    @Override
+    protected void write(Map<SketchKey, HyperLogLog> batch) {
+        // A fixed lock order keeps concurrent flushers from deadlocking on the same rows
+        List<SketchKey> keys = new ArrayList<>(batch.keySet());
+        keys.sort(Comparator.comparing(SketchKey::dimension).thenComparingInt(SketchKey::day));
+        for (SketchKey key : keys) {
+            activitySketchRepository.merge(key.dimension(), key.day(), batch.get(key));
+        }
+    }
+
+    @Override
+    protected HyperLogLog merge(HyperLogLog current, HyperLogLog added) {
+        current.merge(added);
+        return current;
+    }
+
+    /**
+     * Adds every event from {@code fromDay} to {@code toDay} (inclusive, days since the epoch
+     * in UTC) to the stored sketches, e.g. for history ingested before the sketch table
+     * existed.
+     *
+     * @return the number of distinct (day, driver, vehicle) rows scanned
+     */
+    public long backfill(int fromDay, int toDay) {
+        if (!isRunning()) {
+            throw new IllegalStateException("Activity sketches are disabled or the activity_sketches table is missing");
+        }
+        Map<SketchKey, HyperLogLog> local = new HashMap<>();
+        long[] rows = new long[1];
+        transactionTemplate.executeWithoutResult(status -> activitySketchRepository.scanActivity(
+                fromDay, toDay, fetchSize, (RowCallbackHandler) rs -> {
+                    long dayStart = rs.getLong(1) * ActivitySketchRepository.DAY_MILLIS;
+                    long driverId = rs.getLong(2);
+                    Long driver = rs.wasNull() ? null : driverId;
+                    long vehicleId = rs.getLong(3);
+                    Long vehicle = rs.wasNull() ? null : vehicleId;
+                    add(local, dayStart, driver, vehicle);
+                    rows[0]++;
+                }));
+        mergePending(local);
+        flush();
+        log.info("Backfilled activity sketches for days {} to {} from {} rows", fromDay, toDay, rows[0]);
+        return rows[0];
+    }
+
+    /**
+     * Sketches for {@code fromDay} to {@code toDay} inclusive, keyed by day, including
+     * events not yet flushed.
+     */
+    public Map<Integer, HyperLogLog> findSketches(String dimension, int fromDay, int toDay) {
+        Map<Integer, HyperLogLog> sketches = activitySketchRepository.findSketches(dimension, fromDay, toDay);
+        for (SketchKey key : pending.keySet()) {
+            if (key.dimension().equals(dimension) && key.day() >= fromDay && key.day() <= toDay) {
+                // compute holds the entry lock, so the sketch is not read mid-update
+                pending.computeIfPresent(key, (k, sketch) -> {
+                    sketches.computeIfAbsent(k.day(), day -> new HyperLogLog()).merge(sketch);
+                    return sketch;
+                });
+            }
+        }
+        return sketches;
+    }
+
+    private static void add(Map<SketchKey, HyperLogLog> sketches, Long eventTime, Long driverId, Long vehicleId) {
+        if (eventTime == null) {
+            return;
+        }
+        int day = (int) Math.floorDiv(eventTime, ActivitySketchRepository.DAY_MILLIS);
+        if (driverId != null) {
+            sketches.computeIfAbsent(new SketchKey(ActivitySketchRepository.DRIVER, day), k -> new HyperLogLog())
+                    .add(driverId);
+        }
+        if (vehicleId != null) {
+            sketches.computeIfAbsent(new SketchKey(ActivitySketchRepository.VEHICLE, day), k -> new HyperLogLog())
+                    .add(vehicleId);
+        }
+    }
+
+    record SketchKey(String dimension, int day) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.insurancemegacorp.dbserver.service;
+
+/**
+ * How a paged vehicle event query reports its total.
+ */
+public enum CountMode {
+
+    /** Spring Data {@code Page}: runs a {@code COUNT(*)} with the same predicates. */
+    EXACT,
+
+    /** Slice: fetches one extra row to report {@code hasNext}, no count query. */
+    NONE,
+
+    /** Slice plus a planner row estimate as the total, see {@code VehicleEventCountEstimator}. */
+    ESTIMATE;
+
+    public static CountMode from(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return EXACT;
+        }
+        try {
+            return CountMode.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid count mode: " + value);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.insurancemegacorp.dbserver.service;
+
+import com.insurancemegacorp.dbserver.config.IngestionProperties;
+import com.insurancemegacorp.dbserver.model.DriverFeatureDelta;
+import com.insurancemegacorp.dbserver.model.VehicleEvent;
+import com.insurancemegacorp.dbserver.repository.DriverFeatureStateRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the per-driver ML features incrementally. Committed events are folded into
+ * in-memory {@link DriverFeatureDelta}s, which a background thread merges into
+ * {@code driver_feature_state} every {@code ingestion.features.flush-interval-ms}. The ML
+ * recalculation then reads one row per driver instead of re-aggregating every event.
+ *
+ * <p>The state is not {@link #isActive() active} until the table holds data; an empty table is
+ * seeded by {@link #rebuild()} on the flusher thread as soon as the aggregator starts. Deltas
+ * not yet flushed are lost if the process dies; calling {@link #rebuild()} again re-seeds the
+ * table from {@code vehicle_events} when that matters. The aggregator disables itself if the
+ * state table has not been created.
+ */
+@Service
+public class DriverFeatureAggregator extends IngestAggregator<Integer, DriverFeatureDelta> {
+
+    private static final Logger log = LoggerFactory.getLogger(DriverFeatureAggregator.class);
+
+    private final DriverFeatureStateRepository driverFeatureStateRepository;
+    private final IngestionProperties.Features config;
+
+    private volatile boolean seeded;
+
+    public DriverFeatureAggregator(DriverFeatureStateRepository driverFeatureStateRepository,
+                                   IngestionProperties ingestionProperties,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry) {
+        super("driver_feature_state", "incremental ML features", transactionManager);
+        this.driverFeatureStateRepository = driverFeatureStateRepository;
+        this.config = ingestionProperties.getFeatures();
+
+        Gauge.builder("ml.features.pending.drivers", pending, Map::size)
+                .description("Drivers with feature deltas not yet merged into driver_feature_state")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    @Override
+    protected boolean tableExists() {
+        return driverFeatureStateRepository.tableExists();
+    }
+
+    @Override
+    protected long flushIntervalMs() {
+        return config.getFlushIntervalMs();
+    }
+
+    @Override
+    protected void load() {
+        seeded = !driverFeatureStateRepository.isEmpty();
+    }
+
+    /**
+     * Whether {@code driver_feature_state} is seeded and maintained, so it can stand in for a
+     * scan of {@code vehicle_events}.
+     */
+    @Override
+    public boolean isActive() {
+        return isRunning() && seeded;
+    }
+
+    @Override
+    public void onEventsCommitted(List<VehicleEvent> events) {
+        if (!isRunning()) {
+            return;
+        }
+        Map<Integer, DriverFeatureDelta> local = new HashMap<>();
+        for (VehicleEvent event : events) {
+            if (event.getDriverId() != null) {
+                local.computeIfAbsent(event.getDriverId(), id -> new DriverFeatureDelta()).add(event);
+            }
+        }
+        mergePending(local);
+    }
+
+    @Override
+    public void flush() {
+        // Deltas merged into an unseeded table would make it look seeded on the next start
+        if (seeded) {
+            super.flush();
+        }
+    }
+
+    @Override
+    protected void write(Map<Integer, DriverFeatureDelta> batch) {
+        driverFeatureStateRepository.merge(batch);
+    }
+
+    @Override
+    protected DriverFeatureDelta merge(DriverFeatureDelta current, DriverFeatureDelta added) {
+        current.merge(added);
+        return current;
+    }
+
+    /**
+     * Discards pending deltas and recomputes the state table from {@code vehicle_events}, in one
+     * transaction so readers never see it empty.
+     *
+     * <p>Pending deltas are cleared just before the scan takes its snapshot. Events are
+     * published after their commit, so an event committed before the snapshot whose publish
+     * lands after the clear is counted twice. The window is the commit-to-publish latency of
+     * the batches in flight at that instant; another rebuild corrects it.
+     *
+     * @return the number of drivers in the rebuilt table
+     */
+    public int rebuild() {
+        synchronized (flushLock) {
+            Integer drivers = transactionTemplate.execute(status -> {
+                driverFeatureStateRepository.truncate();
+                pending.clear();
+                return driverFeatureStateRepository.seed();
+            });
+            seeded = true;
+            log.info("Rebuilt driver_feature_state for {} drivers", drivers);
+            return drivers != null ? drivers : 0;
+        }
+    }
+
+    @Override
+    protected void tick() {
+        if (seeded) {
+            flush();
+            return;
+        }
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Could not seed driver_feature_state, will retry: {}", e.getMessage());
+        }
+    }
+}
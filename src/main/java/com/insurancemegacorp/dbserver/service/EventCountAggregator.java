@@ -0,0 +1,190 @@
+package com.insurancemegacorp.dbserver.service;
+
+import com.insurancemegacorp.dbserver.config.IngestionProperties;
+import com.insurancemegacorp.dbserver.model.VehicleEvent;
+import com.insurancemegacorp.dbserver.repository.EventDayCountRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains per-day event and high g-force counts of {@code vehicle_events} incrementally.
+ * Committed events are counted into in-memory deltas, which a background thread adds to
+ * {@code event_day_counts} every {@code ingestion.stats.flush-interval-ms}. The same thread
+ * recomputes the table from {@code vehicle_events} every
+ * {@code ingestion.stats.reconcile-interval-ms}, which corrects whatever the deltas miss:
+ * deletes, rows written outside this service, deltas lost when the process dies, and events
+ * committed while a reconcile scan runs.
+ *
+ * <p>The counters are not {@link #isReady() ready} until the table holds data; an empty table
+ * is reconciled as soon as the aggregator starts. The aggregator disables itself if the table
+ * has not been created.
+ */
+@Service
+public class EventCountAggregator extends IngestAggregator<Integer, long[]> {
+
+    private static final Logger log = LoggerFactory.getLogger(EventCountAggregator.class);
+
+    private final EventDayCountRepository eventDayCountRepository;
+    private final IngestionProperties.Stats config;
+
+    private volatile boolean ready;
+    private volatile long reconciledAt;
+    private volatile Long telemetryDataV2Count;
+    // Flusher thread only
+    private long nextReconcile;
+
+    public EventCountAggregator(EventDayCountRepository eventDayCountRepository,
+                                IngestionProperties ingestionProperties,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry) {
+        super("event_day_counts", "maintained event counters", transactionManager);
+        this.eventDayCountRepository = eventDayCountRepository;
+        this.config = ingestionProperties.getStats();
+
+        Gauge.builder("stats.counters.pending.days", pending, Map::size)
+                .description("Days with event count deltas not yet merged into event_day_counts")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    @Override
+    protected boolean tableExists() {
+        return eventDayCountRepository.tableExists();
+    }
+
+    @Override
+    protected long flushIntervalMs() {
+        return config.getFlushIntervalMs();
+    }
+
+    @Override
+    protected void load() {
+        ready = !eventDayCountRepository.isEmpty();
+        // A populated table only needs the periodic reconcile; an empty one is seeded right away
+        nextReconcile = System.currentTimeMillis() + (ready ? reconcileIntervalMs() : 0);
+        if (ready) {
+            // Served until the first reconcile, which may be an hour away
+            telemetryDataV2Count = countTelemetryDataV2();
+        }
+    }
+
+    /**
+     * Whether {@code event_day_counts} holds reconciled counts that can stand in for a scan.
+     */
+    public boolean isReady() {
+        return isRunning() && ready;
+    }
+
+    /**
+     * When the last reconcile in this process finished, or 0 if none has yet.
+     */
+    public long getReconciledAt() {
+        return reconciledAt;
+    }
+
+    /**
+     * Row count of {@code vehicle_telemetry_data_v2} as of startup or the last reconcile, or
+     * null when that table is not accessible.
+     */
+    public Long getTelemetryDataV2Count() {
+        return telemetryDataV2Count;
+    }
+
+    @Override
+    public void onEventsCommitted(List<VehicleEvent> events) {
+        if (!isRunning()) {
+            return;
+        }
+        Map<Integer, long[]> local = new HashMap<>();
+        for (VehicleEvent event : events) {
+            if (event.getEventTime() == null) {
+                continue;
+            }
+            long[] delta = local.computeIfAbsent(
+                    (int) Math.floorDiv(event.getEventTime(), EventDayCountRepository.DAY_MILLIS), day -> new long[2]);
+            delta[0]++;
+            if (event.getGForce() != null && event.getGForce() > EventDayCountRepository.HIGH_G_FORCE) {
+                delta[1]++;
+            }
+        }
+        mergePending(local);
+    }
+
+    /**
+     * Totals as {@code [events, highGForceEvents, eventsSinceDay]}, including deltas not yet
+     * flushed.
+     */
+    public long[] totals(int sinceDay) {
+        long[] totals = eventDayCountRepository.totals(sinceDay);
+        pending.forEach((day, delta) -> {
+            totals[0] += delta[0];
+            totals[1] += delta[1];
+            if (day >= sinceDay) {
+                totals[2] += delta[0];
+            }
+        });
+        return totals;
+    }
+
+    @Override
+    protected void write(Map<Integer, long[]> batch) {
+        eventDayCountRepository.merge(batch);
+    }
+
+    @Override
+    protected long[] merge(long[] current, long[] added) {
+        return new long[] {current[0] + added[0], current[1] + added[1]};
+    }
+
+    /**
+     * Flushes pending deltas, then recomputes every day's counts from {@code vehicle_events}.
+     */
+    public void reconcile() {
+        synchronized (flushLock) {
+            flush();
+            long start = System.currentTimeMillis();
+            Integer days = transactionTemplate.execute(status -> eventDayCountRepository.reconcile());
+            telemetryDataV2Count = countTelemetryDataV2();
+            ready = true;
+            reconciledAt = System.currentTimeMillis();
+            log.info("Reconciled event_day_counts for {} days in {} ms", days, reconciledAt - start);
+        }
+    }
+
+    private Long countTelemetryDataV2() {
+        try {
+            return eventDayCountRepository.countTelemetryDataV2();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private long reconcileIntervalMs() {
+        return Math.max(60_000, config.getReconcileIntervalMs());
+    }
+
+    @Override
+    protected void tick() {
+        if (System.currentTimeMillis() >= nextReconcile) {
+            try {
+                reconcile();
+            } catch (RuntimeException e) {
+                log.warn("Event count reconcile failed, will retry: {}", e.getMessage());
+            }
+            nextReconcile = System.currentTimeMillis() + reconcileIntervalMs();
+        }
+        flush();
+    }
+}
@@ -0,0 +1,43 @@
+package com.insurancemegacorp.dbserver.service;
+
+/**
+ * Row format of a bulk vehicle event export.
+ */
+public enum ExportFormat {
+
+    /** Comma-separated values with a header row, RFC 4180 quoting. */
+    CSV("text/csv", "csv"),
+
+    /** One JSON object per line, keyed by column name. */
+    NDJSON("application/x-ndjson", "ndjson"),
+
+    /** Apache Arrow IPC stream of columnar record batches, see {@code ArrowExportWriter}. */
+    ARROW("application/vnd.apache.arrow.stream", "arrows");
+
+    private final String contentType;
+    private final String fileExtension;
+
+    ExportFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    public static ExportFormat from(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return CSV;
+        }
+        try {
+            return ExportFormat.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid export format: " + value);
+        }
+    }
+}
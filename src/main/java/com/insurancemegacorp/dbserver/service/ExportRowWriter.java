@@ -0,0 +1,131 @@
+package com.insurancemegacorp.dbserver.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * Writes each row of a result set straight to an output stream as CSV or NDJSON, so an
+ * export holds one row in memory however many it returns. Column names come from the
+ * result set metadata, so an empty CSV export still has its header. I/O failures are
+ * rethrown as {@link UncheckedIOException} since extractors may only throw
+ * {@link SQLException}.
+ */
+class ExportRowWriter implements ResultSetExtractor<Long> {
+
+    private final ExportFormat format;
+    private final OutputStream out;
+    private final ObjectMapper objectMapper;
+
+    ExportRowWriter(ExportFormat format, OutputStream out, ObjectMapper objectMapper) {
+        this.format = format;
+        this.out = out;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Long extractData(ResultSet rs) throws SQLException {
+        String[] columns = columnNames(rs.getMetaData());
+        long rowCount = 0;
+        try {
+            if (format == ExportFormat.CSV) {
+                Writer csv = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+                writeCsvRow(csv, columns);
+                Object[] values = new Object[columns.length];
+                while (rs.next()) {
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = rs.getObject(i + 1);
+                    }
+                    writeCsvRow(csv, values);
+                    rowCount++;
+                }
+                csv.flush();
+            } else {
+                JsonGenerator json = objectMapper.getFactory().createGenerator(out)
+                        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                // Rows are separated by the newline each one ends with, not Jackson's default space
+                json.setRootValueSeparator(null);
+                while (rs.next()) {
+                    writeJsonRow(json, columns, rs);
+                    rowCount++;
+                }
+                json.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rowCount;
+    }
+
+    private static void writeCsvRow(Writer csv, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                csv.write(',');
+            }
+            if (values[i] != null) {
+                writeCsvValue(csv, values[i].toString());
+            }
+        }
+        csv.write("\r\n");
+    }
+
+    private static void writeCsvValue(Writer csv, String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            csv.write(value);
+            return;
+        }
+        csv.write('"');
+        csv.write(value.replace("\"", "\"\""));
+        csv.write('"');
+    }
+
+    private static void writeJsonRow(JsonGenerator json, String[] columns, ResultSet rs)
+            throws SQLException, IOException {
+        json.writeStartObject();
+        for (int i = 0; i < columns.length; i++) {
+            json.writeFieldName(columns[i]);
+            Object value = rs.getObject(i + 1);
+            if (value == null) {
+                json.writeNull();
+            } else if (value instanceof Integer || value instanceof Long || value instanceof Short) {
+                json.writeNumber(((Number) value).longValue());
+            } else if (value instanceof Float f) {
+                json.writeNumber(f);
+            } else if (value instanceof Double d) {
+                json.writeNumber(d);
+            } else if (value instanceof BigDecimal decimal) {
+                json.writeNumber(decimal);
+            } else if (value instanceof Boolean b) {
+                json.writeBoolean(b);
+            } else {
+                json.writeString(value.toString());
+            }
+        }
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    static String[] columnNames(ResultSetMetaData metaData) throws SQLException {
+        String[] names = new String[metaData.getColumnCount()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = metaData.getColumnLabel(i + 1);
+        }
+        return names;
+    }
+}
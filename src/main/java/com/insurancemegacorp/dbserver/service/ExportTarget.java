@@ -0,0 +1,13 @@
+package com.insurancemegacorp.dbserver.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Opens the stream an export is written to. Only called once the export's inputs have been
+ * validated, so the caller can still send an error response until then.
+ */
+@FunctionalInterface
+public interface ExportTarget {
+    OutputStream open() throws IOException;
+}
@@ -0,0 +1,191 @@
+package com.insurancemegacorp.dbserver.service;
+
+import com.insurancemegacorp.dbserver.config.IngestionProperties;
+import com.insurancemegacorp.dbserver.exception.IdempotencyConflictException;
+import com.insurancemegacorp.dbserver.exception.IngestionBackpressureException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, expiring in-memory store of completed responses keyed by {@code Idempotency-Key}.
+ *
+ * <p>The first request for a key runs and its response is kept for {@code ttl-ms}; replays
+ * get that response back without running again. A duplicate that arrives while the first
+ * attempt is still running waits for it instead of running concurrently. Server errors and
+ * exceptions are not cached, so the client's next retry runs for real. Once
+ * {@code max-entries} is exceeded the oldest completed keys are evicted first; requests still
+ * running are never evicted, and a new key is rejected while the store is full of them.
+ */
+@Service
+public class IdempotencyStore {
+
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IngestionProperties.Idempotency config;
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final Counter replays;
+
+    public IdempotencyStore(IngestionProperties ingestionProperties, MeterRegistry meterRegistry) {
+        this.config = ingestionProperties.getIdempotency();
+        Gauge.builder("ingest.idempotency.entries", entries, ConcurrentMap::size)
+                .description("Idempotency keys currently remembered")
+                .register(meterRegistry);
+        this.replays = Counter.builder("ingest.idempotency.replays")
+                .description("Requests answered from the idempotency store without running")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code action} once per key. {@code fingerprint} identifies the request the key was
+     * first used for; reusing a key for a different request is rejected.
+     *
+     * @throws IngestionBackpressureException if the store is full of requests still running
+     */
+    public <T> ResponseEntity<T> execute(String key, String fingerprint, Supplier<ResponseEntity<T>> action) {
+        if (key == null || key.isBlank() || !config.isEnabled()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+
+        while (true) {
+            long now = System.currentTimeMillis();
+            Entry entry = new Entry(key, fingerprint, now);
+            Entry existing = entries.putIfAbsent(key, entry);
+            if (existing == null) {
+                insertionOrder.offer(entry);
+                evict(now);
+                if (entries.size() > config.getMaxEntries()) {
+                    forget(entry);
+                    throw new IngestionBackpressureException("Too many requests with an Idempotency-Key in progress");
+                }
+                return runFirst(entry, action);
+            }
+            if (existing.isExpired(now, config.getTtlMs())) {
+                entries.remove(key, existing);
+                continue;
+            }
+            if (!existing.fingerprint.equals(fingerprint)) {
+                throw new IllegalArgumentException("Idempotency-Key was already used for a different request");
+            }
+
+            ResponseEntity<?> cached = await(existing);
+            if (cached != null) {
+                replays.increment();
+                return replay(cached);
+            }
+            // The first attempt failed without a cacheable response; run this one instead
+        }
+    }
+
+    private <T> ResponseEntity<T> runFirst(Entry entry, Supplier<ResponseEntity<T>> action) {
+        ResponseEntity<T> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            forget(entry);
+            throw e;
+        }
+        if (response.getStatusCode().is5xxServerError()) {
+            forget(entry);
+        } else {
+            entry.completedAt = System.currentTimeMillis();
+            entry.response.complete(response);
+        }
+        return response;
+    }
+
+    private void forget(Entry entry) {
+        entries.remove(entry.key, entry);
+        entry.response.complete(null);
+    }
+
+    private ResponseEntity<?> await(Entry entry) {
+        try {
+            return entry.response.get(config.getWaitTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotencyConflictException("A request with this Idempotency-Key is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException("Interrupted while waiting for the original request");
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ResponseEntity<T> replay(ResponseEntity<?> cached) {
+        return (ResponseEntity<T>) ResponseEntity.status(cached.getStatusCode())
+                .headers(cached.getHeaders())
+                .header(REPLAYED_HEADER, "true")
+                .body(cached.getBody());
+    }
+
+    /**
+     * SHA-256 of a request body, for use in a fingerprint.
+     */
+    public static String digest(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private void evict(long now) {
+        Iterator<Entry> oldestFirst = insertionOrder.iterator();
+        while (oldestFirst.hasNext()) {
+            Entry entry = oldestFirst.next();
+            boolean superseded = entries.get(entry.key) != entry;
+            boolean completed = entry.completedAt != 0;
+            boolean overCapacity = entries.size() > config.getMaxEntries();
+            if (superseded || (completed && (overCapacity || entry.isExpired(now, config.getTtlMs())))) {
+                oldestFirst.remove();
+                entries.remove(entry.key, entry);
+            } else if (completed && !overCapacity) {
+                // Everything after this one is newer
+                return;
+            }
+            // Still running: its waiters need the result, look past it
+        }
+    }
+
+    private static final class Entry {
+        private final String key;
+        private final String fingerprint;
+        private final long createdAt;
+        private final CompletableFuture<ResponseEntity<?>> response = new CompletableFuture<>();
+        private volatile long completedAt;
+
+        private Entry(String key, String fingerprint, long createdAt) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+            this.createdAt = createdAt;
+        }
+
+        private boolean isExpired(long now, long ttlMs) {
+            // In-flight entries never expire; their waiters still need the result
+            return completedAt != 0 && now - createdAt > ttlMs;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.insurancemegacorp.dbserver.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lifecycle shared by the listeners that fold committed events into in-memory state and
+ * periodically write it to a table of their own: the table check on startup, the background
+ * flush thread, draining {@link #pending} under {@link #flushLock}, putting a failed batch back
+ * for the next attempt, and the final flush on shutdown.
+ *
+ * <p>Subclasses add their own entries to {@link #pending} and say how to {@link #write} a
+ * drained batch and how to {@link #merge} two entries for the same key.
+ *
+ * @param <K> key of a pending entry, e.g. a day or a driver
+ * @param <V> pending state for that key
+ */
+public abstract class IngestAggregator<K, V> implements VehicleEventIngestListener {
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final String table;
+    private final String feature;
+    protected final TransactionTemplate transactionTemplate;
+    protected final ConcurrentMap<K, V> pending = new ConcurrentHashMap<>();
+    protected final Object flushLock = new Object();
+
+    private Thread flusher;
+    private volatile boolean running;
+
+    /**
+     * @param table   the table the state is written to, for log messages
+     * @param feature what is disabled when that table is missing, for log messages
+     */
+    protected IngestAggregator(String table, String feature, PlatformTransactionManager transactionManager) {
+        this.table = table;
+        this.feature = feature;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Callers may hold a read-only transaction; writes to the state table need their own
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    protected abstract boolean isEnabled();
+
+    protected abstract boolean tableExists();
+
+    protected abstract long flushIntervalMs();
+
+    /**
+     * Writes a drained batch, inside {@link #transactionTemplate}'s transaction.
+     */
+    protected abstract void write(Map<K, V> batch);
+
+    /**
+     * Combines two entries for the same key. A failed batch is put back through this, with
+     * the entry added since the drain as {@code current}.
+     */
+    protected abstract V merge(V current, V added);
+
+    /**
+     * Loads whatever the aggregator needs from its table before it starts listening. A failure
+     * disables the aggregator like a missing table.
+     */
+    protected void load() {
+    }
+
+    /**
+     * Runs on every flush under {@link #flushLock}, before {@link #pending} is drained.
+     */
+    protected void beforeFlush() {
+    }
+
+    /**
+     * One pass of the background thread, every {@link #flushIntervalMs()}.
+     */
+    protected void tick() {
+        flush();
+    }
+
+    @PostConstruct
+    void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            if (!tableExists()) {
+                log.warn("{} table not found, {} disabled", table, feature);
+                return;
+            }
+            load();
+        } catch (RuntimeException e) {
+            log.warn("Could not load {}, {} disabled: {}", table, feature, e.getMessage());
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::flushLoop, table.replace('_', '-') + "-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+        flush();
+    }
+
+    public boolean isActive() {
+        return running;
+    }
+
+    protected boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Writes all pending entries to the table. A failed batch is put back for the next attempt.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            beforeFlush();
+            if (pending.isEmpty()) {
+                return;
+            }
+            Map<K, V> batch = new HashMap<>();
+            for (K key : pending.keySet()) {
+                V value = pending.remove(key);
+                if (value != null) {
+                    batch.put(key, value);
+                }
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(batch));
+            } catch (RuntimeException e) {
+                log.warn("Could not flush {} entries to {}, will retry: {}", batch.size(), table, e.getMessage());
+                mergePending(batch);
+            }
+        }
+    }
+
+    protected void mergePending(Map<K, V> entries) {
+        // ConcurrentHashMap.merge runs the remapping atomically per key
+        entries.forEach((key, value) -> pending.merge(key, value, this::merge));
+    }
+
+    private void flushLoop() {
+        while (running) {
+            try {
+                Thread.sleep(Math.max(100, flushIntervalMs()));
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                tick();
+            } catch (RuntimeException e) {
+                log.warn("Background pass over {} failed, will retry: {}", table, e.getMessage());
+            }
+        }
+    }
+}
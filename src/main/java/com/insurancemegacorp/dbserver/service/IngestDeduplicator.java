@@ -0,0 +1,121 @@
+package com.insurancemegacorp.dbserver.service;
+
+import com.insurancemegacorp.dbserver.config.IngestionProperties;
+import com.insurancemegacorp.dbserver.model.VehicleEvent;
+import com.insurancemegacorp.dbserver.util.SlidingBloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Ingest-time dedupe stage. Keeps a {@link SlidingBloomFilter} over the composite keys of
+ * recently written rows and splits each batch into rows that are definitely new, which take
+ * the fast insert path, and probable duplicates, which go through
+ * {@code ON CONFLICT DO NOTHING} so the database settles them without failing the batch.
+ * Keys enter the filter only once their rows have committed, so a rolled-back batch is not
+ * mistaken for a duplicate when it is retried.
+ */
+@Service
+public class IngestDeduplicator {
+
+    private final IngestionProperties.Dedupe config;
+    private final SlidingBloomFilter filter;
+    private final Counter freshRows;
+    private final Counter suspectRows;
+
+    public IngestDeduplicator(IngestionProperties ingestionProperties, MeterRegistry meterRegistry) {
+        this.config = ingestionProperties.getDedupe();
+        this.filter = config.isEnabled()
+                ? new SlidingBloomFilter(config.getExpectedKeysPerGeneration(), config.getFalsePositiveRate(), config.getGenerations())
+                : null;
+        this.freshRows = Counter.builder("ingest.dedupe.rows")
+                .tag("result", "new")
+                .description("Rows classified by the ingest dedupe filter")
+                .register(meterRegistry);
+        this.suspectRows = Counter.builder("ingest.dedupe.rows")
+                .tag("result", "probable_duplicate")
+                .description("Rows classified by the ingest dedupe filter")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return filter != null;
+    }
+
+    /**
+     * Classifies the events without recording their keys, see {@link #recordAfterCommit}. A key
+     * repeated within the batch counts as a probable duplicate from its second occurrence on.
+     */
+    public Split split(List<VehicleEvent> events) {
+        Split split = new Split(events.size());
+        Set<Long> batchKeys = new HashSet<>();
+        for (VehicleEvent event : events) {
+            long hash = hashKey(event);
+            if (!batchKeys.add(hash) || filter.mightContain(hash)) {
+                split.probableDuplicates.add(event);
+            } else {
+                split.fresh.add(event);
+            }
+        }
+        freshRows.increment(split.fresh.size());
+        suspectRows.increment(split.probableDuplicates.size());
+        return split;
+    }
+
+    /**
+     * Records the events' keys once the surrounding transaction commits, or right away without
+     * one. Called with every row of a written batch, duplicates included, as all of them are in
+     * the table after the commit.
+     */
+    public void recordAfterCommit(List<VehicleEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record(events);
+                }
+            });
+        } else {
+            record(events);
+        }
+    }
+
+    private void record(List<VehicleEvent> events) {
+        for (VehicleEvent event : events) {
+            filter.put(hashKey(event));
+        }
+    }
+
+    private static long hashKey(VehicleEvent event) {
+        return SlidingBloomFilter.hashKey(event.getPolicyId(), event.getVehicleId(),
+                event.getDriverId(), event.getEventTime());
+    }
+
+    public static final class Split {
+        private final List<VehicleEvent> fresh;
+        private final List<VehicleEvent> probableDuplicates;
+
+        private Split(int capacity) {
+            this.fresh = new ArrayList<>(capacity);
+            this.probableDuplicates = new ArrayList<>();
+        }
+
+        public List<VehicleEvent> getFresh() {
+            return fresh;
+        }
+
+        public List<VehicleEvent> getProbableDuplicates() {
+            return probableDuplicates;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.insurancemegacorp.dbserver.service;
+
+import com.insurancemegacorp.dbserver.model.VehicleEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * Hands written events to every {@link VehicleEventIngestListener}. Inside a transaction the
+ * notification is deferred until after commit, so rolled-back rows are never seen; without
+ * one the rows are already committed and listeners run immediately. A failing listener is
+ * logged and never fails the ingest.
+ */
+@Service
+public class IngestEventPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(IngestEventPublisher.class);
+
+    private final List<VehicleEventIngestListener> listeners;
+
+    public IngestEventPublisher(List<VehicleEventIngestListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    public void publishAfterCommit(List<VehicleEvent> events) {
+        if (listeners.isEmpty() || events.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    notifyListeners(events);
+                }
+            });
+        } else {
+            notifyListeners(events);
+        }
+    }
+
+    private void notifyListeners(List<VehicleEvent> events) {
+        for (VehicleEventIngestListener listener : listeners) {
+            try {
+                listener.onEventsCommitted(events);
+            } catch (RuntimeException e) {
+                log.warn("Ingest listener {} failed: {}", listener.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+}
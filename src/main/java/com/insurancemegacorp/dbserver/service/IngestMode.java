@@ -0,0 +1,27 @@
+package com.insurancemegacorp.dbserver.service;
+
+/**
+ * Write strategy used when persisting vehicle event batches.
+ */
+public enum IngestMode {
+
+    /** Hibernate {@code saveAll} through the persistence context. */
+    JPA,
+
+    /** Insert-only JDBC batches, rewritten by the driver into multi-row INSERTs. */
+    JDBC,
+
+    /** PostgreSQL {@code COPY ... FROM STDIN}, one round trip per chunk. */
+    COPY;
+
+    public static IngestMode from(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return IngestMode.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid ingest mode: " + value);
+        }
+    }
+}
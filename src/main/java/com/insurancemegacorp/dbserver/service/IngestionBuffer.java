@@ -0,0 +1,356 @@
+package com.insurancemegacorp.dbserver.service;
+
+import com.insurancemegacorp.dbserver.config.IngestionProperties;
+import com.insurancemegacorp.dbserver.dto.IngestAckDto;
+import com.insurancemegacorp.dbserver.exception.IngestionBackpressureException;
+import com.insurancemegacorp.dbserver.model.VehicleEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process group-commit buffer for vehicle events. Request threads enqueue their batch and
+ * return immediately; a small pool of writer threads drains the queue and folds events from
+ * many requests into one transaction, committing once {@code commit-size} events are gathered
+ * or {@code linger-ms} has passed since the first one was taken.
+ *
+ * <p>The queue is a lock-free {@link ConcurrentLinkedQueue} bounded by a CAS-reserved event
+ * count, so producers never block each other; a full buffer rejects the submission instead,
+ * unless the {@link IngestionSpool} is enabled, in which case the overflow and any group that
+ * fails because the database is unreachable are spooled to disk and acked as {@code SPOOLED}.
+ * A group that fails for any other reason is retried one request at a time, so a single bad
+ * batch only fails its own ack.
+ */
+@Service
+public class IngestionBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(IngestionBuffer.class);
+
+    private final VehicleEventWriter vehicleEventWriter;
+    private final IngestionSpool ingestionSpool;
+    private final IngestionProperties.Buffer config;
+
+    private static final long IDLE_WAIT_MS = 1000;
+
+    private final ConcurrentLinkedQueue<Ticket> queue = new ConcurrentLinkedQueue<>();
+    // One permit per queued ticket, so idle writers sleep until work arrives instead of polling
+    private final Semaphore queuedTickets = new Semaphore(0);
+    private final AtomicInteger queuedEvents = new AtomicInteger();
+    private final ConcurrentMap<String, Ticket> tickets = new ConcurrentHashMap<>();
+    // Signalled by writers as they drain, for producers waiting on the backlog
+    private final ReentrantLock drainLock = new ReentrantLock();
+    private final Condition drained = drainLock.newCondition();
+    private final AtomicInteger drainWaiters = new AtomicInteger();
+    private final AtomicLong lastPrune = new AtomicLong(System.currentTimeMillis());
+    private final List<Thread> writers = new ArrayList<>();
+    private volatile boolean running;
+
+    private final Timer lingerTimer;
+    private final DistributionSummary commitSize;
+
+    public IngestionBuffer(VehicleEventWriter vehicleEventWriter,
+                          IngestionSpool ingestionSpool,
+                          IngestionProperties ingestionProperties,
+                          MeterRegistry meterRegistry) {
+        this.vehicleEventWriter = vehicleEventWriter;
+        this.ingestionSpool = ingestionSpool;
+        this.config = ingestionProperties.getBuffer();
+
+        Gauge.builder("ingest.buffer.queue.depth", queuedEvents, AtomicInteger::get)
+                .description("Events waiting in the group-commit buffer")
+                .baseUnit("events")
+                .register(meterRegistry);
+        this.lingerTimer = Timer.builder("ingest.buffer.linger")
+                .description("Time a commit group waited for more events before being written")
+                .register(meterRegistry);
+        this.commitSize = DistributionSummary.builder("ingest.buffer.commit.size")
+                .description("Events written per group commit")
+                .baseUnit("events")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < Math.max(1, config.getWriterThreads()); i++) {
+            Thread writer = new Thread(this::drainLoop, "ingest-writer-" + i);
+            writer.setDaemon(true);
+            writer.start();
+            writers.add(writer);
+        }
+        log.info("Ingestion buffer started with {} writer threads", writers.size());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        for (Thread writer : writers) {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    /**
+     * Queues the events for the next group commit.
+     *
+     * @throws IngestionBackpressureException if the buffer is disabled or has no room
+     * @throws IllegalArgumentException if the batch could never fit in the buffer
+     */
+    public IngestAckDto submit(List<VehicleEvent> events) {
+        if (!running) {
+            throw new IngestionBackpressureException("Ingestion buffer is not running");
+        }
+        if (events.size() > config.getCapacity()) {
+            throw new IllegalArgumentException("Batch of " + events.size()
+                    + " events exceeds the ingestion buffer capacity of " + config.getCapacity());
+        }
+        if (ingestionSpool.shouldDivert() || !tryReserve(events.size())) {
+            return spool(events);
+        }
+
+        Ticket ticket = new Ticket(new IngestAckDto(UUID.randomUUID().toString(), "PENDING", events.size()), events);
+        tickets.put(ticket.ack.getAckId(), ticket);
+        queue.offer(ticket);
+        queuedTickets.release();
+        pruneCompletedAcks();
+        return ticket.ack;
+    }
+
+    /**
+     * Blocks until the submission is durable, fails, or the timeout elapses. A timed-out
+     * wait returns the still-pending ack rather than failing.
+     */
+    public IngestAckDto await(String ackId, long timeoutMs) {
+        Ticket ticket = tickets.get(ackId);
+        if (ticket == null) {
+            return null;
+        }
+        try {
+            ticket.done.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // Status is already reflected on the ack
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return ticket.ack;
+    }
+
+    public IngestAckDto getAck(String ackId) {
+        Ticket ticket = tickets.get(ackId);
+        return ticket != null ? ticket.ack : null;
+    }
+
+    public int getQueuedEvents() {
+        return queuedEvents.get();
+    }
+
+    /**
+     * Blocks until at most {@code events} are queued or the timeout elapses.
+     *
+     * @return whether the queue is now at or below {@code events}
+     */
+    public boolean awaitQueuedAtMost(int events, long timeoutMs) {
+        if (queuedEvents.get() <= events) {
+            return true;
+        }
+        long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        drainLock.lock();
+        // Registered before the re-check below, so a writer that drains after it sees the waiter
+        drainWaiters.incrementAndGet();
+        try {
+            while (queuedEvents.get() > events) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = drained.awaitNanos(remaining);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            drainWaiters.decrementAndGet();
+            drainLock.unlock();
+        }
+    }
+
+    private boolean tryReserve(int count) {
+        while (true) {
+            int current = queuedEvents.get();
+            if (current + count > config.getCapacity()) {
+                return false;
+            }
+            if (queuedEvents.compareAndSet(current, current + count)) {
+                return true;
+            }
+        }
+    }
+
+    private IngestAckDto spool(List<VehicleEvent> events) {
+        if (!ingestionSpool.isEnabled()) {
+            throw new IngestionBackpressureException("Ingestion buffer is full (" + queuedEvents.get() + " events queued)");
+        }
+        ingestionSpool.append(events);
+        Ticket ticket = new Ticket(new IngestAckDto(UUID.randomUUID().toString(), "SPOOLED", events.size()), events);
+        ticket.ack.setCommittedAt(System.currentTimeMillis());
+        ticket.complete();
+        tickets.put(ticket.ack.getAckId(), ticket);
+        pruneCompletedAcks();
+        return ticket.ack;
+    }
+
+    private void drainLoop() {
+        long lingerNanos = TimeUnit.MILLISECONDS.toNanos(config.getLingerMs());
+        List<Ticket> group = new ArrayList<>();
+
+        try {
+            while (running || !queue.isEmpty()) {
+                if (!queuedTickets.tryAcquire(IDLE_WAIT_MS, TimeUnit.MILLISECONDS)) {
+                    continue;
+                }
+
+                long lingerStart = System.nanoTime();
+                Ticket first = queue.poll();
+                group.add(first);
+                int events = first.events.size();
+                while (events < config.getCommitSize()) {
+                    long remaining = running ? lingerNanos - (System.nanoTime() - lingerStart) : 0;
+                    if (!queuedTickets.tryAcquire(Math.max(0, remaining), TimeUnit.NANOSECONDS)) {
+                        break;
+                    }
+                    Ticket next = queue.poll();
+                    group.add(next);
+                    events += next.events.size();
+                }
+                queuedEvents.addAndGet(-events);
+                signalDrained();
+                lingerTimer.record(System.nanoTime() - lingerStart, TimeUnit.NANOSECONDS);
+
+                commit(group, events);
+                group.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void commit(List<Ticket> group, int eventCount) {
+        List<VehicleEvent> events = new ArrayList<>(eventCount);
+        for (Ticket ticket : group) {
+            events.addAll(ticket.events);
+        }
+
+        try {
+            vehicleEventWriter.writeAndCommit(events, config.getMode());
+            commitSize.record(eventCount);
+            long now = System.currentTimeMillis();
+            for (Ticket ticket : group) {
+                ticket.ack.setStatus("COMMITTED");
+                ticket.ack.setInsertedCount((long) ticket.events.size());
+                ticket.ack.setCommittedAt(now);
+                ticket.complete();
+            }
+        } catch (RuntimeException e) {
+            boolean outage = IngestionSpool.isOutage(e);
+            if (ingestionSpool.isEnabled() && outage && spoolGroup(group, events)) {
+                return;
+            }
+            if (!outage && group.size() > 1) {
+                log.warn("Group commit of {} events from {} requests failed, committing each request on its own: {}",
+                        eventCount, group.size(), e.getMessage());
+                for (Ticket ticket : group) {
+                    commit(List.of(ticket), ticket.events.size());
+                }
+                return;
+            }
+            log.error("Group commit of {} events from {} requests failed: {}", eventCount, group.size(), e.getMessage());
+            for (Ticket ticket : group) {
+                ticket.ack.setStatus("FAILED");
+                ticket.ack.setError(e.getMessage());
+                ticket.ack.setCommittedAt(System.currentTimeMillis());
+                ticket.complete();
+            }
+        }
+    }
+
+    private void signalDrained() {
+        if (drainWaiters.get() == 0) {
+            return;
+        }
+        drainLock.lock();
+        try {
+            drained.signalAll();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    private boolean spoolGroup(List<Ticket> group, List<VehicleEvent> events) {
+        try {
+            ingestionSpool.markUnhealthy();
+            ingestionSpool.append(events);
+        } catch (IngestionBackpressureException e) {
+            log.error("Could not spool failed group commit: {}", e.getMessage());
+            return false;
+        }
+        log.warn("Database unavailable, spooled group commit of {} events from {} requests", events.size(), group.size());
+        long now = System.currentTimeMillis();
+        for (Ticket ticket : group) {
+            ticket.ack.setStatus("SPOOLED");
+            ticket.ack.setCommittedAt(now);
+            ticket.complete();
+        }
+        return true;
+    }
+
+    private void pruneCompletedAcks() {
+        long now = System.currentTimeMillis();
+        long last = lastPrune.get();
+        if (now - last < 60_000 || !lastPrune.compareAndSet(last, now)) {
+            return;
+        }
+        long cutoff = now - config.getAckRetentionMs();
+        tickets.values().removeIf(ticket -> ticket.ack.getCommittedAt() != null && ticket.ack.getCommittedAt() < cutoff);
+    }
+
+    private static final class Ticket {
+        private final IngestAckDto ack;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private List<VehicleEvent> events;
+
+        private Ticket(IngestAckDto ack, List<VehicleEvent> events) {
+            this.ack = ack;
+            this.events = events;
+        }
+
+        private void complete() {
+            // Release the payload; only the ack is kept for status lookups
+            events = List.of();
+            done.complete(null);
+        }
+    }
+}
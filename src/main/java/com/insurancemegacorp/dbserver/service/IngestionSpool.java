@@ -0,0 +1,445 @@
+package com.insurancemegacorp.dbserver.service;
+
+import com.insurancemegacorp.dbserver.config.IngestionProperties;
+import com.insurancemegacorp.dbserver.exception.IngestionBackpressureException;
+import com.insurancemegacorp.dbserver.model.VehicleEvent;
+import com.insurancemegacorp.dbserver.util.VehicleEventBinaryCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead spool on local disk for vehicle events the database cannot take right now.
+ *
+ * <p>Events are appended to memory-mapped segment files ({@code spool-<n>.seg}) as records of
+ * {@code [int length][int eventCount][long appendedAt][int crc32][payload]}, the payload being
+ * {@link VehicleEventBinaryCodec} output. The length is written last, so a torn record left by
+ * a crash is detected on restart and overwritten. A single replayer thread drains records in
+ * append order, committing each through {@link VehicleEventWriter} and persisting a
+ * {@code checkpoint} file after every commit. Replay is at-least-once: a crash between a
+ * commit and its checkpoint replays that record again.
+ *
+ * <p>Once anything is spooled, new events are spooled too until the backlog is drained, so
+ * rows reach {@code vehicle_events} in the order they were accepted.
+ */
+@Service
+public class IngestionSpool {
+
+    private static final Logger log = LoggerFactory.getLogger(IngestionSpool.class);
+
+    private static final int RECORD_HEADER_BYTES = 20;
+    private static final String SEGMENT_PREFIX = "spool-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private final VehicleEventWriter vehicleEventWriter;
+    private final VehicleEventBinaryCodec codec;
+    private final IngestionProperties.Spool config;
+
+    private Path directory;
+    private Thread replayer;
+    private volatile boolean running;
+
+    // Append side, guarded by this
+    private FileChannel activeChannel;
+    private MappedByteBuffer activeBuffer;
+    private volatile long activeSegment;
+    private volatile int writePosition;
+
+    // Replay side, replayer thread only
+    private long replaySegment;
+    private int replayOffset;
+    private long mappedReplaySegment = -1;
+    private MappedByteBuffer replayBuffer;
+
+    private final AtomicLong pendingBytes = new AtomicLong();
+    private volatile long replayHeadAppendedAt;
+    private volatile long unhealthyUntil;
+
+    private final Counter spooledEvents;
+    private final Counter replayedEvents;
+
+    public IngestionSpool(VehicleEventWriter vehicleEventWriter,
+                         VehicleEventBinaryCodec codec,
+                         IngestionProperties ingestionProperties,
+                         MeterRegistry meterRegistry) {
+        this.vehicleEventWriter = vehicleEventWriter;
+        this.codec = codec;
+        this.config = ingestionProperties.getSpool();
+
+        Gauge.builder("ingest.spool.size", pendingBytes, AtomicLong::get)
+                .description("Bytes spooled to local disk and not yet replayed")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("ingest.spool.replay.lag", this, IngestionSpool::getReplayLagMs)
+                .description("Age of the oldest spooled record not yet replayed")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        this.spooledEvents = Counter.builder("ingest.spool.events.spooled").register(meterRegistry);
+        this.replayedEvents = Counter.builder("ingest.spool.events.replayed").register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!config.isEnabled()) {
+            return;
+        }
+        directory = Paths.get(config.getDirectory());
+        Files.createDirectories(directory);
+        recover();
+
+        running = true;
+        replayer = new Thread(this::replayLoop, "ingest-spool-replayer");
+        replayer.setDaemon(true);
+        replayer.start();
+        log.info("Ingestion spool started in {} ({} bytes pending replay)", directory, pendingBytes.get());
+    }
+
+    @PreDestroy
+    synchronized void stop() throws InterruptedException, IOException {
+        running = false;
+        if (replayer != null) {
+            replayer.interrupt();
+            replayer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        if (activeChannel != null) {
+            activeBuffer.force();
+            activeChannel.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return running;
+    }
+
+    /**
+     * True when new events should go to the spool instead of the database: either a backlog
+     * is still being replayed, or a recent write failed with an outage-type error.
+     */
+    public boolean shouldDivert() {
+        return running && (pendingBytes.get() > 0 || System.currentTimeMillis() < unhealthyUntil);
+    }
+
+    public void markUnhealthy() {
+        unhealthyUntil = System.currentTimeMillis() + config.getUnhealthyHoldMs();
+    }
+
+    public long getPendingBytes() {
+        return pendingBytes.get();
+    }
+
+    public long getReplayLagMs() {
+        long head = replayHeadAppendedAt;
+        return head == 0 ? 0 : System.currentTimeMillis() - head;
+    }
+
+    /**
+     * Durably appends the events as one spool record.
+     *
+     * @throws IngestionBackpressureException if the spool is disabled or the write fails
+     */
+    public synchronized void append(List<VehicleEvent> events) {
+        if (!running) {
+            throw new IngestionBackpressureException("Ingestion spool is not enabled");
+        }
+        byte[] payload = codec.encodeAll(events);
+        int recordSize = RECORD_HEADER_BYTES + payload.length;
+        long now = System.currentTimeMillis();
+
+        try {
+            if (writePosition + recordSize > activeBuffer.capacity()) {
+                roll(recordSize);
+            }
+            int position = writePosition;
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+
+            activeBuffer.putInt(position + 4, events.size());
+            activeBuffer.putLong(position + 8, now);
+            activeBuffer.putInt(position + 16, (int) crc.getValue());
+            activeBuffer.put(position + RECORD_HEADER_BYTES, payload);
+            // Length goes last so a partially written record is never seen as complete
+            activeBuffer.putInt(position, payload.length);
+            if (config.isForceOnAppend()) {
+                activeBuffer.force(position, recordSize);
+            }
+            writePosition = position + recordSize;
+        } catch (IOException e) {
+            throw new IngestionBackpressureException("Could not write to ingestion spool: " + e.getMessage());
+        }
+
+        pendingBytes.addAndGet(recordSize);
+        spooledEvents.increment(events.size());
+    }
+
+    /**
+     * Whether the failure means the database is unreachable or saturated, as opposed to a
+     * problem with the data itself. Only the former is worth spooling and retrying.
+     */
+    public static boolean isOutage(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof DataAccessResourceFailureException
+                    || t instanceof TransientDataAccessException
+                    || t instanceof CannotCreateTransactionException
+                    || t instanceof SQLTransientException
+                    || t instanceof SQLRecoverableException
+                    || t instanceof ConnectException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void replayLoop() {
+        long backoffMs = config.getPollIntervalMs();
+        while (running) {
+            try {
+                ByteBuffer record = nextRecord();
+                if (record == null) {
+                    replayHeadAppendedAt = 0;
+                    TimeUnit.MILLISECONDS.sleep(config.getPollIntervalMs());
+                    continue;
+                }
+
+                int payloadLength = record.getInt(replayOffset);
+                int eventCount = record.getInt(replayOffset + 4);
+                replayHeadAppendedAt = record.getLong(replayOffset + 8);
+                ByteBuffer payload = record.slice(replayOffset + RECORD_HEADER_BYTES, payloadLength);
+
+                try {
+                    List<VehicleEvent> events = codec.decodeAll(payload, eventCount);
+                    vehicleEventWriter.writeAndCommit(events, config.getMode());
+                    replayedEvents.increment(eventCount);
+                    backoffMs = config.getPollIntervalMs();
+                } catch (RuntimeException e) {
+                    if (isOutage(e)) {
+                        markUnhealthy();
+                        log.warn("Spool replay paused, database unavailable: {}", e.getMessage());
+                        TimeUnit.MILLISECONDS.sleep(backoffMs);
+                        backoffMs = Math.min(backoffMs * 2, config.getMaxBackoffMs());
+                        continue;
+                    }
+                    deadLetter(record, payloadLength, e);
+                }
+                advance(RECORD_HEADER_BYTES + payloadLength);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.error("Spool replay error: {}", e.getMessage(), e);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(config.getMaxBackoffMs());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the mapped segment positioned so that the record at {@code replayOffset} is
+     * complete, or null when everything appended so far has been replayed.
+     */
+    private ByteBuffer nextRecord() throws IOException {
+        while (true) {
+            long active = activeSegment;
+            int published = writePosition;
+            boolean sealed = replaySegment < active;
+            if (!sealed && replayOffset >= published) {
+                return null;
+            }
+
+            MappedByteBuffer buffer = mapReplaySegment();
+            if (buffer != null && replayOffset + RECORD_HEADER_BYTES <= buffer.capacity()) {
+                int length = buffer.getInt(replayOffset);
+                if (length > 0 && replayOffset + RECORD_HEADER_BYTES + length <= buffer.capacity()) {
+                    return buffer;
+                }
+            }
+            if (!sealed) {
+                return null;
+            }
+
+            // End of a sealed segment: move on and drop the file
+            Path finished = segmentPath(replaySegment);
+            replaySegment++;
+            replayOffset = 0;
+            writeCheckpoint();
+            Files.deleteIfExists(finished);
+        }
+    }
+
+    private MappedByteBuffer mapReplaySegment() throws IOException {
+        if (mappedReplaySegment != replaySegment) {
+            Path path = segmentPath(replaySegment);
+            if (!Files.exists(path)) {
+                // Not cached, so the segment is mapped once it shows up
+                return null;
+            }
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                replayBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                replayBuffer.order(ByteOrder.LITTLE_ENDIAN);
+            }
+            mappedReplaySegment = replaySegment;
+        }
+        return replayBuffer;
+    }
+
+    private void advance(int recordSize) throws IOException {
+        replayOffset += recordSize;
+        writeCheckpoint();
+        pendingBytes.addAndGet(-recordSize);
+    }
+
+    private void deadLetter(ByteBuffer record, int payloadLength, RuntimeException e) throws IOException {
+        Path file = directory.resolve("dead-letter-" + replaySegment + "-" + replayOffset + ".rec");
+        byte[] bytes = new byte[RECORD_HEADER_BYTES + payloadLength];
+        record.get(replayOffset, bytes);
+        Files.write(file, bytes);
+        log.error("Spool record at segment {} offset {} rejected by the database, moved to {}: {}",
+                replaySegment, replayOffset, file.getFileName(), e.getMessage());
+    }
+
+    private void writeCheckpoint() throws IOException {
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        Files.writeString(temp, replaySegment + " " + replayOffset, StandardCharsets.UTF_8);
+        Files.move(temp, directory.resolve(CHECKPOINT_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private synchronized void roll(int minimumSize) throws IOException {
+        if (activeChannel != null) {
+            // Terminate the sealed segment, recovery may have left a torn record past the end
+            if (writePosition + 4 <= activeBuffer.capacity()) {
+                activeBuffer.putInt(writePosition, 0);
+            }
+            activeBuffer.force();
+            activeChannel.close();
+        }
+        openSegment(activeSegment + 1, minimumSize, 0);
+    }
+
+    private void openSegment(long segment, int minimumSize, int position) throws IOException {
+        Path path = segmentPath(segment);
+        activeChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = Math.max(Math.max(config.getSegmentSizeBytes(), minimumSize), activeChannel.size());
+        activeBuffer = activeChannel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        activeBuffer.order(ByteOrder.LITTLE_ENDIAN);
+        // Publish the position before the segment number, the replayer reads them in reverse
+        writePosition = position;
+        activeSegment = segment;
+    }
+
+    private void recover() throws IOException {
+        List<Long> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+
+        long checkpointSegment = -1;
+        int checkpointOffset = 0;
+        Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+        if (Files.exists(checkpoint)) {
+            String[] parts = Files.readString(checkpoint, StandardCharsets.UTF_8).trim().split(" ");
+            checkpointSegment = Long.parseLong(parts[0]);
+            checkpointOffset = Integer.parseInt(parts[1]);
+        }
+
+        if (segments.isEmpty()) {
+            long segment = Math.max(0, checkpointSegment);
+            openSegment(segment, 0, 0);
+            replaySegment = segment;
+            replayOffset = 0;
+            writeCheckpoint();
+            return;
+        }
+
+        for (long segment : segments) {
+            if (segment < checkpointSegment) {
+                Files.deleteIfExists(segmentPath(segment));
+            }
+        }
+
+        long first = Math.max(segments.get(0), checkpointSegment);
+        long last = segments.get(segments.size() - 1);
+        replaySegment = first;
+        replayOffset = first == checkpointSegment ? checkpointOffset : 0;
+
+        long pending = 0;
+        for (long segment = first; segment <= last; segment++) {
+            Path path = segmentPath(segment);
+            if (!Files.exists(path)) {
+                continue;
+            }
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+                int end = scanEnd(buffer);
+                int start = segment == replaySegment ? Math.min(replayOffset, end) : 0;
+                pending += end - start;
+                if (segment == last) {
+                    openSegment(last, 0, end);
+                }
+            }
+        }
+        pendingBytes.set(pending);
+    }
+
+    /**
+     * Walks the records of a segment and returns the offset just past the last intact one.
+     */
+    private static int scanEnd(ByteBuffer buffer) {
+        int position = 0;
+        while (position + RECORD_HEADER_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + RECORD_HEADER_BYTES + length > buffer.capacity()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(position + RECORD_HEADER_BYTES, payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(position + 16)) {
+                break;
+            }
+            position += RECORD_HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+}
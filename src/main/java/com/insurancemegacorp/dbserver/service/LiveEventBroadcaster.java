@@ -0,0 +1,187 @@
+package com.insurancemegacorp.dbserver.service;
+
+import com.insurancemegacorp.dbserver.config.IngestionProperties;
+import com.insurancemegacorp.dbserver.exception.LiveFeedUnavailableException;
+import com.insurancemegacorp.dbserver.model.VehicleEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * In-memory fan-out of committed events to server-sent-event subscribers. The committing
+ * thread only filters and enqueues references; each subscriber has its own bounded queue that
+ * drops its oldest events when the client falls behind, and its own virtual thread that maps
+ * and writes them out. A slow subscriber therefore never holds up ingestion or other
+ * subscribers. Idle streams get a comment line every {@code ingestion.live.heartbeat-ms} so
+ * proxies keep them open.
+ */
+@Service
+public class LiveEventBroadcaster implements VehicleEventIngestListener {
+
+    private static final Logger log = LoggerFactory.getLogger(LiveEventBroadcaster.class);
+    private static final int MAX_SEND_BATCH = 256;
+
+    private final IngestionProperties.Live config;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicLong subscriptionIds = new AtomicLong();
+    private final Counter droppedEvents;
+
+    public LiveEventBroadcaster(IngestionProperties ingestionProperties, MeterRegistry meterRegistry) {
+        this.config = ingestionProperties.getLive();
+
+        Gauge.builder("events.live.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open live event feed subscriptions")
+                .register(meterRegistry);
+        this.droppedEvents = Counter.builder("events.live.dropped")
+                .description("Events dropped from a full live feed subscriber buffer")
+                .baseUnit("events")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a feed of events matching {@code filter}, converted with {@code mapper} on the
+     * subscriber's own thread.
+     *
+     * @throws LiveFeedUnavailableException if the feed is disabled or at its subscriber limit
+     */
+    public SseEmitter subscribe(Predicate<VehicleEvent> filter, Function<VehicleEvent, ?> mapper) {
+        if (!config.isEnabled()) {
+            throw new LiveFeedUnavailableException("Live event feed is disabled");
+        }
+        if (subscriberCount.incrementAndGet() > config.getMaxSubscribers()) {
+            subscriberCount.decrementAndGet();
+            throw new LiveFeedUnavailableException("Live event feed is at its limit of "
+                    + config.getMaxSubscribers() + " subscribers");
+        }
+
+        SseEmitter emitter = new SseEmitter(config.getTimeoutMs());
+        Subscription subscription = new Subscription(emitter, filter, mapper, Math.max(1, config.getBufferSize()));
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(error -> subscription.close());
+        // Assigned before start so a close from the sender itself or a callback sees it
+        subscription.sender = Thread.ofVirtual()
+                .name("live-feed-" + subscriptionIds.incrementAndGet())
+                .unstarted(subscription::drain);
+        subscriptions.add(subscription);
+        subscription.sender.start();
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @Override
+    public void onEventsCommitted(List<VehicleEvent> events) {
+        for (Subscription subscription : subscriptions) {
+            for (VehicleEvent event : events) {
+                if (subscription.filter.test(event)) {
+                    subscription.offer(event);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        for (Subscription subscription : subscriptions) {
+            subscription.emitter.complete();
+            subscription.close();
+        }
+    }
+
+    private final class Subscription {
+        private final SseEmitter emitter;
+        private final Predicate<VehicleEvent> filter;
+        private final Function<VehicleEvent, ?> mapper;
+        private final BlockingQueue<VehicleEvent> queue;
+        private final AtomicLong dropped = new AtomicLong();
+        private volatile boolean open = true;
+        private volatile Thread sender;
+
+        private Subscription(SseEmitter emitter, Predicate<VehicleEvent> filter,
+                             Function<VehicleEvent, ?> mapper, int bufferSize) {
+            this.emitter = emitter;
+            this.filter = filter;
+            this.mapper = mapper;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        private void offer(VehicleEvent event) {
+            while (!queue.offer(event)) {
+                if (queue.poll() != null) {
+                    dropped.incrementAndGet();
+                    droppedEvents.increment();
+                }
+            }
+        }
+
+        private void drain() {
+            List<VehicleEvent> batch = new ArrayList<>(MAX_SEND_BATCH);
+            long reportedDrops = 0;
+            try {
+                while (open) {
+                    VehicleEvent first = queue.poll(config.getHeartbeatMs(), TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        emitter.send(SseEmitter.event().comment("keepalive"));
+                        continue;
+                    }
+                    long drops = dropped.get();
+                    if (drops > reportedDrops) {
+                        emitter.send(SseEmitter.event().name("dropped").data(Map.of("dropped", drops - reportedDrops)));
+                        reportedDrops = drops;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_SEND_BATCH - 1);
+                    for (VehicleEvent event : batch) {
+                        emitter.send(SseEmitter.event()
+                                .name("vehicle-event")
+                                .id(String.valueOf(event.getEventTime()))
+                                .data(mapper.apply(event)));
+                    }
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | IllegalStateException e) {
+                // Client went away or the emitter was already completed
+                log.debug("Live feed subscriber disconnected: {}", e.getMessage());
+                emitter.completeWithError(e);
+            } finally {
+                close();
+            }
+        }
+
+        private void close() {
+            if (!subscriptions.remove(this)) {
+                return;
+            }
+            open = false;
+            subscriberCount.decrementAndGet();
+            Thread current = sender;
+            if (current != null && current != Thread.currentThread()) {
+                current.interrupt();
+            }
+        }
+    }
+}
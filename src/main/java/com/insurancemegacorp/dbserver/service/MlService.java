@@ -8,6 +8,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -19,12 +22,18 @@ public class MlService {
 
     private final JdbcTemplate jdbcTemplate;
     private final JobTrackingService jobTrackingService;
+    private final DriverFeatureAggregator driverFeatureAggregator;
+    private final ResultSetExporter resultSetExporter;
 
     @Autowired
     public MlService(JdbcTemplate jdbcTemplate,
-                    JobTrackingService jobTrackingService) {
+                    JobTrackingService jobTrackingService,
+                    DriverFeatureAggregator driverFeatureAggregator,
+                    ResultSetExporter resultSetExporter) {
         this.jdbcTemplate = jdbcTemplate;
         this.jobTrackingService = jobTrackingService;
+        this.driverFeatureAggregator = driverFeatureAggregator;
+        this.resultSetExporter = resultSetExporter;
     }
 
     public MlModelInfoDto getModelInfo() {
@@ -243,6 +252,23 @@ public class MlService {
         return jobId;
     }
 
+    /**
+     * Streams {@code driver_ml_training_data}, one row per driver, in the given format,
+     * e.g. as Arrow record batches for pandas or Spark.
+     *
+     * @return the number of rows written
+     */
+    public long exportTrainingData(ExportFormat format, ExportTarget target) throws IOException {
+        return resultSetExporter.export("driver_ml_training_data", format, target,
+            (fetchSize, extractor) -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                    "SELECT * FROM driver_ml_training_data ORDER BY driver_id",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(Math.max(1, fetchSize));
+                return statement;
+            }, extractor));
+    }
+
     private void executeRealMlRecalculation(String jobId) {
         try {
             log.info("Starting ML recalculation job: {}", jobId);
@@ -294,6 +320,15 @@ public class MlService {
     }
 
     private void refreshTrainingData() {
+        if (driverFeatureAggregator.isActive()) {
+            try {
+                refreshTrainingDataFromFeatureState();
+                return;
+            } catch (Exception e) {
+                log.warn("Could not refresh training data from driver_feature_state, falling back to full scan: {}", e.getMessage());
+            }
+        }
+
         log.info("Refreshing driver_ml_training_data from vehicle_events...");
 
         // Refresh the training data by aggregating from vehicle_events
@@ -329,6 +364,41 @@ public class MlService {
         }
     }
 
+    /**
+     * Derives the training features from the incrementally maintained per-driver state, one row
+     * per driver, instead of re-aggregating every event. Only used once the aggregator has
+     * seeded the state.
+     */
+    private void refreshTrainingDataFromFeatureState() {
+        log.info("Refreshing driver_ml_training_data from driver_feature_state...");
+        driverFeatureAggregator.flush();
+
+        // phone_usage_rate keeps its default: phone use is not captured on vehicle_events
+        String sql = """
+            INSERT INTO driver_ml_training_data (driver_id, speed_compliance_rate, harsh_driving_events,
+                                                  phone_usage_rate, avg_g_force, speed_variance, accident_count, has_accident)
+            SELECT
+                driver_id,
+                COALESCE(speed_compliance_sum / NULLIF(speed_count, 0), 95.0) as speed_compliance_rate,
+                harsh_event_count as harsh_driving_events,
+                10.0 as phone_usage_rate,
+                COALESCE(g_force_sum / NULLIF(g_force_count, 0), 1.0) as avg_g_force,
+                CASE WHEN speed_count > 1 THEN SQRT(GREATEST(speed_m2, 0) / (speed_count - 1)) ELSE 10.0 END as speed_variance,
+                0 as accident_count,
+                0 as has_accident
+            FROM driver_feature_state
+            ON CONFLICT (driver_id) DO UPDATE SET
+                speed_compliance_rate = EXCLUDED.speed_compliance_rate,
+                harsh_driving_events = EXCLUDED.harsh_driving_events,
+                phone_usage_rate = EXCLUDED.phone_usage_rate,
+                avg_g_force = EXCLUDED.avg_g_force,
+                speed_variance = EXCLUDED.speed_variance
+            """;
+
+        int drivers = jdbcTemplate.update(sql);
+        log.info("Training data refreshed for {} drivers", drivers);
+    }
+
     private void dropExistingModel() {
         log.info("Dropping existing MADlib model tables...");
         jdbcTemplate.execute("DROP TABLE IF EXISTS driver_accident_model CASCADE");
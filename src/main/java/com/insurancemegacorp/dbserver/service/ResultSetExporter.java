@@ -0,0 +1,95 @@
+package com.insurancemegacorp.dbserver.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurancemegacorp.dbserver.config.IngestionProperties;
+import com.insurancemegacorp.dbserver.exception.ExportAbortedException;
+import jakarta.annotation.PreDestroy;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Runs an export query and writes its result set to an {@link ExportTarget} in one of the
+ * {@link ExportFormat}s. The query runs in a read-only transaction (joining the caller's
+ * if there is one) so PostgreSQL can stream it through a cursor, {@code ingestion.export.fetch-size}
+ * rows at a time.
+ *
+ * <p>A query that fails after the target is opened aborts the export without closing the
+ * stream. Closing would write the gzip trailer and end the chunked response, so the client
+ * would take a truncated file for a complete one.
+ */
+@Service
+public class ResultSetExporter {
+
+    private static final Logger log = LoggerFactory.getLogger(ResultSetExporter.class);
+
+    private final ObjectMapper objectMapper;
+    private final IngestionProperties.Export config;
+    private final TransactionTemplate transactionTemplate;
+    private BufferAllocator allocator;
+
+    public ResultSetExporter(ObjectMapper objectMapper, IngestionProperties ingestionProperties,
+                             PlatformTransactionManager transactionManager) {
+        this.objectMapper = objectMapper;
+        this.config = ingestionProperties.getExport();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * @param name  what is being exported, for the log line
+     * @param query runs the export query with the given fetch size, handing its result set to the extractor
+     * @return the number of rows written
+     * @throws ExportAbortedException if the export fails once the target is open
+     */
+    public long export(String name, ExportFormat format, ExportTarget target, ExportQuery query) throws IOException {
+        long startTime = System.currentTimeMillis();
+        OutputStream out = new BufferedOutputStream(target.open(), Math.max(1, config.getBufferBytes()));
+        long rowCount;
+        try {
+            ResultSetExtractor<Long> writer = format == ExportFormat.ARROW
+                    ? new ArrowExportWriter(allocator(), out, config.getArrowBatchRows())
+                    : new ExportRowWriter(format, out, objectMapper);
+            Long rows = transactionTemplate.execute(status -> query.run(config.getFetchSize(), writer));
+            rowCount = rows != null ? rows : 0L;
+        } catch (RuntimeException e) {
+            throw new ExportAbortedException("Export of " + name + " failed: " + e.getMessage(), e);
+        }
+        out.close();
+        log.info("Exported {} {} rows as {} in {} ms",
+                rowCount, name, format, System.currentTimeMillis() - startTime);
+        return rowCount;
+    }
+
+    /**
+     * Created on first use so the application starts even where the JVM lacks the
+     * {@code --add-opens=java.base/java.nio} Arrow needs; only Arrow exports fail then.
+     */
+    private synchronized BufferAllocator allocator() {
+        if (allocator == null) {
+            allocator = new RootAllocator();
+        }
+        return allocator;
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        if (allocator != null) {
+            allocator.close();
+        }
+    }
+
+    @FunctionalInterface
+    public interface ExportQuery {
+        Long run(int fetchSize, ResultSetExtractor<Long> extractor);
+    }
+}
@@ -0,0 +1,43 @@
+package com.insurancemegacorp.dbserver.service;
+
+/**
+ * Bucket width of a telemetry timeseries.
+ */
+public enum TimeBucket {
+
+    ONE_MINUTE("1m", 60_000L),
+    FIVE_MINUTES("5m", 5 * 60_000L),
+    ONE_HOUR("1h", 60 * 60_000L),
+    ONE_DAY("1d", 24 * 60 * 60_000L);
+
+    private final String code;
+    private final long millis;
+
+    TimeBucket(String code, long millis) {
+        this.code = code;
+        this.millis = millis;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    /**
+     * @param value {@code 1m}, {@code 5m}, {@code 1h} or {@code 1d}; null or blank means {@code 1h}
+     */
+    public static TimeBucket from(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return ONE_HOUR;
+        }
+        for (TimeBucket bucket : values()) {
+            if (bucket.code.equalsIgnoreCase(value.trim())) {
+                return bucket;
+            }
+        }
+        throw new IllegalArgumentException("Invalid bucket: " + value + " (expected 1m, 5m, 1h or 1d)");
+    }
+}
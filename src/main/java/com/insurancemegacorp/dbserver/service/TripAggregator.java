@@ -0,0 +1,232 @@
+package com.insurancemegacorp.dbserver.service;
+
+import com.insurancemegacorp.dbserver.config.IngestionProperties;
+import com.insurancemegacorp.dbserver.exception.TripsUnavailableException;
+import com.insurancemegacorp.dbserver.model.TripSummary;
+import com.insurancemegacorp.dbserver.model.VehicleEvent;
+import com.insurancemegacorp.dbserver.repository.TripRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Segments committed events into trips as they arrive, one {@link TripSegmenter} per vehicle
+ * with an open trip. Changed trips are upserted into {@code vehicle_trips} every
+ * {@code ingestion.trips.flush-interval-ms}; the same pass closes trips whose vehicle has sent
+ * nothing for the gap time. Open trips are reloaded on startup, so a restart continues them.
+ *
+ * <p>Events older than the last one segmented for their vehicle are skipped and counted in
+ * {@code trips.late.events}; {@link #resegment} rebuilds a vehicle's trips from the stored
+ * events when that matters. The aggregator disables itself if the trips table has not been
+ * created.
+ */
+@Service
+public class TripAggregator extends IngestAggregator<TripAggregator.TripKey, TripSummary> {
+
+    private static final Logger log = LoggerFactory.getLogger(TripAggregator.class);
+
+    private final TripRepository tripRepository;
+    private final IngestionProperties.Trips config;
+    private final int fetchSize;
+    private final Counter lateEvents;
+
+    private final ConcurrentMap<Long, TripSegmenter> segmenters = new ConcurrentHashMap<>();
+
+    public TripAggregator(TripRepository tripRepository,
+                          IngestionProperties ingestionProperties,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry) {
+        super("vehicle_trips", "trip segmentation", transactionManager);
+        this.tripRepository = tripRepository;
+        this.config = ingestionProperties.getTrips();
+        this.fetchSize = ingestionProperties.getExport().getFetchSize();
+
+        Gauge.builder("trips.open", segmenters, Map::size)
+                .description("Vehicles with a trip in progress")
+                .register(meterRegistry);
+        this.lateEvents = Counter.builder("trips.late.events")
+                .description("Events older than their vehicle's last segmented event, left out of trips")
+                .baseUnit("events")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    @Override
+    protected boolean tableExists() {
+        return tripRepository.tableExists();
+    }
+
+    @Override
+    protected long flushIntervalMs() {
+        return config.getFlushIntervalMs();
+    }
+
+    /**
+     * Reloads the open trips, so a restart continues them.
+     */
+    @Override
+    protected void load() {
+        long now = System.currentTimeMillis();
+        for (TripSummary trip : tripRepository.findOpen()) {
+            TripSegmenter segmenter = segmenters.computeIfAbsent(trip.getVehicleId(), this::newSegmenter);
+            if (segmenter.getOpenTrip() != null) {
+                // Only the latest open trip of a vehicle can still grow
+                TripSummary stale = segmenter.getOpenTrip().copy();
+                stale.setOpen(false);
+                markDirty(stale);
+            }
+            // The vehicle gets the gap time from now to report again
+            segmenter.resume(trip, now);
+        }
+    }
+
+    @Override
+    public void onEventsCommitted(List<VehicleEvent> events) {
+        if (!isRunning()) {
+            return;
+        }
+        Map<Long, List<VehicleEvent>> byVehicle = new HashMap<>();
+        for (VehicleEvent event : events) {
+            if (event.getVehicleId() != null && event.getEventTime() != null) {
+                byVehicle.computeIfAbsent(event.getVehicleId(), id -> new ArrayList<>()).add(event);
+            }
+        }
+        long now = System.currentTimeMillis();
+        byVehicle.forEach((vehicleId, vehicleEvents) -> {
+            vehicleEvents.sort(Comparator.comparing(VehicleEvent::getEventTime));
+            // compute holds the entry lock, so one vehicle's events are segmented one batch at a time
+            segmenters.compute(vehicleId, (id, segmenter) -> {
+                TripSegmenter current = segmenter != null ? segmenter : newSegmenter(id);
+                for (VehicleEvent event : vehicleEvents) {
+                    if (current.isLate(event)) {
+                        lateEvents.increment();
+                        continue;
+                    }
+                    markDirty(current.accept(event, now));
+                }
+                markDirty(current.getOpenTrip());
+                // Vehicles between trips need no state; the next moving event starts afresh
+                return current.getOpenTrip() != null ? current : null;
+            });
+        });
+    }
+
+    /**
+     * Closes trips idle for the gap time, so the flush that follows writes them.
+     */
+    @Override
+    protected void beforeFlush() {
+        long now = System.currentTimeMillis();
+        for (Long vehicleId : segmenters.keySet()) {
+            segmenters.computeIfPresent(vehicleId, (id, segmenter) -> {
+                markDirty(segmenter.closeIfIdle(now));
+                return segmenter.getOpenTrip() != null ? segmenter : null;
+            });
+        }
+    }
+
+    @Override
+    protected void write(Map<TripKey, TripSummary> batch) {
+        tripRepository.upsert(batch.values());
+    }
+
+    /**
+     * Pending entries are whole trip states, so a failed one is put back only if no newer
+     * state has replaced it.
+     */
+    @Override
+    protected TripSummary merge(TripSummary current, TripSummary added) {
+        return current;
+    }
+
+    /**
+     * Rebuilds the vehicle's trips starting from {@code from} to {@code to} out of the stored
+     * events, e.g. after late events or for history ingested before trips were kept. A trip
+     * already running at {@code from} is rebuilt from its own start. The vehicle's trip in
+     * progress belongs to live segmentation and is never rebuilt: the range ends before it,
+     * and the last rebuilt trip is closed since that trip followed it. Without one, a trip
+     * still open at {@code to} is kept only if its vehicle has gone quiet.
+     *
+     * @return the number of trips written
+     * @throws TripsUnavailableException if trip segmentation is not running
+     */
+    public int resegment(long vehicleId, long from, long to) {
+        if (!isRunning()) {
+            throw new TripsUnavailableException();
+        }
+        Integer written;
+        // No flush runs in between, so none can write the vehicle's old trips over the rebuilt ones
+        synchronized (flushLock) {
+            flush();
+            Long liveStart = liveTripStart(vehicleId);
+            long end = liveStart != null ? Math.min(to, liveStart - 1) : to;
+            written = transactionTemplate.execute(status -> {
+                long start = tripRepository.findSegmentStart(vehicleId, from);
+                if (start > end) {
+                    return 0;
+                }
+                TripSegmenter segmenter = newSegmenter(vehicleId);
+                List<TripSummary> trips = new ArrayList<>();
+                tripRepository.scanEvents(vehicleId, start, end, fetchSize, event -> {
+                    TripSummary closed = segmenter.accept(event);
+                    if (closed != null) {
+                        trips.add(closed);
+                    }
+                });
+                TripSummary trailing = liveStart != null
+                        ? segmenter.closeOpen()
+                        : segmenter.closeIfIdle(System.currentTimeMillis());
+                if (trailing != null) {
+                    trips.add(trailing);
+                }
+                tripRepository.deleteStartingBetween(vehicleId, start, end);
+                tripRepository.upsert(trips);
+                return trips.size();
+            });
+        }
+        log.info("Re-segmented vehicle {} into {} trips", vehicleId, written);
+        return written != null ? written : 0;
+    }
+
+    private Long liveTripStart(long vehicleId) {
+        Long[] start = new Long[1];
+        // Read under the entry lock; segmenters are confined to one thread at a time
+        segmenters.computeIfPresent(vehicleId, (id, segmenter) -> {
+            if (segmenter.getOpenTrip() != null) {
+                start[0] = segmenter.getOpenTrip().getStartTime();
+            }
+            return segmenter;
+        });
+        return start[0];
+    }
+
+    private TripSegmenter newSegmenter(long vehicleId) {
+        return new TripSegmenter(vehicleId, config.getMaxGapMs(), config.getStopMs(), config.getMinMovingSpeedMph());
+    }
+
+    private void markDirty(TripSummary trip) {
+        if (trip != null) {
+            // Latest state of every changed trip, keyed by vehicle and start time
+            pending.put(new TripKey(trip.getVehicleId(), trip.getStartTime()), trip.copy());
+        }
+    }
+
+    record TripKey(long vehicleId, long startTime) {
+    }
+}
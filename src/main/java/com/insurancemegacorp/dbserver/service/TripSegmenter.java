@@ -0,0 +1,130 @@
+package com.insurancemegacorp.dbserver.service;
+
+import com.insurancemegacorp.dbserver.model.TripSummary;
+import com.insurancemegacorp.dbserver.model.VehicleEvent;
+
+/**
+ * Splits one vehicle's time-ordered events into trips. There is no ignition signal, so a trip
+ * starts at the first event at or above the moving speed and ends either when the vehicle
+ * has reported below that speed for the stop time, ending the trip at the event where it
+ * stopped, or when no event arrives for longer than the gap time, ending it at the last
+ * event. A stop shorter than the stop time (traffic, a junction) stays inside the trip.
+ * Gaps between events are measured in event time; whether the vehicle has gone quiet is
+ * measured from when its last event arrived, so a device uploading late does not look idle.
+ *
+ * <p>Not thread-safe; callers confine each instance to one vehicle and one thread at a time.
+ */
+class TripSegmenter {
+
+    private final long vehicleId;
+    private final long maxGapMs;
+    private final long stopMs;
+    private final float minMovingSpeedMph;
+
+    private TripSummary trip;
+    // Trip as of the first stationary event of the current stop, or null while moving
+    private TripSummary atStop;
+    private long stoppedSince;
+    private long lastEventTime = Long.MIN_VALUE;
+    private long lastArrivedAt = Long.MIN_VALUE;
+
+    TripSegmenter(long vehicleId, long maxGapMs, long stopMs, float minMovingSpeedMph) {
+        this.vehicleId = vehicleId;
+        this.maxGapMs = maxGapMs;
+        this.stopMs = stopMs;
+        this.minMovingSpeedMph = minMovingSpeedMph;
+    }
+
+    /**
+     * Continues a trip left open by an earlier run, as if its last event arrived at
+     * {@code arrivedAt}.
+     */
+    void resume(TripSummary openTrip, long arrivedAt) {
+        trip = openTrip;
+        atStop = null;
+        lastEventTime = openTrip.getEndTime();
+        lastArrivedAt = arrivedAt;
+    }
+
+    /**
+     * Whether {@code event} is older than one already segmented; such events are not
+     * segmented.
+     */
+    boolean isLate(VehicleEvent event) {
+        return event.getEventTime() < lastEventTime;
+    }
+
+    /**
+     * Feeds the next stored event, taking its event time as its arrival time.
+     *
+     * @return the trip this event closed, or null
+     */
+    TripSummary accept(VehicleEvent event) {
+        return accept(event, event.getEventTime());
+    }
+
+    /**
+     * Feeds the next event, which must not be {@link #isLate late}, received at
+     * {@code arrivedAt}.
+     *
+     * @return the trip this event closed, or null
+     */
+    TripSummary accept(VehicleEvent event, long arrivedAt) {
+        long time = event.getEventTime();
+        TripSummary closed = null;
+        if (trip != null && time - lastEventTime > maxGapMs) {
+            closed = close();
+        }
+        lastEventTime = time;
+        lastArrivedAt = arrivedAt;
+
+        boolean moving = event.getSpeedMph() != null && event.getSpeedMph() >= minMovingSpeedMph;
+        if (trip == null) {
+            if (moving) {
+                trip = new TripSummary(vehicleId, event);
+            }
+            return closed;
+        }
+
+        trip.add(event);
+        if (moving) {
+            atStop = null;
+        } else if (atStop == null) {
+            atStop = trip.copy();
+            stoppedSince = time;
+        } else if (time - stoppedSince >= stopMs) {
+            closed = close();
+        }
+        return closed;
+    }
+
+    /**
+     * Closes the open trip if no event has arrived for the gap time by {@code now}.
+     *
+     * @return the closed trip, or null
+     */
+    TripSummary closeIfIdle(long now) {
+        return trip != null && now - lastArrivedAt > maxGapMs ? close() : null;
+    }
+
+    /**
+     * Closes the open trip regardless of time, e.g. when a later trip is known to follow it.
+     *
+     * @return the closed trip, or null
+     */
+    TripSummary closeOpen() {
+        return trip != null ? close() : null;
+    }
+
+    TripSummary getOpenTrip() {
+        return trip;
+    }
+
+    private TripSummary close() {
+        TripSummary closed = atStop != null ? atStop : trip;
+        closed.setOpen(false);
+        trip = null;
+        atStop = null;
+        return closed;
+    }
+}
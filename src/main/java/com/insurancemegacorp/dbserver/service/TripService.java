@@ -0,0 +1,139 @@
+package com.insurancemegacorp.dbserver.service;
+
+import com.insurancemegacorp.dbserver.dto.SlicePageDto;
+import com.insurancemegacorp.dbserver.dto.TripDto;
+import com.insurancemegacorp.dbserver.exception.TripsUnavailableException;
+import com.insurancemegacorp.dbserver.model.TripSummary;
+import com.insurancemegacorp.dbserver.repository.TripRepository;
+import com.insurancemegacorp.dbserver.util.QueryFilterBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional(readOnly = true)
+public class TripService {
+
+    // Caps the track returned with a trip's detail
+    private static final int MAX_TRIP_EVENTS = 10_000;
+
+    private final TripRepository tripRepository;
+    private final TripAggregator tripAggregator;
+    private final VehicleEventService vehicleEventService;
+    private final QueryFilterBuilder queryFilterBuilder;
+
+    public TripService(TripRepository tripRepository,
+                       TripAggregator tripAggregator,
+                       VehicleEventService vehicleEventService,
+                       QueryFilterBuilder queryFilterBuilder) {
+        this.tripRepository = tripRepository;
+        this.tripAggregator = tripAggregator;
+        this.vehicleEventService = vehicleEventService;
+        this.queryFilterBuilder = queryFilterBuilder;
+    }
+
+    /**
+     * Trips starting in the date range, newest first.
+     */
+    public SlicePageDto<TripDto> findTrips(String vehicleIdStr, String driverIdStr, String dateFromStr,
+                                           String dateToStr, Integer limit, Integer offset) {
+        requireTrips();
+        Long vehicleId = parseVehicleId(vehicleIdStr);
+        Long driverId = queryFilterBuilder.parseDriverId(driverIdStr);
+        int pageSize = queryFilterBuilder.resolvePageSize(limit);
+        int start = offset != null && offset >= 0 ? offset : 0;
+
+        // One extra row tells whether more trips match
+        List<TripSummary> rows = tripRepository.find(vehicleId, driverId != null ? driverId.intValue() : null,
+                toMillis(dateFromStr), toMillis(dateToStr), start, pageSize + 1);
+        boolean hasNext = rows.size() > pageSize;
+        List<TripDto> content = (hasNext ? rows.subList(0, pageSize) : rows).stream()
+                .map(this::toDto)
+                .collect(Collectors.toList());
+        return new SlicePageDto<>(content, start / pageSize, pageSize, hasNext);
+    }
+
+    /**
+     * One trip with its events, oldest first, or null if there is no such trip.
+     */
+    public TripDto getTrip(long tripId, boolean includeEvents) {
+        requireTrips();
+        TripSummary trip = tripRepository.findById(tripId);
+        if (trip == null) {
+            return null;
+        }
+        TripDto dto = toDto(trip);
+        if (includeEvents) {
+            dto.setEvents(vehicleEventService.findVehicleTrack(
+                    trip.getVehicleId(), trip.getStartTime(), trip.getEndTime(), MAX_TRIP_EVENTS));
+        }
+        return dto;
+    }
+
+    /**
+     * Rebuilds one vehicle's trips from {@code date_from} to {@code date_to} (default now)
+     * out of the stored events.
+     *
+     * @return the number of trips written
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int resegmentTrips(String vehicleIdStr, String dateFromStr, String dateToStr) {
+        requireTrips();
+        Long vehicleId = parseVehicleId(vehicleIdStr);
+        Long from = toMillis(dateFromStr);
+        if (vehicleId == null || from == null) {
+            throw new IllegalArgumentException("vehicle_id and date_from are required");
+        }
+        Long to = toMillis(dateToStr);
+        return tripAggregator.resegment(vehicleId, from, to != null ? to : System.currentTimeMillis());
+    }
+
+    private void requireTrips() {
+        if (!tripAggregator.isActive()) {
+            throw new TripsUnavailableException();
+        }
+    }
+
+    private Long parseVehicleId(String vehicleIdStr) {
+        String vehicleId = queryFilterBuilder.sanitizeStringFilter(vehicleIdStr);
+        if (vehicleId == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(vehicleId.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid vehicle_id format: " + vehicleIdStr);
+        }
+    }
+
+    private Long toMillis(String dateStr) {
+        LocalDateTime date = queryFilterBuilder.parseDateTime(dateStr);
+        return date != null ? date.toEpochSecond(ZoneOffset.UTC) * 1000 : null;
+    }
+
+    private TripDto toDto(TripSummary trip) {
+        TripDto dto = new TripDto();
+        dto.setTripId(trip.getTripId());
+        dto.setVehicleId(trip.getVehicleId());
+        dto.setDriverId(trip.getDriverId());
+        dto.setStartTime(trip.getStartTime());
+        dto.setEndTime(trip.getEndTime());
+        dto.setDurationMs(trip.getDurationMs());
+        dto.setStartLatitude(trip.getStartLatitude());
+        dto.setStartLongitude(trip.getStartLongitude());
+        dto.setEndLatitude(trip.getEndLatitude());
+        dto.setEndLongitude(trip.getEndLongitude());
+        dto.setDistanceMeters(trip.getDistanceMeters());
+        dto.setMaxSpeedMph(trip.getMaxSpeedMph());
+        dto.setMaxGForce(trip.getMaxGForce());
+        dto.setSpeedingSeconds(trip.getSpeedingSeconds());
+        dto.setEventCount(trip.getEventCount());
+        dto.setOpen(trip.isOpen());
+        return dto;
+    }
+}
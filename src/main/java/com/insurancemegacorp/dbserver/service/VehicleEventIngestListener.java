@@ -0,0 +1,16 @@
+package com.insurancemegacorp.dbserver.service;
+
+import com.insurancemegacorp.dbserver.model.VehicleEvent;
+
+import java.util.List;
+
+/**
+ * Callback for components that derive state from ingested events. Invoked by
+ * {@link IngestEventPublisher} once the rows are committed, on the committing thread, so
+ * implementations must be quick and thread-safe.
+ */
+@FunctionalInterface
+public interface VehicleEventIngestListener {
+
+    void onEventsCommitted(List<VehicleEvent> events);
+}
@@ -1,68 +1,317 @@
 package com.insurancemegacorp.dbserver.service;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurancemegacorp.dbserver.config.IngestionProperties;
+import com.insurancemegacorp.dbserver.dto.ActiveCountBucketDto;
+import com.insurancemegacorp.dbserver.dto.ActiveCountsDto;
+import com.insurancemegacorp.dbserver.dto.BatchIngestResultDto;
+import com.insurancemegacorp.dbserver.dto.CursorPageDto;
+import com.insurancemegacorp.dbserver.dto.IngestAckDto;
+import com.insurancemegacorp.dbserver.dto.PartitionIngestResultDto;
+import com.insurancemegacorp.dbserver.dto.RowRejectionDto;
+import com.insurancemegacorp.dbserver.dto.SlicePageDto;
+import com.insurancemegacorp.dbserver.dto.StreamIngestResultDto;
+import com.insurancemegacorp.dbserver.dto.TelemetryBucketDto;
 import com.insurancemegacorp.dbserver.dto.VehicleEventDto;
 import com.insurancemegacorp.dbserver.model.VehicleEvent;
+import com.insurancemegacorp.dbserver.repository.ActivitySketchRepository;
+import com.insurancemegacorp.dbserver.repository.EventDayCountRepository;
+import com.insurancemegacorp.dbserver.repository.TelemetryTimeseriesRepository;
+import com.insurancemegacorp.dbserver.repository.VehicleEventCountEstimator;
+import com.insurancemegacorp.dbserver.repository.VehicleEventFilter;
+import com.insurancemegacorp.dbserver.repository.VehicleEventListingRepository;
 import com.insurancemegacorp.dbserver.repository.VehicleEventRepository;
+import com.insurancemegacorp.dbserver.util.EventCursor;
+import com.insurancemegacorp.dbserver.util.GeoBox;
+import com.insurancemegacorp.dbserver.util.HyperLogLog;
 import com.insurancemegacorp.dbserver.util.QueryFilterBuilder;
+import com.insurancemegacorp.dbserver.util.VehicleEventBinaryCodec;
+import com.insurancemegacorp.dbserver.util.VehicleEventValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.zip.CRC32C;
 
 @Service
 @Transactional(readOnly = true)
 public class VehicleEventService {
 
+    private static final Logger log = LoggerFactory.getLogger(VehicleEventService.class);
+
+    // Matches the g_force > 2.0 predicate of VehicleEventRepository.countHighGForceEvents
+    private static final float HIGH_G_FORCE_THRESHOLD = 2.0f;
+
+    private static final double DEFAULT_RADIUS_METERS = 500;
+    private static final double MAX_RADIUS_METERS = 100_000;
+
+    // Caps the JSON timeseries response, e.g. a week of 1m buckets
+    private static final long MAX_TIMESERIES_BUCKETS = 10_080;
+
+    private static final int MAX_ACTIVE_COUNT_DAYS = 731;
+    // 1970-01-05, the first Monday after the epoch
+    private static final int MONDAY_EPOCH_DAY = 4;
+
     private final VehicleEventRepository vehicleEventRepository;
     private final QueryFilterBuilder queryFilterBuilder;
     private final JdbcTemplate jdbcTemplate;
+    private final VehicleEventWriter vehicleEventWriter;
+    private final IngestionBuffer ingestionBuffer;
+    private final IngestionSpool ingestionSpool;
+    private final IngestionProperties ingestionProperties;
+    private final ObjectMapper objectMapper;
+    private final VehicleEventBinaryCodec binaryCodec;
+    private final VehicleEventValidator vehicleEventValidator;
+    private final LiveEventBroadcaster liveEventBroadcaster;
+    private final VehicleEventListingRepository vehicleEventListingRepository;
+    private final VehicleEventCountEstimator vehicleEventCountEstimator;
+    private final ResultSetExporter resultSetExporter;
+    private final TelemetryTimeseriesRepository telemetryTimeseriesRepository;
+    private final ActivitySketchAggregator activitySketchAggregator;
+    private final ActivitySketchRepository activitySketchRepository;
+    private final EventCountAggregator eventCountAggregator;
 
     public VehicleEventService(VehicleEventRepository vehicleEventRepository,
                               QueryFilterBuilder queryFilterBuilder,
-                              JdbcTemplate jdbcTemplate) {
+                              JdbcTemplate jdbcTemplate,
+                              VehicleEventWriter vehicleEventWriter,
+                              IngestionBuffer ingestionBuffer,
+                              IngestionSpool ingestionSpool,
+                              IngestionProperties ingestionProperties,
+                              ObjectMapper objectMapper,
+                              VehicleEventBinaryCodec binaryCodec,
+                              VehicleEventValidator vehicleEventValidator,
+                              LiveEventBroadcaster liveEventBroadcaster,
+                              VehicleEventListingRepository vehicleEventListingRepository,
+                              VehicleEventCountEstimator vehicleEventCountEstimator,
+                              ResultSetExporter resultSetExporter,
+                              TelemetryTimeseriesRepository telemetryTimeseriesRepository,
+                              ActivitySketchAggregator activitySketchAggregator,
+                              ActivitySketchRepository activitySketchRepository,
+                              EventCountAggregator eventCountAggregator) {
         this.vehicleEventRepository = vehicleEventRepository;
         this.queryFilterBuilder = queryFilterBuilder;
         this.jdbcTemplate = jdbcTemplate;
+        this.vehicleEventWriter = vehicleEventWriter;
+        this.ingestionBuffer = ingestionBuffer;
+        this.ingestionSpool = ingestionSpool;
+        this.ingestionProperties = ingestionProperties;
+        this.objectMapper = objectMapper;
+        this.binaryCodec = binaryCodec;
+        this.vehicleEventValidator = vehicleEventValidator;
+        this.liveEventBroadcaster = liveEventBroadcaster;
+        this.vehicleEventListingRepository = vehicleEventListingRepository;
+        this.vehicleEventCountEstimator = vehicleEventCountEstimator;
+        this.resultSetExporter = resultSetExporter;
+        this.telemetryTimeseriesRepository = telemetryTimeseriesRepository;
+        this.activitySketchAggregator = activitySketchAggregator;
+        this.activitySketchRepository = activitySketchRepository;
+        this.eventCountAggregator = eventCountAggregator;
     }
 
+    /**
+     * Filtered listing through the column-projection read path, see
+     * {@link VehicleEventListingRepository}.
+     */
     public Page<VehicleEventDto> findEventsWithFilters(
             String driverIdStr, String vehicleId, String eventType, String severity,
             String dateFromStr, String dateToStr, Integer limit, Integer offset, String orderBy) {
 
+        // Note: eventType and severity are not stored in the database, so we ignore these filters
+        VehicleEventFilter filter = parseFilter(driverIdStr, vehicleId, dateFromStr, dateToStr);
+
+        // Build pagination and sorting
+        Pageable pageable = queryFilterBuilder.buildPageable(limit, offset, orderBy);
+        return findOffsetPage(filter, pageable);
+    }
+
+    public Page<VehicleEventDto> findHighGForceEvents(Integer limit, Integer offset, String orderBy) {
+        Pageable pageable = queryFilterBuilder.buildPageable(limit, offset, orderBy);
+        return findOffsetPage(VehicleEventFilter.minGForce(HIGH_G_FORCE_THRESHOLD), pageable);
+    }
+
+    /**
+     * Count-free variant of {@link #findEventsWithFilters}: returns a slice with a
+     * {@code hasNext} flag instead of running the companion {@code COUNT(*)}. With
+     * {@link CountMode#ESTIMATE} the planner's row estimate is added as the total.
+     */
+    public SlicePageDto<VehicleEventDto> findEventSliceWithFilters(
+            String driverIdStr, String vehicleId, String dateFromStr, String dateToStr,
+            Integer limit, Integer offset, String orderBy, CountMode countMode) {
+
+        VehicleEventFilter filter = parseFilter(driverIdStr, vehicleId, dateFromStr, dateToStr);
+        Pageable pageable = queryFilterBuilder.buildPageable(limit, offset, orderBy);
+        return findSlice(filter, pageable, countMode);
+    }
+
+    public SlicePageDto<VehicleEventDto> findHighGForceEventSlice(Integer limit, Integer offset, String orderBy,
+                                                                  CountMode countMode) {
+        Pageable pageable = queryFilterBuilder.buildPageable(limit, offset, orderBy);
+        return findSlice(VehicleEventFilter.minGForce(HIGH_G_FORCE_THRESHOLD), pageable, countMode);
+    }
+
+    /**
+     * Keyset-paginated variant of {@link #findEventsWithFilters}: returns the page after
+     * {@code cursor} (the first page when it is blank) and the cursor for the next one.
+     */
+    public CursorPageDto<VehicleEventDto> findEventsAfterCursor(
+            String driverIdStr, String vehicleId, String dateFromStr, String dateToStr,
+            Integer limit, String cursor, String orderBy) {
+
+        queryFilterBuilder.requireEventTimeDescending(orderBy);
+        return findCursorPage(parseFilter(driverIdStr, vehicleId, dateFromStr, dateToStr), limit, cursor);
+    }
+
+    public CursorPageDto<VehicleEventDto> findHighGForceEventsAfterCursor(Integer limit, String cursor, String orderBy) {
+        queryFilterBuilder.requireEventTimeDescending(orderBy);
+        return findCursorPage(VehicleEventFilter.minGForce(HIGH_G_FORCE_THRESHOLD), limit, cursor);
+    }
+
+    /**
+     * Newest events inside a latitude/longitude box, optionally within a time range.
+     */
+    public SlicePageDto<VehicleEventDto> findEventsInBox(Double minLat, Double minLon, Double maxLat, Double maxLon,
+                                                         String dateFromStr, String dateToStr, Integer limit) {
+        if (minLat == null || minLon == null || maxLat == null || maxLon == null) {
+            throw new IllegalArgumentException("min_lat, min_lon, max_lat and max_lon are required");
+        }
+        GeoBox box = GeoBox.of(minLat, minLon, maxLat, maxLon);
+        VehicleEventFilter filter = parseFilter(null, null, dateFromStr, dateToStr);
+        int pageSize = queryFilterBuilder.resolvePageSize(limit);
+        return toAreaSlice(vehicleEventListingRepository.findInBox(filter, box, pageSize + 1), pageSize);
+    }
+
+    /**
+     * Newest events within {@code radiusMeters} of a point, optionally within a time range.
+     */
+    public SlicePageDto<VehicleEventDto> findEventsNear(Double lat, Double lon, Double radiusMeters,
+                                                        String dateFromStr, String dateToStr, Integer limit) {
+        if (lat == null || lon == null) {
+            throw new IllegalArgumentException("lat and lon are required");
+        }
+        double radius = radiusMeters != null ? radiusMeters : DEFAULT_RADIUS_METERS;
+        if (!(radius > 0 && radius <= MAX_RADIUS_METERS)) {
+            throw new IllegalArgumentException("radius_m must be between 0 and " + (int) MAX_RADIUS_METERS);
+        }
+        // Validates the point before any query
+        GeoBox.around(lat, lon, radius);
+        VehicleEventFilter filter = parseFilter(null, null, dateFromStr, dateToStr);
+        int pageSize = queryFilterBuilder.resolvePageSize(limit);
+        return toAreaSlice(vehicleEventListingRepository.findNear(filter, lat, lon, radius, pageSize + 1), pageSize);
+    }
+
+    /**
+     * The vehicle's events from {@code from} to {@code to}, oldest first, at most
+     * {@code limit} of them (the newest when there are more).
+     */
+    public List<VehicleEventDto> findVehicleTrack(long vehicleId, long from, long to, int limit) {
+        VehicleEventFilter filter = new VehicleEventFilter(null, vehicleId, from, to, null);
+        List<VehicleEventDto> track = new ArrayList<>(toDtos(
+            vehicleEventListingRepository.findPage(filter, Sort.unsorted(), 0, limit)));
+        Collections.reverse(track);
+        return track;
+    }
+
+    private SlicePageDto<VehicleEventDto> toAreaSlice(List<VehicleEvent> rows, int pageSize) {
+        // One extra row tells whether more events match
+        boolean hasNext = rows.size() > pageSize;
+        return new SlicePageDto<>(toDtos(hasNext ? rows.subList(0, pageSize) : rows), 0, pageSize, hasNext);
+    }
+
+    private VehicleEventFilter parseFilter(String driverIdStr, String vehicleId, String dateFromStr, String dateToStr) {
         // Parse and validate filters - only use fields that exist in the database
         Long driverId = queryFilterBuilder.parseDriverId(driverIdStr);
         vehicleId = queryFilterBuilder.sanitizeStringFilter(vehicleId);
-        
-        // Note: eventType and severity are not stored in the database, so we ignore these filters
-        
         LocalDateTime dateFrom = queryFilterBuilder.parseDateTime(dateFromStr);
         LocalDateTime dateTo = queryFilterBuilder.parseDateTime(dateToStr);
 
-        // Build pagination and sorting
-        Pageable pageable = queryFilterBuilder.buildPageable(limit, offset, orderBy);
-
-        // Execute query - convert parameters to match new repository method
-        Integer driverIdInt = driverId != null ? driverId.intValue() : null;
-        Long vehicleIdLong = vehicleId != null ? Long.valueOf(vehicleId) : null;
-        Long dateFromLong = dateFrom != null ? dateFrom.toEpochSecond(java.time.ZoneOffset.UTC) * 1000 : null;
-        Long dateToLong = dateTo != null ? dateTo.toEpochSecond(java.time.ZoneOffset.UTC) * 1000 : null;
-        
-        Page<VehicleEvent> events = vehicleEventRepository.findEventsWithFilters(
-            driverIdInt, vehicleIdLong, dateFromLong, dateToLong, pageable
+        return new VehicleEventFilter(
+            driverId != null ? driverId.intValue() : null,
+            vehicleId != null ? Long.valueOf(vehicleId) : null,
+            dateFrom != null ? dateFrom.toEpochSecond(java.time.ZoneOffset.UTC) * 1000 : null,
+            dateTo != null ? dateTo.toEpochSecond(java.time.ZoneOffset.UTC) * 1000 : null,
+            null
         );
+    }
+
+    private Page<VehicleEventDto> findOffsetPage(VehicleEventFilter filter, Pageable pageable) {
+        List<VehicleEventDto> content = toDtos(vehicleEventListingRepository.findPage(
+            filter, pageable.getSort(), pageable.getOffset(), pageable.getPageSize()));
+        // Same short-cuts as Spring Data: no COUNT when the page itself shows the total
+        return PageableExecutionUtils.getPage(content, pageable, () -> vehicleEventListingRepository.count(filter));
+    }
+
+    private SlicePageDto<VehicleEventDto> findSlice(VehicleEventFilter filter, Pageable pageable, CountMode countMode) {
+        // One extra row tells whether a next slice exists without a COUNT
+        List<VehicleEvent> rows = vehicleEventListingRepository.findPage(
+            filter, pageable.getSort(), pageable.getOffset(), pageable.getPageSize() + 1);
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<VehicleEventDto> content = toDtos(hasNext ? rows.subList(0, pageable.getPageSize()) : rows);
+
+        SlicePageDto<VehicleEventDto> slice = new SlicePageDto<>(
+            content, pageable.getPageNumber(), pageable.getPageSize(), hasNext);
+        if (countMode == CountMode.ESTIMATE) {
+            slice.setEstimatedTotalElements(vehicleEventCountEstimator.estimate(filter));
+        }
+        return slice;
+    }
+
+    private CursorPageDto<VehicleEventDto> findCursorPage(VehicleEventFilter filter, Integer limit, String cursor) {
+        int pageSize = queryFilterBuilder.resolvePageSize(limit);
+        EventCursor after = cursor == null || cursor.isBlank() ? null : EventCursor.decode(cursor);
+
+        // One extra row tells whether another page exists without a COUNT
+        List<VehicleEvent> rows = vehicleEventListingRepository.findAfter(filter, after, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<VehicleEvent> page = hasMore ? rows.subList(0, pageSize) : rows;
 
-        // Convert to DTOs and filter out nulls
-        return events.map(event -> {
-            VehicleEventDto dto = convertToDto(event);
-            return dto != null ? dto : new VehicleEventDto(); // Return empty DTO instead of null
-        });
+        String nextCursor = hasMore ? EventCursor.after(page.get(page.size() - 1)).encode() : null;
+        return new CursorPageDto<>(toDtos(page), hasMore, nextCursor);
+    }
+
+    private List<VehicleEventDto> toDtos(List<VehicleEvent> events) {
+        return events.stream().map(this::convertToDto).collect(Collectors.toList());
+    }
+
+    /**
+     * Streams every event matching the {@link #findEventsWithFilters} filters to the stream
+     * {@code target} opens, in one cursor query, so memory stays flat however large the
+     * export. The filters are validated before {@code target} is opened, so a bad filter can
+     * still be answered with an error response.
+     *
+     * @return the number of rows written
+     */
+    public long exportEvents(String driverIdStr, String vehicleId, String dateFromStr, String dateToStr,
+                             ExportFormat format, ExportTarget target) throws IOException {
+        VehicleEventFilter filter = parseFilter(driverIdStr, vehicleId, dateFromStr, dateToStr);
+        return resultSetExporter.export("vehicle_events", format, target,
+                (fetchSize, extractor) -> vehicleEventListingRepository.export(filter, fetchSize, extractor));
     }
 
     public long getTelemetryEventsCount(String dateFromStr) {
@@ -74,14 +323,190 @@ public class VehicleEventService {
         return vehicleEventRepository.countEventsSince(dateFromLong);
     }
 
-    public Map<String, Object> getDatabaseStats() {
-        long totalEvents = vehicleEventRepository.count();
-        long highGForceEvents = vehicleEventRepository.countHighGForceEvents();
-        long recentEvents = vehicleEventRepository.countEventsSince(
-            LocalDateTime.now().minusDays(7).toEpochSecond(java.time.ZoneOffset.UTC) * 1000
-        );
+    /**
+     * Per-bucket event count, average/max speed, max g-force and speeding count (speed over
+     * the row's {@code speed_limit_mph}) from {@code date_from} on, aggregated in the
+     * database. Empty buckets are left out.
+     */
+    public List<TelemetryBucketDto> getTelemetryTimeseries(String bucketStr, String dateFromStr, String dateToStr,
+                                                           String driverIdStr, String vehicleId) {
+        TimeBucket bucket = TimeBucket.from(bucketStr);
+        VehicleEventFilter filter = parseTimeseriesFilter(driverIdStr, vehicleId, dateFromStr, dateToStr);
+        long dateTo = filter.getDateTo() != null ? filter.getDateTo() : System.currentTimeMillis();
+        long buckets = (dateTo - filter.getDateFrom()) / bucket.getMillis() + 1;
+        if (buckets > MAX_TIMESERIES_BUCKETS) {
+            throw new IllegalArgumentException("Range spans " + buckets + " " + bucket.getCode() + " buckets, more than "
+                    + MAX_TIMESERIES_BUCKETS + "; use a larger bucket, a narrower range or /telemetry/timeseries/export");
+        }
+        return telemetryTimeseriesRepository.findBuckets(filter, bucket.getMillis());
+    }
+
+    /**
+     * Streams the {@link #getTelemetryTimeseries} buckets in {@code format}, without the
+     * bucket count limit.
+     *
+     * @return the number of buckets written
+     */
+    public long exportTelemetryTimeseries(String bucketStr, String dateFromStr, String dateToStr,
+                                          String driverIdStr, String vehicleId,
+                                          ExportFormat format, ExportTarget target) throws IOException {
+        TimeBucket bucket = TimeBucket.from(bucketStr);
+        VehicleEventFilter filter = parseTimeseriesFilter(driverIdStr, vehicleId, dateFromStr, dateToStr);
+        return resultSetExporter.export("telemetry timeseries", format, target,
+                (fetchSize, extractor) -> telemetryTimeseriesRepository.export(
+                        filter, bucket.getMillis(), fetchSize, extractor));
+    }
+
+    /**
+     * Distinct active drivers and vehicles over the whole UTC days covering
+     * {@code date_from} to {@code date_to} (default now), in total and, with {@code bucket}
+     * {@code 1d} or {@code 1w} (weeks start on Monday), per bucket. Counts come from the
+     * merged daily sketches, within {@link HyperLogLog#RELATIVE_STANDARD_ERROR} of the true
+     * count for one standard error; {@code exact} runs {@code COUNT(DISTINCT)} instead, as
+     * does a server without the sketch table.
+     */
+    public ActiveCountsDto getActiveCounts(String dateFromStr, String dateToStr, String bucketStr, boolean exact) {
+        int[] days = parseDayRange(dateFromStr, dateToStr);
+        int fromDay = days[0];
+        int toDay = days[1];
+        int bucketDays;
+        int offsetDays = 0;
+        if (bucketStr == null || bucketStr.trim().isEmpty()) {
+            bucketDays = 0;
+        } else if ("1d".equalsIgnoreCase(bucketStr.trim())) {
+            bucketDays = 1;
+        } else if ("1w".equalsIgnoreCase(bucketStr.trim())) {
+            bucketDays = 7;
+            offsetDays = MONDAY_EPOCH_DAY;
+        } else {
+            throw new IllegalArgumentException("Unknown bucket '" + bucketStr + "', expected 1d or 1w");
+        }
+
+        ActiveCountsDto counts = new ActiveCountsDto();
+        counts.setRangeStart(fromDay * ActivitySketchRepository.DAY_MILLIS);
+        counts.setRangeEnd((toDay + 1L) * ActivitySketchRepository.DAY_MILLIS);
+        List<ActiveCountBucketDto> buckets = bucketDays > 0 ? new ArrayList<>() : null;
+
+        if (exact || !activitySketchAggregator.isActive()) {
+            long[] total = activitySketchRepository.countDistinct(fromDay, toDay);
+            counts.setExact(true);
+            counts.setActiveDrivers(total[0]);
+            counts.setActiveVehicles(total[1]);
+            if (buckets != null) {
+                new TreeMap<>(activitySketchRepository.countDistinctPerBucket(fromDay, toDay, bucketDays, offsetDays))
+                    .forEach((day, bucket) -> buckets.add(new ActiveCountBucketDto(
+                        day * ActivitySketchRepository.DAY_MILLIS, bucket[0], bucket[1])));
+            }
+        } else {
+            Map<Integer, HyperLogLog> drivers = activitySketchAggregator.findSketches(
+                ActivitySketchRepository.DRIVER, fromDay, toDay);
+            Map<Integer, HyperLogLog> vehicles = activitySketchAggregator.findSketches(
+                ActivitySketchRepository.VEHICLE, fromDay, toDay);
+            counts.setRelativeStandardError(HyperLogLog.RELATIVE_STANDARD_ERROR);
+            counts.setActiveDrivers(mergeSketches(drivers.values()).estimate());
+            counts.setActiveVehicles(mergeSketches(vehicles.values()).estimate());
+            if (buckets != null) {
+                Map<Integer, List<HyperLogLog>> driverBuckets = groupByBucket(drivers, bucketDays, offsetDays);
+                Map<Integer, List<HyperLogLog>> vehicleBuckets = groupByBucket(vehicles, bucketDays, offsetDays);
+                TreeSet<Integer> bucketDaysSeen = new TreeSet<>(driverBuckets.keySet());
+                bucketDaysSeen.addAll(vehicleBuckets.keySet());
+                for (Integer day : bucketDaysSeen) {
+                    buckets.add(new ActiveCountBucketDto(day * ActivitySketchRepository.DAY_MILLIS,
+                        mergeSketches(driverBuckets.getOrDefault(day, List.of())).estimate(),
+                        mergeSketches(vehicleBuckets.getOrDefault(day, List.of())).estimate()));
+                }
+            }
+        }
+        counts.setBuckets(buckets);
+        return counts;
+    }
+
+    /**
+     * Adds the events of the UTC days covering {@code date_from} to {@code date_to} (default
+     * now) to the daily sketches.
+     *
+     * @return the number of distinct (day, driver, vehicle) rows scanned
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long backfillActivitySketches(String dateFromStr, String dateToStr) {
+        int[] days = parseDayRange(dateFromStr, dateToStr);
+        return activitySketchAggregator.backfill(days[0], days[1]);
+    }
+
+    private int[] parseDayRange(String dateFromStr, String dateToStr) {
+        LocalDateTime dateFrom = queryFilterBuilder.parseDateTime(dateFromStr);
+        if (dateFrom == null) {
+            throw new IllegalArgumentException("date_from is required");
+        }
+        LocalDateTime dateTo = queryFilterBuilder.parseDateTime(dateToStr);
+        long fromMillis = dateFrom.toEpochSecond(java.time.ZoneOffset.UTC) * 1000;
+        long toMillis = dateTo != null ? dateTo.toEpochSecond(java.time.ZoneOffset.UTC) * 1000 : System.currentTimeMillis();
+        int fromDay = (int) Math.floorDiv(fromMillis, ActivitySketchRepository.DAY_MILLIS);
+        int toDay = (int) Math.floorDiv(toMillis, ActivitySketchRepository.DAY_MILLIS);
+        if (toDay < fromDay) {
+            throw new IllegalArgumentException("date_to must not be before date_from");
+        }
+        if (toDay - fromDay + 1 > MAX_ACTIVE_COUNT_DAYS) {
+            throw new IllegalArgumentException("Range spans more than " + MAX_ACTIVE_COUNT_DAYS + " days");
+        }
+        return new int[] {fromDay, toDay};
+    }
+
+    private static HyperLogLog mergeSketches(Collection<HyperLogLog> sketches) {
+        HyperLogLog merged = new HyperLogLog();
+        for (HyperLogLog sketch : sketches) {
+            merged.merge(sketch);
+        }
+        return merged;
+    }
+
+    private static Map<Integer, List<HyperLogLog>> groupByBucket(Map<Integer, HyperLogLog> sketches,
+                                                                 int bucketDays, int offsetDays) {
+        Map<Integer, List<HyperLogLog>> grouped = new HashMap<>();
+        sketches.forEach((day, sketch) -> grouped
+            .computeIfAbsent(offsetDays + Math.floorDiv(day - offsetDays, bucketDays) * bucketDays,
+                bucket -> new ArrayList<>())
+            .add(sketch));
+        return grouped;
+    }
+
+    private VehicleEventFilter parseTimeseriesFilter(String driverIdStr, String vehicleId,
+                                                     String dateFromStr, String dateToStr) {
+        VehicleEventFilter filter = parseFilter(driverIdStr, vehicleId, dateFromStr, dateToStr);
+        if (filter.getDateFrom() == null) {
+            throw new IllegalArgumentException("date_from is required");
+        }
+        if (filter.getDateTo() != null && filter.getDateTo() < filter.getDateFrom()) {
+            throw new IllegalArgumentException("date_to must not be before date_from");
+        }
+        return filter;
+    }
 
+    /**
+     * Served from the incrementally maintained {@code event_day_counts} when available, where
+     * {@code events_last_7_days} covers today and the six UTC days before it; otherwise counted
+     * from {@code vehicle_events}.
+     */
+    public Map<String, Object> getDatabaseStats() {
+        long totalEvents;
+        long highGForceEvents;
+        long recentEvents;
         Map<String, Object> stats = new HashMap<>();
+        if (eventCountAggregator.isReady()) {
+            long[] totals = eventCountAggregator.totals(
+                (int) Math.floorDiv(System.currentTimeMillis(), EventDayCountRepository.DAY_MILLIS) - 6);
+            totalEvents = totals[0];
+            highGForceEvents = totals[1];
+            recentEvents = totals[2];
+            putReconciledAt(stats);
+        } else {
+            totalEvents = vehicleEventRepository.count();
+            highGForceEvents = vehicleEventRepository.countHighGForceEvents();
+            recentEvents = vehicleEventRepository.countEventsSince(
+                LocalDateTime.now().minusDays(7).toEpochSecond(java.time.ZoneOffset.UTC) * 1000
+            );
+        }
+
         stats.put("total_events", totalEvents);
         stats.put("high_gforce_events", highGForceEvents);
         stats.put("events_last_7_days", recentEvents);
@@ -90,55 +515,334 @@ public class VehicleEventService {
         return stats;
     }
 
+    /**
+     * Like {@link #getDatabaseStats()}, served from the maintained counters when available;
+     * {@code vehicle_telemetry_data_v2} is then counted by the background reconcile.
+     */
     public Map<String, Object> getTelemetryTableCounts() {
         Map<String, Object> counts = new HashMap<>();
-        
+        if (eventCountAggregator.isReady()) {
+            long vehicleEventsCount = eventCountAggregator.totals(Integer.MAX_VALUE)[0];
+            Long telemetryDataCount = eventCountAggregator.getTelemetryDataV2Count();
+            putTableCounts(counts, vehicleEventsCount, telemetryDataCount);
+            putReconciledAt(counts);
+            return counts;
+        }
+
+        long vehicleEventsCount = vehicleEventRepository.count();
+        Long telemetryDataCount;
         try {
-            // Count vehicle_events table
-            long vehicleEventsCount = vehicleEventRepository.count();
-            counts.put("vehicle_events_count", vehicleEventsCount);
-            
             // Count vehicle_telemetry_data_v2 table using JdbcTemplate
             String sql = "SELECT COUNT(*) FROM vehicle_telemetry_data_v2";
-            Long telemetryDataCount = jdbcTemplate.queryForObject(sql, Long.class);
-            counts.put("vehicle_telemetry_data_v2_count", telemetryDataCount != null ? telemetryDataCount : 0L);
-            
-            // Add total count
-            long totalCount = vehicleEventsCount + (telemetryDataCount != null ? telemetryDataCount : 0L);
-            counts.put("total_telemetry_records", totalCount);
-            
+            telemetryDataCount = jdbcTemplate.queryForObject(sql, Long.class);
         } catch (Exception e) {
-            // If vehicle_telemetry_data_v2 table doesn't exist, just return vehicle_events count
-            long vehicleEventsCount = vehicleEventRepository.count();
-            counts.put("vehicle_events_count", vehicleEventsCount);
-            counts.put("vehicle_telemetry_data_v2_count", 0L);
-            counts.put("total_telemetry_records", vehicleEventsCount);
-            counts.put("note", "vehicle_telemetry_data_v2 table not accessible");
+            telemetryDataCount = null;
         }
-        
+        putTableCounts(counts, vehicleEventsCount, telemetryDataCount);
         return counts;
     }
 
-    public Page<VehicleEventDto> findHighGForceEvents(Integer limit, Integer offset, String orderBy) {
-        Pageable pageable = queryFilterBuilder.buildPageable(limit, offset, orderBy);
-        Page<VehicleEvent> highGForceEvents = vehicleEventRepository.findHighGForceEvents(pageable);
-        
-        return highGForceEvents.map(this::convertToDto);
+    private void putReconciledAt(Map<String, Object> stats) {
+        long reconciledAt = eventCountAggregator.getReconciledAt();
+        // Counters loaded from a populated table are served before this process reconciles them
+        if (reconciledAt > 0) {
+            stats.put("counts_reconciled_at", reconciledAt);
+        }
+    }
+
+    private static void putTableCounts(Map<String, Object> counts, long vehicleEventsCount, Long telemetryDataCount) {
+        counts.put("vehicle_events_count", vehicleEventsCount);
+        if (telemetryDataCount == null) {
+            // vehicle_telemetry_data_v2 is optional; report vehicle_events alone without it
+            counts.put("vehicle_telemetry_data_v2_count", 0L);
+            counts.put("total_telemetry_records", vehicleEventsCount);
+            counts.put("note", "vehicle_telemetry_data_v2 table not accessible");
+        } else {
+            counts.put("vehicle_telemetry_data_v2_count", telemetryDataCount);
+            counts.put("total_telemetry_records", vehicleEventsCount + telemetryDataCount);
+        }
     }
 
+    /**
+     * Inserts the batch through JPA and maps the saved rows back to DTOs. Bypasses the spool;
+     * the ingest endpoints use {@link #insertEvents}.
+     */
     @Transactional
     public List<VehicleEventDto> batchInsertEvents(List<VehicleEventDto> eventDtos) {
         List<VehicleEvent> events = eventDtos.stream()
                 .map(this::convertToEntity)
                 .collect(Collectors.toList());
 
-        List<VehicleEvent> savedEvents = vehicleEventRepository.saveAll(events);
-        
-        return savedEvents.stream()
+        // Entities are persisted in place, so the written list is the saved one
+        vehicleEventWriter.write(events, IngestMode.JPA);
+
+        return events.stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Inserts the batch through the {@code mode} write path without mapping the rows back to
+     * DTOs. When the spool is enabled
+     * and the database is unreachable, or a spooled backlog is still draining, the batch is
+     * appended to the spool instead and replayed later. With {@code parallel} the batch is
+     * sharded by driver and written over several connections at once, see
+     * {@link VehicleEventWriter#writeParallel}.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BatchIngestResultDto insertEvents(List<VehicleEventDto> eventDtos, IngestMode mode, boolean parallel) {
+        List<VehicleEvent> events = eventDtos.stream()
+                .map(this::convertToEntity)
+                .collect(Collectors.toList());
+
+        return writeOrSpool(events, () -> write(events, mode, parallel));
+    }
+
+    /**
+     * Validating variant of {@link #insertEvents}: each row is checked up front and invalid
+     * rows are reported by index and error code instead of failing the batch. Nothing is
+     * mapped back to DTOs. With {@code savepoints} the valid rows are written in one
+     * transaction in chunks of {@code ingestion.partial.chunk-size}, each behind a savepoint,
+     * so a chunk the database rejects rolls back alone and its rows are reported as
+     * {@code WRITE_FAILED}. The checksum covers the rows that were written, see
+     * {@link #batchChecksum}.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BatchIngestResultDto insertValidEvents(List<VehicleEventDto> eventDtos, IngestMode mode,
+                                                  boolean parallel, boolean savepoints) {
+        if (parallel && savepoints) {
+            throw new IllegalArgumentException("Savepoint chunking cannot be combined with parallel ingestion");
+        }
+
+        List<VehicleEvent> events = new ArrayList<>(eventDtos.size());
+        int[] rowIndices = new int[eventDtos.size()];
+        List<RowRejectionDto> rejections = new ArrayList<>();
+        for (int i = 0; i < eventDtos.size(); i++) {
+            RowRejectionDto rejection = vehicleEventValidator.validate(i, eventDtos.get(i));
+            if (rejection != null) {
+                rejections.add(rejection);
+            } else {
+                rowIndices[events.size()] = i;
+                events.add(convertToEntity(eventDtos.get(i)));
+            }
+        }
+
+        BatchIngestResultDto result;
+        List<VehicleEvent> written = events;
+        if (events.isEmpty()) {
+            result = new BatchIngestResultDto(0, 0);
+        } else if (savepoints) {
+            boolean[] failed = new boolean[events.size()];
+            result = writeOrSpool(events, () -> new BatchIngestResultDto(vehicleEventWriter.writeWithSavepoints(
+                    events, mode, ingestionProperties.getPartial().getChunkSize(), (from, to, error) -> {
+                        for (int i = from; i < to; i++) {
+                            failed[i] = true;
+                            rejections.add(new RowRejectionDto(rowIndices[i], VehicleEventValidator.WRITE_FAILED, error.getMessage()));
+                        }
+                    }), 0));
+            written = new ArrayList<>(events.size());
+            for (int i = 0; i < events.size(); i++) {
+                if (!failed[i]) {
+                    written.add(events.get(i));
+                }
+            }
+            rejections.sort(Comparator.comparingInt(RowRejectionDto::getIndex));
+        } else {
+            result = writeOrSpool(events, () -> write(events, mode, parallel));
+        }
+        result.setRejections(rejections);
+        result.setChecksum(batchChecksum(written));
+        return result;
+    }
+
+    /**
+     * Inserts a {@link VehicleEventBinaryCodec#MEDIA_TYPE} batch. Records decode straight into
+     * entities with every column populated, skipping the JSON and DTO layers entirely.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BatchIngestResultDto insertBinaryEvents(byte[] body, IngestMode mode, boolean parallel) {
+        List<VehicleEvent> events = decodeBinaryEvents(body);
+        return writeOrSpool(events, () -> write(events, mode, parallel));
+    }
+
+    private List<VehicleEvent> decodeBinaryEvents(byte[] body) {
+        List<VehicleEvent> events = binaryCodec.decodeBatch(ByteBuffer.wrap(body));
+        for (int i = 0; i < events.size(); i++) {
+            VehicleEvent event = events.get(i);
+            if (event.getPolicyId() == null || event.getVehicleId() == null
+                    || event.getDriverId() == null || event.getEventTime() == null) {
+                throw new IllegalArgumentException("Binary record " + i + " is missing a primary key column "
+                        + "(policy_id, vehicle_id, driver_id, event_time)");
+            }
+        }
+        return events;
+    }
+
+    private BatchIngestResultDto write(List<VehicleEvent> events, IngestMode mode, boolean parallel) {
+        if (parallel) {
+            List<PartitionIngestResultDto> partitions = vehicleEventWriter.writeParallel(events, mode);
+            BatchIngestResultDto result = new BatchIngestResultDto(
+                    partitions.stream().mapToLong(PartitionIngestResultDto::getInsertedCount).sum(), 0);
+            result.setPartitions(partitions);
+            return result;
+        }
+        return new BatchIngestResultDto(vehicleEventWriter.writeAndCommit(events, mode), 0);
+    }
+
+    /**
+     * Runs the write unless the spool says to divert; if the write fails because the database
+     * is unreachable and the spool is enabled, the events are spooled instead.
+     */
+    private BatchIngestResultDto writeOrSpool(List<VehicleEvent> events, Supplier<BatchIngestResultDto> write) {
+        if (ingestionSpool.shouldDivert()) {
+            ingestionSpool.append(events);
+            return new BatchIngestResultDto(0, events.size());
+        }
+        try {
+            return write.get();
+        } catch (RuntimeException e) {
+            if (!ingestionSpool.isEnabled() || !IngestionSpool.isOutage(e)) {
+                throw e;
+            }
+            log.warn("Database unavailable, spooling {} events: {}", events.size(), e.getMessage());
+            ingestionSpool.markUnhealthy();
+            ingestionSpool.append(events);
+            return new BatchIngestResultDto(0, events.size());
+        }
+    }
+
+    /**
+     * Reads newline-delimited JSON events from the stream and commits them in chunks of
+     * {@code ingestion.stream.chunk-size}, so only one chunk is ever held in memory. Chunks
+     * committed before a parse or write failure stay committed and are reported in the result.
+     * Each chunk goes through the spool like a batch, so chunks arriving during an outage or
+     * while a backlog drains are spooled behind it.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public StreamIngestResultDto streamInsertEvents(InputStream body, IngestMode mode) {
+        int chunkSize = Math.max(1, ingestionProperties.getStream().getChunkSize());
+        StreamIngestResultDto result = new StreamIngestResultDto();
+        List<VehicleEvent> chunk = new ArrayList<>(chunkSize);
+
+        try (MappingIterator<VehicleEventDto> iterator = objectMapper.readerFor(VehicleEventDto.class).readValues(body)) {
+            while (iterator.hasNextValue()) {
+                chunk.add(convertToEntity(iterator.nextValue()));
+                if (chunk.size() == chunkSize) {
+                    writeChunk(chunk, mode, result);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk(chunk, mode, result);
+            }
+            result.setComplete(true);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Streaming ingest stopped after {} committed chunks: {}",
+                    result.getChunkCommits().size(), e.getMessage());
+            result.setError(e.getMessage());
+        }
+        return result;
+    }
+
+    private void writeChunk(List<VehicleEvent> chunk, IngestMode mode, StreamIngestResultDto result) {
+        BatchIngestResultDto written = writeOrSpool(chunk,
+                () -> new BatchIngestResultDto(vehicleEventWriter.writeAndCommit(chunk, mode), 0));
+        if (written.isSpooled()) {
+            result.recordSpooled(written.getSpooledCount());
+        } else {
+            result.recordChunk(written.getInsertedCount());
+        }
+    }
+
+    /**
+     * Hands the batch to the group-commit buffer instead of writing it on the request thread.
+     * When {@code waitForCommit} is set the call blocks until the events are durable, or until
+     * {@code ingestion.buffer.wait-timeout-ms} elapses.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public IngestAckDto bufferEvents(List<VehicleEventDto> eventDtos, boolean waitForCommit) {
+        List<VehicleEvent> events = eventDtos.stream()
+                .map(this::convertToEntity)
+                .collect(Collectors.toList());
+        return buffer(events, waitForCommit);
+    }
+
+    /**
+     * Hands a {@link VehicleEventBinaryCodec#MEDIA_TYPE} batch to the group-commit buffer, as
+     * {@link #bufferEvents} does for JSON.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public IngestAckDto bufferBinaryEvents(byte[] body, boolean waitForCommit) {
+        return buffer(decodeBinaryEvents(body), waitForCommit);
+    }
+
+    private IngestAckDto buffer(List<VehicleEvent> events, boolean waitForCommit) {
+        IngestAckDto ack = ingestionBuffer.submit(events);
+        if (waitForCommit) {
+            return ingestionBuffer.await(ack.getAckId(), ingestionProperties.getBuffer().getWaitTimeoutMs());
+        }
+        return ack;
+    }
+
+    public IngestAckDto getIngestAck(String ackId) {
+        return ingestionBuffer.getAck(ackId);
+    }
+
+    /**
+     * Fraction of the group-commit buffer currently holding events waiting to be written.
+     */
+    public double getBufferBacklogRatio() {
+        return (double) ingestionBuffer.getQueuedEvents() / Math.max(1, ingestionProperties.getBuffer().getCapacity());
+    }
+
+    /**
+     * Blocks until the group-commit buffer is at most {@code ratio} full, or {@code timeoutMs}
+     * has passed. Woken by the buffer's writers as they drain it, not by polling.
+     *
+     * @return whether the backlog is now at or below {@code ratio}
+     */
+    public boolean awaitBufferBacklog(double ratio, long timeoutMs) {
+        int events = (int) (ratio * ingestionProperties.getBuffer().getCapacity());
+        return ingestionBuffer.awaitQueuedAtMost(events, timeoutMs);
+    }
+
+    /**
+     * Opens a server-sent-events feed of newly committed events, optionally restricted to one
+     * driver, one vehicle and/or a minimum g-force. Served from memory, no query is run.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SseEmitter subscribeLiveEvents(String driverIdStr, String vehicleIdStr, Double minGForce) {
+        Long driverId = queryFilterBuilder.parseDriverId(driverIdStr);
+        String vehicleId = queryFilterBuilder.sanitizeStringFilter(vehicleIdStr);
+        Long vehicleIdLong = vehicleId != null ? Long.valueOf(vehicleId) : null;
+
+        Predicate<VehicleEvent> filter = event ->
+                (driverId == null || event.getDriverId() != null && event.getDriverId().longValue() == driverId)
+                && (vehicleIdLong == null || vehicleIdLong.equals(event.getVehicleId()))
+                && (minGForce == null || event.getGForce() != null && event.getGForce() >= minGForce);
+        return liveEventBroadcaster.subscribe(filter, this::convertToDto);
+    }
+
+    public IngestMode resolveIngestMode(String requestedMode) {
+        IngestMode mode = IngestMode.from(requestedMode);
+        return mode != null ? mode : ingestionProperties.getMode();
+    }
+
+    /**
+     * CRC-32C over the accepted rows in request order, each contributing its little-endian
+     * {@code vehicle_id} (int64), {@code driver_id} (int32) and {@code event_time} (int64).
+     */
+    static String batchChecksum(List<VehicleEvent> events) {
+        CRC32C crc = new CRC32C();
+        ByteBuffer key = ByteBuffer.allocate(Long.BYTES + Integer.BYTES + Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (VehicleEvent event : events) {
+            key.clear();
+            key.putLong(event.getVehicleId()).putInt(event.getDriverId()).putLong(event.getEventTime());
+            crc.update(key.array(), 0, key.position());
+        }
+        return String.format("%08x", crc.getValue());
+    }
+
     private VehicleEventDto convertToDto(VehicleEvent event) {
         if (event == null) {
             return null; // Skip null events
@@ -176,4 +880,4 @@ public class VehicleEventService {
         event.setPolicyId(1L); // Default policy ID - should be provided by the API
         return event;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,251 @@
+package com.insurancemegacorp.dbserver.service;
+
+import com.insurancemegacorp.dbserver.config.IngestionProperties;
+import com.insurancemegacorp.dbserver.dto.PartitionIngestResultDto;
+import com.insurancemegacorp.dbserver.model.VehicleEvent;
+import com.insurancemegacorp.dbserver.repository.VehicleEventBatchRepository;
+import com.insurancemegacorp.dbserver.repository.VehicleEventCopyRepository;
+import com.insurancemegacorp.dbserver.repository.VehicleEventRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Writes already-converted vehicle events using one of the {@link IngestMode} strategies.
+ * All ingestion paths funnel through here so they share the same write behaviour.
+ */
+@Service
+public class VehicleEventWriter {
+
+    private final VehicleEventRepository vehicleEventRepository;
+    private final VehicleEventBatchRepository vehicleEventBatchRepository;
+    private final VehicleEventCopyRepository vehicleEventCopyRepository;
+    private final IngestionProperties ingestionProperties;
+    private final EntityManager entityManager;
+    private final IngestDeduplicator ingestDeduplicator;
+    private final JdbcTemplate jdbcTemplate;
+    private final IngestEventPublisher ingestEventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    public VehicleEventWriter(VehicleEventRepository vehicleEventRepository,
+                             VehicleEventBatchRepository vehicleEventBatchRepository,
+                             VehicleEventCopyRepository vehicleEventCopyRepository,
+                             IngestionProperties ingestionProperties,
+                             EntityManager entityManager,
+                             IngestDeduplicator ingestDeduplicator,
+                             JdbcTemplate jdbcTemplate,
+                             IngestEventPublisher ingestEventPublisher,
+                             PlatformTransactionManager transactionManager) {
+        this.vehicleEventRepository = vehicleEventRepository;
+        this.vehicleEventBatchRepository = vehicleEventBatchRepository;
+        this.vehicleEventCopyRepository = vehicleEventCopyRepository;
+        this.ingestionProperties = ingestionProperties;
+        this.entityManager = entityManager;
+        this.ingestDeduplicator = ingestDeduplicator;
+        this.jdbcTemplate = jdbcTemplate;
+        this.ingestEventPublisher = ingestEventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Writes the events within the caller's transaction. With the ingest dedupe filter enabled,
+     * JDBC and COPY batches are split first, see {@link #writeDeduplicated}.
+     *
+     * @return the number of rows written
+     */
+    public long write(List<VehicleEvent> events, IngestMode mode) {
+        if (mode != IngestMode.JPA && ingestDeduplicator.isEnabled()) {
+            return writeDeduplicated(events, mode);
+        }
+        return writeDirect(events, mode);
+    }
+
+    private long writeDirect(List<VehicleEvent> events, IngestMode mode) {
+        long written = switch (mode) {
+            case COPY -> vehicleEventCopyRepository.copyIn(events, ingestionProperties.getCopy().getChunkSize());
+            case JDBC -> vehicleEventBatchRepository.insertBatch(events, ingestionProperties.getJdbc().getBatchSize());
+            case JPA -> vehicleEventRepository.saveAll(events).size();
+        };
+        ingestEventPublisher.publishAfterCommit(events);
+        return written;
+    }
+
+    /**
+     * Rows the filter has definitely not seen take the fast path for {@code mode}; probable
+     * duplicates go through {@code ON CONFLICT DO NOTHING}. A "new" row can still collide
+     * with a key older than the filter window, so the fast path runs behind a savepoint and
+     * falls back to the conflict-tolerant insert on a unique violation. Only the rows the
+     * database actually inserted are counted and published to ingest listeners.
+     */
+    private long writeDeduplicated(List<VehicleEvent> events, IngestMode mode) {
+        IngestDeduplicator.Split split = ingestDeduplicator.split(events);
+        int batchSize = ingestionProperties.getJdbc().getBatchSize();
+        long written = 0;
+        if (!split.getFresh().isEmpty()) {
+            Long fresh = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+                Savepoint savepoint = connection.setSavepoint();
+                try {
+                    long inserted = writeDirect(split.getFresh(), mode);
+                    connection.releaseSavepoint(savepoint);
+                    return inserted;
+                } catch (RuntimeException e) {
+                    if (!isUniqueViolation(e)) {
+                        throw e;
+                    }
+                    connection.rollback(savepoint);
+                    return insertIgnoringDuplicates(split.getFresh(), batchSize);
+                }
+            });
+            written += fresh != null ? fresh : 0L;
+        }
+        written += insertIgnoringDuplicates(split.getProbableDuplicates(), batchSize);
+        ingestDeduplicator.recordAfterCommit(events);
+        return written;
+    }
+
+    private long insertIgnoringDuplicates(List<VehicleEvent> events, int batchSize) {
+        List<VehicleEvent> inserted = vehicleEventBatchRepository.insertIgnoringDuplicates(events, batchSize);
+        ingestEventPublisher.publishAfterCommit(inserted);
+        return inserted.size();
+    }
+
+    private static boolean isUniqueViolation(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof DuplicateKeyException
+                    || (t instanceof SQLException sql && "23505".equals(sql.getSQLState()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes the events in a transaction of their own, committing before returning.
+     *
+     * @return the number of rows committed
+     */
+    public long writeAndCommit(List<VehicleEvent> events, IngestMode mode) {
+        Long written = transactionTemplate.execute(status -> write(events, mode));
+        return written != null ? written : 0L;
+    }
+
+    /**
+     * Writes the events in one transaction, {@code chunkSize} rows at a time, each chunk behind
+     * a savepoint. A chunk the database rejects is rolled back to its savepoint and reported
+     * to {@code onFailure} with its {@code [from, to)} range; the other chunks still commit.
+     *
+     * @return the number of rows committed
+     */
+    public long writeWithSavepoints(List<VehicleEvent> events, IngestMode mode, int chunkSize,
+                                    ChunkFailureListener onFailure) {
+        int step = Math.max(1, chunkSize);
+        Long written = transactionTemplate.execute(status -> {
+            long total = 0;
+            for (int from = 0; from < events.size(); from += step) {
+                int to = Math.min(from + step, events.size());
+                Object savepoint = status.createSavepoint();
+                try {
+                    total += writeFlushed(events.subList(from, to), mode);
+                    status.releaseSavepoint(savepoint);
+                } catch (RuntimeException e) {
+                    status.rollbackToSavepoint(savepoint);
+                    onFailure.onFailure(from, to, e);
+                } finally {
+                    if (mode == IngestMode.JPA) {
+                        // Rolled-back entities must not be flushed again by a later chunk
+                        entityManager.clear();
+                    }
+                }
+            }
+            return total;
+        });
+        return written != null ? written : 0L;
+    }
+
+    /**
+     * Splits the events into {@code ingestion.parallel.partitions} partitions by
+     * {@code driver_id} hash and writes them concurrently, one virtual thread and one pooled
+     * connection per partition. Each partition commits on its own, every
+     * {@code ingestion.parallel.commit-size} rows or once at the end when that is 0, so a
+     * failing partition does not roll back the others. Rows of one driver stay in one
+     * partition and keep their relative order.
+     */
+    public List<PartitionIngestResultDto> writeParallel(List<VehicleEvent> events, IngestMode mode) {
+        IngestionProperties.Parallel config = ingestionProperties.getParallel();
+        int partitionCount = Math.max(1, config.getPartitions());
+
+        List<List<VehicleEvent>> partitions = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            partitions.add(new ArrayList<>(events.size() / partitionCount + 1));
+        }
+        for (VehicleEvent event : events) {
+            partitions.get(Math.floorMod(Objects.hashCode(event.getDriverId()), partitionCount)).add(event);
+        }
+
+        List<PartitionIngestResultDto> results = new ArrayList<>(partitionCount);
+        List<Future<?>> futures = new ArrayList<>(partitionCount);
+        try (ExecutorService executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("ingest-partition-", 0).factory())) {
+            for (int i = 0; i < partitionCount; i++) {
+                List<VehicleEvent> partition = partitions.get(i);
+                if (partition.isEmpty()) {
+                    continue;
+                }
+                PartitionIngestResultDto result = new PartitionIngestResultDto(i, partition.size());
+                results.add(result);
+                futures.add(executor.submit(() -> writePartition(partition, mode, config.getCommitSize(), result)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for partition writes", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Partition write failed unexpectedly", e.getCause());
+        }
+        return results;
+    }
+
+    private long writeFlushed(List<VehicleEvent> chunk, IngestMode mode) {
+        if (mode == IngestMode.JPA) {
+            // Flush inside the savepoint so constraint errors surface on this chunk
+            long written = vehicleEventRepository.saveAllAndFlush(chunk).size();
+            ingestEventPublisher.publishAfterCommit(chunk);
+            return written;
+        }
+        return write(chunk, mode);
+    }
+
+    private void writePartition(List<VehicleEvent> partition, IngestMode mode, int commitSize,
+                                PartitionIngestResultDto result) {
+        int step = commitSize > 0 ? commitSize : partition.size();
+        try {
+            for (int from = 0; from < partition.size(); from += step) {
+                List<VehicleEvent> chunk = partition.subList(from, Math.min(from + step, partition.size()));
+                result.recordCommit(writeAndCommit(chunk, mode));
+            }
+        } catch (RuntimeException e) {
+            result.setError(e.getMessage());
+        }
+    }
+
+    @FunctionalInterface
+    public interface ChunkFailureListener {
+        void onFailure(int fromIndex, int toIndex, RuntimeException error);
+    }
+}
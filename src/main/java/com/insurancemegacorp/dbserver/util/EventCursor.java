@@ -0,0 +1,73 @@
+package com.insurancemegacorp.dbserver.util;
+
+import com.insurancemegacorp.dbserver.model.VehicleEvent;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Base64;
+
+/**
+ * Opaque keyset pagination cursor: the {@code (event_time, policy_id, vehicle_id, driver_id)}
+ * key of the last row a client has seen, encoded as URL-safe base64 of a versioned
+ * little-endian record.
+ */
+public final class EventCursor {
+
+    private static final byte VERSION = 1;
+    private static final int ENCODED_BYTES = 1 + Long.BYTES * 3 + Integer.BYTES;
+
+    private final long eventTime;
+    private final long policyId;
+    private final long vehicleId;
+    private final int driverId;
+
+    public EventCursor(long eventTime, long policyId, long vehicleId, int driverId) {
+        this.eventTime = eventTime;
+        this.policyId = policyId;
+        this.vehicleId = vehicleId;
+        this.driverId = driverId;
+    }
+
+    public static EventCursor after(VehicleEvent event) {
+        return new EventCursor(event.getEventTime(), event.getPolicyId(), event.getVehicleId(), event.getDriverId());
+    }
+
+    public String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(ENCODED_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(VERSION).putLong(eventTime).putLong(policyId).putLong(vehicleId).putInt(driverId);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * @throws IllegalArgumentException if the value is not a cursor issued by {@link #encode()}
+     */
+    public static EventCursor decode(String value) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(value.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + value);
+        }
+        if (bytes.length != ENCODED_BYTES || bytes[0] != VERSION) {
+            throw new IllegalArgumentException("Invalid cursor: " + value);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, bytes.length - 1).order(ByteOrder.LITTLE_ENDIAN);
+        return new EventCursor(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getInt());
+    }
+
+    public long getEventTime() {
+        return eventTime;
+    }
+
+    public long getPolicyId() {
+        return policyId;
+    }
+
+    public long getVehicleId() {
+        return vehicleId;
+    }
+
+    public int getDriverId() {
+        return driverId;
+    }
+}
@@ -0,0 +1,95 @@
+package com.insurancemegacorp.dbserver.util;
+
+/**
+ * Latitude/longitude rectangle in degrees, edges inclusive. Boxes crossing the antimeridian
+ * are not supported; {@link #around} clamps at +/-180 instead.
+ */
+public final class GeoBox {
+
+    /** Mean Earth radius in metres, as used for haversine distances. */
+    public static final double EARTH_RADIUS_METERS = 6371008.8;
+
+    private final double minLat;
+    private final double minLon;
+    private final double maxLat;
+    private final double maxLon;
+
+    private GeoBox(double minLat, double minLon, double maxLat, double maxLon) {
+        this.minLat = minLat;
+        this.minLon = minLon;
+        this.maxLat = maxLat;
+        this.maxLon = maxLon;
+    }
+
+    /**
+     * @throws IllegalArgumentException if a corner is off the globe or the box is inverted
+     */
+    public static GeoBox of(double minLat, double minLon, double maxLat, double maxLon) {
+        requireLatitude(minLat);
+        requireLatitude(maxLat);
+        requireLongitude(minLon);
+        requireLongitude(maxLon);
+        if (minLat > maxLat || minLon > maxLon) {
+            throw new IllegalArgumentException("Bounding box minimum must not exceed its maximum");
+        }
+        return new GeoBox(minLat, minLon, maxLat, maxLon);
+    }
+
+    /**
+     * Smallest box containing the circle of {@code radiusMeters} around the point.
+     */
+    public static GeoBox around(double lat, double lon, double radiusMeters) {
+        requireLatitude(lat);
+        requireLongitude(lon);
+        if (!(radiusMeters > 0)) {
+            throw new IllegalArgumentException("Radius must be positive");
+        }
+        double dLat = Math.toDegrees(radiusMeters / EARTH_RADIUS_METERS);
+        double minLat = Math.max(-90, lat - dLat);
+        double maxLat = Math.min(90, lat + dLat);
+        // Longitude degrees shrink towards the poles; past one the circle spans every longitude
+        double cosLat = Math.min(Math.cos(Math.toRadians(minLat)), Math.cos(Math.toRadians(maxLat)));
+        double dLon = cosLat > 0 ? Math.toDegrees(radiusMeters / (EARTH_RADIUS_METERS * cosLat)) : 180;
+        return new GeoBox(minLat, Math.max(-180, lon - dLon), maxLat, Math.min(180, lon + dLon));
+    }
+
+    /**
+     * Great-circle (haversine) distance between two points, the same formula the radius
+     * queries evaluate in SQL.
+     */
+    public static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.pow(Math.sin(dLat / 2), 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.pow(Math.sin(dLon / 2), 2);
+        return EARTH_RADIUS_METERS * 2 * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static void requireLatitude(double lat) {
+        if (!(lat >= -90 && lat <= 90)) {
+            throw new IllegalArgumentException("Latitude must be between -90 and 90: " + lat);
+        }
+    }
+
+    private static void requireLongitude(double lon) {
+        if (!(lon >= -180 && lon <= 180)) {
+            throw new IllegalArgumentException("Longitude must be between -180 and 180: " + lon);
+        }
+    }
+
+    public double getMinLat() {
+        return minLat;
+    }
+
+    public double getMinLon() {
+        return minLon;
+    }
+
+    public double getMaxLat() {
+        return maxLat;
+    }
+
+    public double getMaxLon() {
+        return maxLon;
+    }
+}
@@ -0,0 +1,54 @@
+package com.insurancemegacorp.dbserver.util;
+
+/**
+ * Fixed 0.01-degree grid over latitude/longitude (about 1.1 km north-south). Each event's
+ * cell key is computed by the database at insert as the generated {@code geo_cell} column,
+ * see {@code sql/vehicle_events_geo_cell.sql}; {@link #cellOf} must stay in step with that
+ * expression. Area queries list the cells their box overlaps so an index on
+ * {@code (geo_cell, event_time)} only visits those cells.
+ */
+public final class GeoGrid {
+
+    static final int CELLS_PER_DEGREE = 100;
+    private static final int LAT_CELLS = 180 * CELLS_PER_DEGREE;
+    private static final int LON_CELLS = 360 * CELLS_PER_DEGREE;
+
+    private GeoGrid() {
+    }
+
+    public static long cellOf(double lat, double lon) {
+        return (long) latIndex(lat) * LON_CELLS + lonIndex(lon);
+    }
+
+    /**
+     * Keys of every cell the box overlaps, or null when there are more than
+     * {@code maxCells}; such a box is better served by a range scan than by cell lookups.
+     */
+    public static long[] cellsCovering(GeoBox box, int maxCells) {
+        int minLat = latIndex(box.getMinLat());
+        int maxLat = latIndex(box.getMaxLat());
+        int minLon = lonIndex(box.getMinLon());
+        int maxLon = lonIndex(box.getMaxLon());
+        long count = (long) (maxLat - minLat + 1) * (maxLon - minLon + 1);
+        if (count > maxCells) {
+            return null;
+        }
+        long[] cells = new long[(int) count];
+        int i = 0;
+        for (int lat = minLat; lat <= maxLat; lat++) {
+            for (int lon = minLon; lon <= maxLon; lon++) {
+                cells[i++] = (long) lat * LON_CELLS + lon;
+            }
+        }
+        return cells;
+    }
+
+    // floor((lat + 90) * 100), clamped so +90 falls in the last row, as in the SQL expression
+    private static int latIndex(double lat) {
+        return (int) Math.max(0, Math.min(LAT_CELLS - 1, Math.floor((lat + 90) * CELLS_PER_DEGREE)));
+    }
+
+    private static int lonIndex(double lon) {
+        return (int) Math.max(0, Math.min(LON_CELLS - 1, Math.floor((lon + 180) * CELLS_PER_DEGREE)));
+    }
+}
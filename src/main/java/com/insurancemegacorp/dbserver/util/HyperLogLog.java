@@ -0,0 +1,91 @@
+package com.insurancemegacorp.dbserver.util;
+
+/**
+ * HyperLogLog distinct-value sketch with 2^{@value #PRECISION} one-byte registers. Estimates
+ * have a relative standard error of about {@code 1.04 / sqrt(4096)}, i.e. 1.6%, so roughly
+ * 95% of estimates fall within 3.3% of the true count; small counts use linear counting and
+ * are close to exact. Sketches of the same precision merge losslessly by taking the register
+ * maximum, which makes merging idempotent: adding a value or a sketch twice changes nothing.
+ *
+ * <p>Not thread-safe.
+ */
+public class HyperLogLog {
+
+    public static final int PRECISION = 12;
+    public static final int REGISTER_COUNT = 1 << PRECISION;
+    public static final double RELATIVE_STANDARD_ERROR = 1.04 / Math.sqrt(REGISTER_COUNT);
+
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTER_COUNT);
+
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this.registers = new byte[REGISTER_COUNT];
+    }
+
+    private HyperLogLog(byte[] registers) {
+        this.registers = registers;
+    }
+
+    /**
+     * Restores a sketch written by {@link #toBytes()}.
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length != REGISTER_COUNT) {
+            throw new IllegalArgumentException("Expected " + REGISTER_COUNT + " sketch registers, got "
+                    + (bytes == null ? 0 : bytes.length));
+        }
+        return new HyperLogLog(bytes.clone());
+    }
+
+    public void add(long value) {
+        long hash = SlidingBloomFilter.mix(value ^ 0x9E3779B97F4A7C15L);
+        int index = (int) (hash >>> (64 - PRECISION));
+        // Rank of the first set bit in the remaining 64 - PRECISION bits, capped when they are all zero
+        int rank = Math.min(Long.numberOfLeadingZeros(hash << PRECISION), 64 - PRECISION) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    public void merge(HyperLogLog other) {
+        for (int i = 0; i < REGISTER_COUNT; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double raw = ALPHA * REGISTER_COUNT * REGISTER_COUNT / sum;
+        if (raw <= 2.5 * REGISTER_COUNT && zeros > 0) {
+            return Math.round(REGISTER_COUNT * Math.log((double) REGISTER_COUNT / zeros));
+        }
+        return Math.round(raw);
+    }
+
+    public boolean isEmpty() {
+        for (byte register : registers) {
+            if (register != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public HyperLogLog copy() {
+        return new HyperLogLog(registers.clone());
+    }
+
+    public byte[] toBytes() {
+        return registers.clone();
+    }
+}
@@ -20,7 +20,7 @@ public class QueryFilterBuilder {
 
     public Pageable buildPageable(Integer limit, Integer offset, String orderBy) {
         // Handle pagination
-        int pageSize = (limit != null && limit > 0) ? Math.min(limit, MAX_PAGE_SIZE) : DEFAULT_PAGE_SIZE;
+        int pageSize = resolvePageSize(limit);
         int pageNumber = (offset != null && offset >= 0) ? offset / pageSize : 0;
 
         // Handle sorting
@@ -29,6 +29,19 @@ public class QueryFilterBuilder {
         return PageRequest.of(pageNumber, pageSize, sort);
     }
 
+    public int resolvePageSize(Integer limit) {
+        return (limit != null && limit > 0) ? Math.min(limit, MAX_PAGE_SIZE) : DEFAULT_PAGE_SIZE;
+    }
+
+    /**
+     * Keyset pages are always ordered newest first; any other requested order is rejected.
+     */
+    public void requireEventTimeDescending(String orderBy) {
+        if (!buildSort(orderBy).equals(Sort.by(Sort.Direction.DESC, "eventTime"))) {
+            throw new IllegalArgumentException("Cursor pagination only supports ordering by event_time descending");
+        }
+    }
+
     public Sort buildSort(String orderBy) {
         if (orderBy == null || orderBy.trim().isEmpty()) {
             return Sort.by(Sort.Direction.DESC, "eventTime");
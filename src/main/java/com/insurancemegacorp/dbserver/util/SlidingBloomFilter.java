@@ -0,0 +1,138 @@
+package com.insurancemegacorp.dbserver.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over 64-bit key hashes that forgets old keys by rotating
+ * generations. Keys go into the newest generation; lookups check all of them. Once the newest
+ * generation holds {@code expectedKeysPerGeneration} keys a fresh one is started and the
+ * oldest is dropped, so memory stays fixed and the window covers roughly
+ * {@code generations - 1} to {@code generations} times the per-generation capacity.
+ *
+ * <p>There are no false negatives for keys still inside the window; false positives stay
+ * near {@code falsePositiveRate} per generation.
+ */
+public class SlidingBloomFilter {
+
+    private final long expectedKeysPerGeneration;
+    private final int bitCount;
+    private final int hashCount;
+    private volatile Generation[] generations;
+
+    public SlidingBloomFilter(long expectedKeysPerGeneration, double falsePositiveRate, int generations) {
+        if (expectedKeysPerGeneration <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1 || generations < 1) {
+            throw new IllegalArgumentException("Invalid Bloom filter sizing");
+        }
+        this.expectedKeysPerGeneration = expectedKeysPerGeneration;
+        long bits = (long) Math.ceil(-expectedKeysPerGeneration * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitCount = (int) Math.min(Integer.MAX_VALUE - 63L, Math.max(64, bits));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedKeysPerGeneration * Math.log(2)));
+
+        Generation[] initial = new Generation[generations];
+        for (int i = 0; i < generations; i++) {
+            initial[i] = new Generation(bitCount);
+        }
+        this.generations = initial;
+    }
+
+    public boolean mightContain(long hash) {
+        for (Generation generation : generations) {
+            if (generation.mightContain(hash, bitCount, hashCount)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Records the key and reports whether it was probably seen before.
+     */
+    public boolean put(long hash) {
+        boolean seen = mightContain(hash);
+        if (!seen) {
+            Generation current = generations[0];
+            current.put(hash, bitCount, hashCount);
+            if (current.count.incrementAndGet() >= expectedKeysPerGeneration) {
+                rotate(current);
+            }
+        }
+        return seen;
+    }
+
+    public int getBitCount() {
+        return bitCount;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    private synchronized void rotate(Generation full) {
+        Generation[] current = generations;
+        if (current[0] != full) {
+            return;
+        }
+        Generation[] rotated = new Generation[current.length];
+        rotated[0] = new Generation(bitCount);
+        System.arraycopy(current, 0, rotated, 1, current.length - 1);
+        generations = rotated;
+    }
+
+    /**
+     * Mixes the composite {@code vehicle_events} key into a 64-bit hash.
+     */
+    public static long hashKey(Long policyId, Long vehicleId, Integer driverId, Long eventTime) {
+        long h = 0x9E3779B97F4A7C15L;
+        h = mix(h ^ (policyId != null ? policyId : 0L));
+        h = mix(h ^ (vehicleId != null ? vehicleId : 0L));
+        h = mix(h ^ (driverId != null ? driverId : 0L));
+        h = mix(h ^ (eventTime != null ? eventTime : 0L));
+        return h;
+    }
+
+    // MurmurHash3 64-bit finalizer
+    static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Generation {
+        private final AtomicLongArray words;
+        private final AtomicLong count = new AtomicLong();
+
+        private Generation(int bitCount) {
+            this.words = new AtomicLongArray((bitCount + 63) / 64);
+        }
+
+        private boolean mightContain(long hash, int bitCount, int hashCount) {
+            long h1 = hash;
+            long h2 = mix(hash) | 1;
+            for (int i = 0; i < hashCount; i++) {
+                int bit = (int) Math.floorMod(h1 + i * h2, (long) bitCount);
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void put(long hash, int bitCount, int hashCount) {
+            long h1 = hash;
+            long h2 = mix(hash) | 1;
+            for (int i = 0; i < hashCount; i++) {
+                int bit = (int) Math.floorMod(h1 + i * h2, (long) bitCount);
+                long mask = 1L << bit;
+                int index = bit >>> 6;
+                long word;
+                while (((word = words.get(index)) & mask) == 0 && !words.compareAndSet(index, word, word | mask)) {
+                    // Another writer changed the word; retry
+                }
+            }
+        }
+    }
+}
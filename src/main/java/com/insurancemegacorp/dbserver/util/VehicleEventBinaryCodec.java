@@ -0,0 +1,285 @@
+package com.insurancemegacorp.dbserver.util;
+
+import com.insurancemegacorp.dbserver.model.VehicleEvent;
+import org.springframework.stereotype.Component;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact little-endian encoding of a {@link VehicleEvent} covering every column.
+ *
+ * <p>Each record starts with a 64-bit presence bitmap (bit {@code n} set when field {@code n}
+ * is non-null), followed by the present fields in column order: BIGINT as int64, INTEGER as
+ * int32, REAL as float32, DOUBLE PRECISION as float64, BOOLEAN as one byte and text as a
+ * uint16 byte length followed by UTF-8 bytes. Decoding is a straight sequence of buffer reads
+ * with no reflection.
+ *
+ * <p>Batches sent over HTTP as {@value #MEDIA_TYPE} are framed by a 12-byte header: magic
+ * {@code "IMCV"}, uint16 format version, uint16 reserved (zero) and uint32 record count,
+ * followed by that many records.
+ */
+@Component
+public class VehicleEventBinaryCodec {
+
+    public static final String MEDIA_TYPE = "application/vnd.imc.vehicle-events+binary";
+    public static final int FIELD_COUNT = 33;
+    public static final int BATCH_MAGIC = 0x56434D49; // "IMCV" read little-endian
+    public static final int BATCH_VERSION = 1;
+
+    private static final int BATCH_HEADER_BYTES = 12;
+
+    private static final int MAX_TEXT_BYTES = 0xFFFF;
+
+    /**
+     * Encodes the events into a little-endian byte array, back to back.
+     */
+    public byte[] encodeAll(List<VehicleEvent> events) {
+        int size = 0;
+        for (VehicleEvent event : events) {
+            size += encodedSize(event);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        for (VehicleEvent event : events) {
+            encode(event, buffer);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Decodes {@code count} back-to-back records starting at the buffer's position.
+     */
+    public List<VehicleEvent> decodeAll(ByteBuffer buffer, int count) {
+        ByteBuffer source = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        List<VehicleEvent> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            events.add(decode(source));
+        }
+        return events;
+    }
+
+    /**
+     * Encodes the events as a framed batch, the wire format of {@value #MEDIA_TYPE}.
+     */
+    public byte[] encodeBatch(List<VehicleEvent> events) {
+        byte[] records = encodeAll(events);
+        return ByteBuffer.allocate(BATCH_HEADER_BYTES + records.length)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(BATCH_MAGIC)
+                .putShort((short) BATCH_VERSION)
+                .putShort((short) 0)
+                .putInt(events.size())
+                .put(records)
+                .array();
+    }
+
+    /**
+     * Decodes a framed batch.
+     *
+     * @throws IllegalArgumentException if the header is wrong or the body is truncated
+     */
+    public List<VehicleEvent> decodeBatch(ByteBuffer body) {
+        ByteBuffer buffer = body.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < BATCH_HEADER_BYTES) {
+            throw new IllegalArgumentException("Binary batch is shorter than its header");
+        }
+        if (buffer.getInt() != BATCH_MAGIC) {
+            throw new IllegalArgumentException("Binary batch does not start with the IMCV magic");
+        }
+        int version = Short.toUnsignedInt(buffer.getShort());
+        if (version != BATCH_VERSION) {
+            throw new IllegalArgumentException("Unsupported binary batch version: " + version);
+        }
+        buffer.getShort();
+        long count = Integer.toUnsignedLong(buffer.getInt());
+        // Every record is at least its presence bitmap, which bounds the count before allocating
+        if (count > buffer.remaining() / Long.BYTES) {
+            throw new IllegalArgumentException("Binary batch declares " + count + " records but holds only "
+                    + buffer.remaining() + " bytes");
+        }
+
+        List<VehicleEvent> events;
+        try {
+            events = decodeAll(buffer, (int) count);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Binary batch is truncated");
+        }
+        if (buffer.hasRemaining()) {
+            throw new IllegalArgumentException("Binary batch has " + buffer.remaining() + " trailing bytes");
+        }
+        return events;
+    }
+
+    public int encodedSize(VehicleEvent e) {
+        int size = Long.BYTES;
+        size += sizeOf(e.getPolicyId(), Long.BYTES) + sizeOf(e.getVehicleId(), Long.BYTES)
+                + sizeOf(e.getDriverId(), Integer.BYTES) + sizeOf(e.getEventTime(), Long.BYTES);
+        size += textSize(e.getVin());
+        size += sizeOf(e.getSpeedMph(), Float.BYTES) + sizeOf(e.getSpeedLimitMph(), Float.BYTES);
+        size += textSize(e.getCurrentStreet());
+        size += sizeOf(e.getGForce(), Float.BYTES);
+        size += sizeOf(e.getGpsLatitude(), Double.BYTES) + sizeOf(e.getGpsLongitude(), Double.BYTES)
+                + sizeOf(e.getGpsAltitude(), Double.BYTES);
+        size += sizeOf(e.getGpsSpeed(), Float.BYTES) + sizeOf(e.getGpsBearing(), Float.BYTES)
+                + sizeOf(e.getGpsAccuracy(), Float.BYTES);
+        size += sizeOf(e.getGpsSatelliteCount(), Integer.BYTES) + sizeOf(e.getGpsFixTime(), Integer.BYTES);
+        size += sizeOf(e.getAccelerometerX(), Float.BYTES) + sizeOf(e.getAccelerometerY(), Float.BYTES)
+                + sizeOf(e.getAccelerometerZ(), Float.BYTES);
+        size += sizeOf(e.getGyroscopeX(), Float.BYTES) + sizeOf(e.getGyroscopeY(), Float.BYTES)
+                + sizeOf(e.getGyroscopeZ(), Float.BYTES);
+        size += sizeOf(e.getMagnetometerX(), Float.BYTES) + sizeOf(e.getMagnetometerY(), Float.BYTES)
+                + sizeOf(e.getMagnetometerZ(), Float.BYTES) + sizeOf(e.getMagnetometerHeading(), Float.BYTES);
+        size += sizeOf(e.getBarometricPressure(), Float.BYTES) + sizeOf(e.getDeviceBatteryLevel(), Float.BYTES);
+        size += sizeOf(e.getDeviceSignalStrength(), Integer.BYTES);
+        size += textSize(e.getDeviceOrientation());
+        size += sizeOf(e.getDeviceScreenOn(), 1) + sizeOf(e.getDeviceCharging(), 1);
+        return size;
+    }
+
+    public void encode(VehicleEvent e, ByteBuffer buffer) {
+        int bitmapPosition = buffer.position();
+        buffer.putLong(0L);
+        long bitmap = 0L;
+        int field = 0;
+
+        bitmap |= putLong(buffer, e.getPolicyId(), field++);
+        bitmap |= putLong(buffer, e.getVehicleId(), field++);
+        bitmap |= putInt(buffer, e.getDriverId(), field++);
+        bitmap |= putLong(buffer, e.getEventTime(), field++);
+        bitmap |= putText(buffer, e.getVin(), field++);
+        bitmap |= putFloat(buffer, e.getSpeedMph(), field++);
+        bitmap |= putFloat(buffer, e.getSpeedLimitMph(), field++);
+        bitmap |= putText(buffer, e.getCurrentStreet(), field++);
+        bitmap |= putFloat(buffer, e.getGForce(), field++);
+        bitmap |= putDouble(buffer, e.getGpsLatitude(), field++);
+        bitmap |= putDouble(buffer, e.getGpsLongitude(), field++);
+        bitmap |= putDouble(buffer, e.getGpsAltitude(), field++);
+        bitmap |= putFloat(buffer, e.getGpsSpeed(), field++);
+        bitmap |= putFloat(buffer, e.getGpsBearing(), field++);
+        bitmap |= putFloat(buffer, e.getGpsAccuracy(), field++);
+        bitmap |= putInt(buffer, e.getGpsSatelliteCount(), field++);
+        bitmap |= putInt(buffer, e.getGpsFixTime(), field++);
+        bitmap |= putFloat(buffer, e.getAccelerometerX(), field++);
+        bitmap |= putFloat(buffer, e.getAccelerometerY(), field++);
+        bitmap |= putFloat(buffer, e.getAccelerometerZ(), field++);
+        bitmap |= putFloat(buffer, e.getGyroscopeX(), field++);
+        bitmap |= putFloat(buffer, e.getGyroscopeY(), field++);
+        bitmap |= putFloat(buffer, e.getGyroscopeZ(), field++);
+        bitmap |= putFloat(buffer, e.getMagnetometerX(), field++);
+        bitmap |= putFloat(buffer, e.getMagnetometerY(), field++);
+        bitmap |= putFloat(buffer, e.getMagnetometerZ(), field++);
+        bitmap |= putFloat(buffer, e.getMagnetometerHeading(), field++);
+        bitmap |= putFloat(buffer, e.getBarometricPressure(), field++);
+        bitmap |= putFloat(buffer, e.getDeviceBatteryLevel(), field++);
+        bitmap |= putInt(buffer, e.getDeviceSignalStrength(), field++);
+        bitmap |= putText(buffer, e.getDeviceOrientation(), field++);
+        bitmap |= putBoolean(buffer, e.getDeviceScreenOn(), field++);
+        bitmap |= putBoolean(buffer, e.getDeviceCharging(), field);
+
+        buffer.putLong(bitmapPosition, bitmap);
+    }
+
+    public VehicleEvent decode(ByteBuffer buffer) {
+        long bitmap = buffer.getLong();
+        VehicleEvent e = new VehicleEvent();
+        int field = 0;
+
+        if (present(bitmap, field++)) e.setPolicyId(buffer.getLong());
+        if (present(bitmap, field++)) e.setVehicleId(buffer.getLong());
+        if (present(bitmap, field++)) e.setDriverId(buffer.getInt());
+        if (present(bitmap, field++)) e.setEventTime(buffer.getLong());
+        if (present(bitmap, field++)) e.setVin(getText(buffer));
+        if (present(bitmap, field++)) e.setSpeedMph(buffer.getFloat());
+        if (present(bitmap, field++)) e.setSpeedLimitMph(buffer.getFloat());
+        if (present(bitmap, field++)) e.setCurrentStreet(getText(buffer));
+        if (present(bitmap, field++)) e.setGForce(buffer.getFloat());
+        if (present(bitmap, field++)) e.setGpsLatitude(buffer.getDouble());
+        if (present(bitmap, field++)) e.setGpsLongitude(buffer.getDouble());
+        if (present(bitmap, field++)) e.setGpsAltitude(buffer.getDouble());
+        if (present(bitmap, field++)) e.setGpsSpeed(buffer.getFloat());
+        if (present(bitmap, field++)) e.setGpsBearing(buffer.getFloat());
+        if (present(bitmap, field++)) e.setGpsAccuracy(buffer.getFloat());
+        if (present(bitmap, field++)) e.setGpsSatelliteCount(buffer.getInt());
+        if (present(bitmap, field++)) e.setGpsFixTime(buffer.getInt());
+        if (present(bitmap, field++)) e.setAccelerometerX(buffer.getFloat());
+        if (present(bitmap, field++)) e.setAccelerometerY(buffer.getFloat());
+        if (present(bitmap, field++)) e.setAccelerometerZ(buffer.getFloat());
+        if (present(bitmap, field++)) e.setGyroscopeX(buffer.getFloat());
+        if (present(bitmap, field++)) e.setGyroscopeY(buffer.getFloat());
+        if (present(bitmap, field++)) e.setGyroscopeZ(buffer.getFloat());
+        if (present(bitmap, field++)) e.setMagnetometerX(buffer.getFloat());
+        if (present(bitmap, field++)) e.setMagnetometerY(buffer.getFloat());
+        if (present(bitmap, field++)) e.setMagnetometerZ(buffer.getFloat());
+        if (present(bitmap, field++)) e.setMagnetometerHeading(buffer.getFloat());
+        if (present(bitmap, field++)) e.setBarometricPressure(buffer.getFloat());
+        if (present(bitmap, field++)) e.setDeviceBatteryLevel(buffer.getFloat());
+        if (present(bitmap, field++)) e.setDeviceSignalStrength(buffer.getInt());
+        if (present(bitmap, field++)) e.setDeviceOrientation(getText(buffer));
+        if (present(bitmap, field++)) e.setDeviceScreenOn(buffer.get() != 0);
+        if (present(bitmap, field)) e.setDeviceCharging(buffer.get() != 0);
+
+        return e;
+    }
+
+    private static int sizeOf(Object value, int width) {
+        return value == null ? 0 : width;
+    }
+
+    private static int textSize(String value) {
+        return value == null ? 0 : Short.BYTES + Math.min(MAX_TEXT_BYTES, value.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    private static boolean present(long bitmap, int field) {
+        return (bitmap & (1L << field)) != 0;
+    }
+
+    private static long putLong(ByteBuffer buffer, Long value, int field) {
+        if (value == null) return 0L;
+        buffer.putLong(value);
+        return 1L << field;
+    }
+
+    private static long putInt(ByteBuffer buffer, Integer value, int field) {
+        if (value == null) return 0L;
+        buffer.putInt(value);
+        return 1L << field;
+    }
+
+    private static long putFloat(ByteBuffer buffer, Float value, int field) {
+        if (value == null) return 0L;
+        buffer.putFloat(value);
+        return 1L << field;
+    }
+
+    private static long putDouble(ByteBuffer buffer, Double value, int field) {
+        if (value == null) return 0L;
+        buffer.putDouble(value);
+        return 1L << field;
+    }
+
+    private static long putBoolean(ByteBuffer buffer, Boolean value, int field) {
+        if (value == null) return 0L;
+        buffer.put((byte) (value ? 1 : 0));
+        return 1L << field;
+    }
+
+    private static long putText(ByteBuffer buffer, String value, int field) {
+        if (value == null) return 0L;
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(MAX_TEXT_BYTES, bytes.length);
+        buffer.putShort((short) length);
+        buffer.put(bytes, 0, length);
+        return 1L << field;
+    }
+
+    private static String getText(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,66 @@
+package com.insurancemegacorp.dbserver.util;
+
+import com.insurancemegacorp.dbserver.dto.RowRejectionDto;
+import com.insurancemegacorp.dbserver.dto.VehicleEventDto;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+/**
+ * Up-front checks for batch rows, run before anything is written so one bad row is reported
+ * by index instead of failing the whole batch. Only the first problem of a row is reported.
+ */
+@Component
+public class VehicleEventValidator {
+
+    public static final String NULL_ROW = "NULL_ROW";
+    public static final String MISSING_EVENT_ID = "MISSING_EVENT_ID";
+    public static final String MISSING_DRIVER_ID = "MISSING_DRIVER_ID";
+    public static final String INVALID_DRIVER_ID = "INVALID_DRIVER_ID";
+    public static final String MISSING_VEHICLE_ID = "MISSING_VEHICLE_ID";
+    public static final String INVALID_VEHICLE_ID = "INVALID_VEHICLE_ID";
+    public static final String INVALID_LATITUDE = "INVALID_LATITUDE";
+    public static final String INVALID_LONGITUDE = "INVALID_LONGITUDE";
+    public static final String INVALID_SPEED = "INVALID_SPEED";
+    /** Valid row whose write chunk was rejected by the database. */
+    public static final String WRITE_FAILED = "WRITE_FAILED";
+
+    private static final BigDecimal MAX_LATITUDE = BigDecimal.valueOf(90);
+    private static final BigDecimal MAX_LONGITUDE = BigDecimal.valueOf(180);
+
+    /**
+     * @return the rejection for the row, or null when it can be inserted
+     */
+    public RowRejectionDto validate(int index, VehicleEventDto dto) {
+        if (dto == null) {
+            return new RowRejectionDto(index, NULL_ROW, "Row is null");
+        }
+        if (dto.getEventId() == null) {
+            return new RowRejectionDto(index, MISSING_EVENT_ID, "eventId is required");
+        }
+        if (dto.getDriverId() == null) {
+            return new RowRejectionDto(index, MISSING_DRIVER_ID, "driverId is required");
+        }
+        if (dto.getDriverId() < Integer.MIN_VALUE || dto.getDriverId() > Integer.MAX_VALUE) {
+            return new RowRejectionDto(index, INVALID_DRIVER_ID, "driverId is out of range: " + dto.getDriverId());
+        }
+        if (dto.getVehicleId() == null || dto.getVehicleId().isBlank()) {
+            return new RowRejectionDto(index, MISSING_VEHICLE_ID, "vehicleId is required");
+        }
+        try {
+            Long.parseLong(dto.getVehicleId());
+        } catch (NumberFormatException e) {
+            return new RowRejectionDto(index, INVALID_VEHICLE_ID, "vehicleId is not numeric: " + dto.getVehicleId());
+        }
+        if (dto.getLatitude() != null && dto.getLatitude().abs().compareTo(MAX_LATITUDE) > 0) {
+            return new RowRejectionDto(index, INVALID_LATITUDE, "latitude is out of range: " + dto.getLatitude());
+        }
+        if (dto.getLongitude() != null && dto.getLongitude().abs().compareTo(MAX_LONGITUDE) > 0) {
+            return new RowRejectionDto(index, INVALID_LONGITUDE, "longitude is out of range: " + dto.getLongitude());
+        }
+        if (dto.getSpeedMph() != null && dto.getSpeedMph().signum() < 0) {
+            return new RowRejectionDto(index, INVALID_SPEED, "speedMph is negative: " + dto.getSpeedMph());
+        }
+        return null;
+    }
+}
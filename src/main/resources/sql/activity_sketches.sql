@@ -0,0 +1,13 @@
+-- HyperLogLog sketches of the distinct drivers and vehicles seen per UTC day, maintained on
+-- ingest by ActivitySketchAggregator and merged to answer distinct counts over any range of
+-- days. registers holds the 4096 one-byte registers of util.HyperLogLog; bucket_day is
+-- event_time / 86400000.
+
+CREATE TABLE IF NOT EXISTS activity_sketches (
+    dimension   VARCHAR(16) NOT NULL,  -- 'driver' or 'vehicle'
+    bucket_day  INTEGER     NOT NULL,
+    registers   BYTEA       NOT NULL,
+    updated_at  TIMESTAMP   NOT NULL DEFAULT now(),
+    PRIMARY KEY (dimension, bucket_day)
+);
+-- On Greenplum append: DISTRIBUTED BY (bucket_day);
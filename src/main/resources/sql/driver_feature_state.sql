@@ -0,0 +1,18 @@
+-- Incremental per-driver feature state, maintained on ingest by DriverFeatureAggregator
+-- and read by the ML recalculation instead of re-aggregating all of vehicle_events.
+-- speed_mean / speed_m2 hold Welford running mean and sum of squared deviations of
+-- speed_mph; the sample standard deviation is sqrt(speed_m2 / (speed_count - 1)).
+
+CREATE TABLE IF NOT EXISTS driver_feature_state (
+    driver_id             INTEGER PRIMARY KEY,
+    event_count           BIGINT           NOT NULL DEFAULT 0,
+    speed_count           BIGINT           NOT NULL DEFAULT 0,
+    speed_compliance_sum  DOUBLE PRECISION NOT NULL DEFAULT 0,
+    harsh_event_count     BIGINT           NOT NULL DEFAULT 0,
+    g_force_count         BIGINT           NOT NULL DEFAULT 0,
+    g_force_sum           DOUBLE PRECISION NOT NULL DEFAULT 0,
+    speed_mean            DOUBLE PRECISION NOT NULL DEFAULT 0,
+    speed_m2              DOUBLE PRECISION NOT NULL DEFAULT 0,
+    updated_at            TIMESTAMP        NOT NULL DEFAULT now()
+);
+-- On Greenplum append: DISTRIBUTED BY (driver_id);
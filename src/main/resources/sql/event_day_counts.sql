@@ -0,0 +1,12 @@
+-- Per-UTC-day row counts of vehicle_events, maintained on ingest by EventCountAggregator
+-- and recomputed from vehicle_events every ingestion.stats.reconcile-interval-ms, so
+-- /database/stats and /telemetry/table-counts read a few hundred rows instead of scanning.
+-- bucket_day is event_time / 86400000; high g-force means g_force > 2.0.
+
+CREATE TABLE IF NOT EXISTS event_day_counts (
+    bucket_day          INTEGER   PRIMARY KEY,
+    event_count         BIGINT    NOT NULL DEFAULT 0,
+    high_g_force_count  BIGINT    NOT NULL DEFAULT 0,
+    updated_at          TIMESTAMP NOT NULL DEFAULT now()
+);
+-- On Greenplum append: DISTRIBUTED BY (bucket_day);
@@ -0,0 +1,16 @@
+-- Recommended indexes for the vehicle event listing filter shapes
+-- (VehicleEventListingRepository). Each shape only carries the predicates that were
+-- supplied, so the planner can match them to these indexes; all listings order by
+-- event_time DESC, so every index ends in it and a LIMIT stops after the first rows.
+--
+-- Unfiltered and date-range-only listings, and g_force > 2.0 (scanned newest first and
+-- filtered), use idx_vehicle_events_keyset from vehicle_events_keyset_index.sql.
+
+-- driver_id, optionally with date_from / date_to; driver_id + vehicle_id filters the
+-- driver's rows by vehicle
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_vehicle_events_driver_time
+    ON vehicle_events (driver_id, event_time DESC);
+
+-- vehicle_id, optionally with date_from / date_to
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_vehicle_events_vehicle_time
+    ON vehicle_events (vehicle_id, event_time DESC);
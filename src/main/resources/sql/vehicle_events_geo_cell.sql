@@ -0,0 +1,12 @@
+-- Grid cell key for area queries (GeoGrid): 0.01-degree cells, row-major from (-90, -180).
+-- Generated by the database on every insert, whichever ingest path wrote the row; the
+-- expression must match GeoGrid.cellOf. Adding a stored generated column rewrites the
+-- table, so run this in a maintenance window on a large vehicle_events.
+ALTER TABLE vehicle_events ADD COLUMN IF NOT EXISTS geo_cell BIGINT GENERATED ALWAYS AS (
+    GREATEST(0, LEAST(17999, floor((gps_latitude + 90) * 100)))::bigint * 36000
+        + GREATEST(0, LEAST(35999, floor((gps_longitude + 180) * 100)))::bigint
+) STORED;
+
+-- Area queries list the cells their box overlaps and want the newest events first
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_vehicle_events_geo_cell_time
+    ON vehicle_events (geo_cell, event_time DESC);
@@ -0,0 +1,8 @@
+-- Backs keyset pagination (VehicleEventListingRepository.findAfter): rows are read in
+-- (event_time, policy_id, vehicle_id, driver_id) DESC order starting right after the cursor key.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_vehicle_events_keyset
+    ON vehicle_events (event_time DESC, policy_id DESC, vehicle_id DESC, driver_id DESC);
+
+-- Per-driver pages seek within one driver's events instead of filtering the global order.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_vehicle_events_driver_keyset
+    ON vehicle_events (driver_id, event_time DESC, policy_id DESC, vehicle_id DESC);
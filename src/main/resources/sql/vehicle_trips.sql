@@ -0,0 +1,27 @@
+-- Trip summaries segmented from vehicle_events by TripAggregator, one row per trip, keyed by
+-- vehicle and start time. Open trips (is_open) are still being extended by ingest; times are
+-- epoch milliseconds like vehicle_events.event_time.
+
+CREATE TABLE IF NOT EXISTS vehicle_trips (
+    trip_id           BIGSERIAL        PRIMARY KEY,
+    vehicle_id        BIGINT           NOT NULL,
+    driver_id         INTEGER,
+    start_time        BIGINT           NOT NULL,
+    end_time          BIGINT           NOT NULL,
+    start_latitude    DOUBLE PRECISION,
+    start_longitude   DOUBLE PRECISION,
+    end_latitude      DOUBLE PRECISION,
+    end_longitude     DOUBLE PRECISION,
+    distance_meters   DOUBLE PRECISION NOT NULL DEFAULT 0,
+    max_speed_mph     REAL,
+    max_g_force       REAL,
+    speeding_seconds  DOUBLE PRECISION NOT NULL DEFAULT 0,
+    event_count       INTEGER          NOT NULL DEFAULT 0,
+    is_open           BOOLEAN          NOT NULL DEFAULT true,
+    updated_at        TIMESTAMP        NOT NULL DEFAULT now(),
+    UNIQUE (vehicle_id, start_time)
+);
+
+CREATE INDEX IF NOT EXISTS idx_vehicle_trips_driver_start ON vehicle_trips (driver_id, start_time DESC);
+CREATE INDEX IF NOT EXISTS idx_vehicle_trips_start ON vehicle_trips (start_time DESC);
+CREATE INDEX IF NOT EXISTS idx_vehicle_trips_open ON vehicle_trips (vehicle_id) WHERE is_open;
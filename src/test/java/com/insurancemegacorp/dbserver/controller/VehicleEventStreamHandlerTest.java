@@ -0,0 +1,158 @@
+package com.insurancemegacorp.dbserver.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurancemegacorp.dbserver.config.DatabaseInstanceManager;
+import com.insurancemegacorp.dbserver.config.IngestionProperties;
+import com.insurancemegacorp.dbserver.dto.IngestAckDto;
+import com.insurancemegacorp.dbserver.service.IngestMode;
+import com.insurancemegacorp.dbserver.service.VehicleEventService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VehicleEventStreamHandlerTest {
+
+    @Mock
+    private VehicleEventService vehicleEventService;
+
+    @Mock
+    private DatabaseInstanceManager databaseInstanceManager;
+
+    @Mock
+    private WebSocketSession session;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private IngestionProperties properties;
+    private VehicleEventStreamHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        properties = new IngestionProperties();
+        handler = new VehicleEventStreamHandler(vehicleEventService, databaseInstanceManager, properties, objectMapper);
+    }
+
+    @Test
+    void testHandleBinaryMessage_BufferedSessionQueuesFrameForGroupCommit() throws Exception {
+        // Given
+        Map<String, Object> attributes = handshake("/api/local/vehicle-events/stream?buffered=true");
+        when(session.getAttributes()).thenReturn(attributes);
+        IngestAckDto ack = new IngestAckDto("ack-1", "PENDING", 3);
+        when(vehicleEventService.bufferBinaryEvents(any(byte[].class), eq(false))).thenReturn(ack);
+        byte[] body = {1, 2, 3};
+
+        // When
+        handler.handleMessage(session, new BinaryMessage(body));
+
+        // Then - waits on the backlog first, and never writes on the socket thread
+        InOrder inOrder = inOrder(vehicleEventService);
+        inOrder.verify(vehicleEventService).awaitBufferBacklog(0.8, 5000);
+        inOrder.verify(vehicleEventService).bufferBinaryEvents(body, false);
+        verify(vehicleEventService, never()).insertBinaryEvents(any(), any(), anyBoolean());
+        Map<?, ?> reply = lastReply();
+        assertEquals("ack", reply.get("type"));
+        assertEquals("ack-1", reply.get("ack_id"));
+        assertEquals(1, reply.get("seq"));
+    }
+
+    @Test
+    void testHandleTextMessage_BufferedSessionQueuesFrameForGroupCommit() throws Exception {
+        // Given
+        Map<String, Object> attributes = handshake("/api/local/vehicle-events/stream?buffered=true");
+        when(session.getAttributes()).thenReturn(attributes);
+        when(vehicleEventService.bufferEvents(anyList(), eq(false))).thenReturn(new IngestAckDto("ack-2", "PENDING", 1));
+
+        // When
+        handler.handleMessage(session, new TextMessage("[{}]"));
+
+        // Then
+        verify(vehicleEventService).awaitBufferBacklog(anyDouble(), anyLong());
+        verify(vehicleEventService, never()).insertEvents(any(), any(), anyBoolean());
+        assertEquals("ack-2", lastReply().get("ack_id"));
+    }
+
+    @Test
+    void testBeforeHandshake_RefusesEveryoneWithoutTokensUnlessAnonymousIsAllowed() throws Exception {
+        // Given - no device tokens configured
+        when(databaseInstanceManager.isInstanceAvailable("local")).thenReturn(true);
+
+        // When / Then
+        MockHttpServletResponse refused = new MockHttpServletResponse();
+        assertFalse(beforeHandshake("/api/local/vehicle-events/stream", null, refused));
+        assertEquals(HttpStatus.UNAUTHORIZED.value(), refused.getStatus());
+
+        properties.getSocket().setAllowAnonymous(true);
+        assertTrue(beforeHandshake("/api/local/vehicle-events/stream", null, new MockHttpServletResponse()));
+    }
+
+    @Test
+    void testBeforeHandshake_RequiresConfiguredToken() throws Exception {
+        // Given
+        properties.getSocket().setDeviceTokens(List.of("device-secret"));
+        when(databaseInstanceManager.isInstanceAvailable("local")).thenReturn(true);
+
+        // When / Then
+        MockHttpServletResponse refused = new MockHttpServletResponse();
+        assertFalse(beforeHandshake("/api/local/vehicle-events/stream", "Bearer wrong", refused));
+        assertEquals(HttpStatus.UNAUTHORIZED.value(), refused.getStatus());
+        assertTrue(beforeHandshake("/api/local/vehicle-events/stream", "Bearer device-secret", new MockHttpServletResponse()));
+    }
+
+    private Map<String, Object> handshake(String uri) throws Exception {
+        properties.getSocket().setAllowAnonymous(true);
+        when(databaseInstanceManager.isInstanceAvailable("local")).thenReturn(true);
+        when(vehicleEventService.resolveIngestMode(any())).thenReturn(IngestMode.JDBC);
+        Map<String, Object> attributes = new HashMap<>();
+        assertTrue(beforeHandshake(uri, null, new MockHttpServletResponse(), attributes));
+        return attributes;
+    }
+
+    private boolean beforeHandshake(String uri, String authorization, MockHttpServletResponse response) throws Exception {
+        return beforeHandshake(uri, authorization, response, new HashMap<>());
+    }
+
+    private boolean beforeHandshake(String uri, String authorization, MockHttpServletResponse response,
+                                    Map<String, Object> attributes) throws Exception {
+        String[] pathAndQuery = uri.split("\\?", 2);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", pathAndQuery[0]);
+        if (pathAndQuery.length > 1) {
+            request.setQueryString(pathAndQuery[1]);
+        }
+        if (authorization != null) {
+            request.addHeader("Authorization", authorization);
+        }
+        ServletServerHttpResponse serverResponse = new ServletServerHttpResponse(response);
+        boolean accepted = handler.beforeHandshake(new ServletServerHttpRequest(request), serverResponse, handler, attributes);
+        serverResponse.flush();
+        return accepted;
+    }
+
+    private Map<?, ?> lastReply() throws Exception {
+        ArgumentCaptor<TextMessage> sent = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session, atLeastOnce()).sendMessage(sent.capture());
+        return objectMapper.readValue(sent.getValue().getPayload(), Map.class);
+    }
+}
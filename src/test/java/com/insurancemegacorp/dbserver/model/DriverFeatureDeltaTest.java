@@ -0,0 +1,69 @@
+package com.insurancemegacorp.dbserver.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DriverFeatureDeltaTest {
+
+    private static final float[] SPEEDS = {30f, 45f, 60f, 70f, 80f, 55f, 65f};
+
+    @Test
+    void testMerge_MatchesSinglePassAggregation() {
+        // Given
+        DriverFeatureDelta whole = new DriverFeatureDelta();
+        DriverFeatureDelta first = new DriverFeatureDelta();
+        DriverFeatureDelta second = new DriverFeatureDelta();
+        for (int i = 0; i < SPEEDS.length; i++) {
+            VehicleEvent event = event(SPEEDS[i], i % 2 == 0 ? 0.6f : 0.1f);
+            whole.add(event);
+            (i < 3 ? first : second).add(event);
+        }
+
+        // When
+        first.merge(second);
+
+        // Then
+        assertEquals(whole.getEventCount(), first.getEventCount());
+        assertEquals(whole.getHarshEventCount(), first.getHarshEventCount());
+        assertEquals(whole.getSpeedComplianceSum(), first.getSpeedComplianceSum(), 1e-9);
+        assertEquals(whole.getGForceSum(), first.getGForceSum(), 1e-9);
+        assertEquals(whole.getSpeedMean(), first.getSpeedMean(), 1e-9);
+        assertEquals(whole.getSpeedM2(), first.getSpeedM2(), 1e-6);
+    }
+
+    @Test
+    void testAdd_ComputesSampleVarianceState() {
+        // Given
+        DriverFeatureDelta delta = new DriverFeatureDelta();
+
+        // When
+        for (float speed : SPEEDS) {
+            delta.add(event(speed, 0f));
+        }
+
+        // Then
+        double mean = 0;
+        for (float speed : SPEEDS) {
+            mean += speed;
+        }
+        mean /= SPEEDS.length;
+        double m2 = 0;
+        for (float speed : SPEEDS) {
+            m2 += (speed - mean) * (speed - mean);
+        }
+        assertEquals(mean, delta.getSpeedMean(), 1e-9);
+        assertEquals(m2, delta.getSpeedM2(), 1e-6);
+        assertEquals(5 * 100.0 + 65.0 / 70 * 100 + 65.0 / 80 * 100, delta.getSpeedComplianceSum(), 1e-4);
+    }
+
+    private VehicleEvent event(float speed, float accelerometerX) {
+        VehicleEvent event = new VehicleEvent();
+        event.setDriverId(400001);
+        event.setSpeedMph(speed);
+        event.setAccelerometerX(accelerometerX);
+        event.setAccelerometerY(0f);
+        event.setAccelerometerZ(1f);
+        return event;
+    }
+}
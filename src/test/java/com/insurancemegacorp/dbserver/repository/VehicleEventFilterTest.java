@@ -0,0 +1,46 @@
+package com.insurancemegacorp.dbserver.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VehicleEventFilterTest {
+
+    @Test
+    void testOnlySuppliedPredicatesAreEmitted() {
+        // Given
+        VehicleEventFilter filter = new VehicleEventFilter(400001, null, 1700000000000L, null, null);
+
+        // When
+        Map<String, Object> params = new LinkedHashMap<>();
+        filter.bindNamed(params);
+        List<Object> args = new ArrayList<>();
+        filter.bindPositional(args);
+
+        // Then
+        assertEquals(" AND driver_id = :driverId AND event_time >= :dateFrom", filter.namedPredicates());
+        assertEquals(" AND driver_id = ? AND event_time >= ?", filter.positionalPredicates());
+        assertEquals(Map.of("driverId", 400001, "dateFrom", 1700000000000L), params);
+        assertEquals(List.of(400001, 1700000000000L), args);
+        assertEquals("", VehicleEventFilter.none().namedPredicates());
+        assertTrue(VehicleEventFilter.none().isEmpty());
+    }
+
+    @Test
+    void testSameShapeSharesStatementText() {
+        // Given
+        VehicleEventFilter first = new VehicleEventFilter(400001, 200001L, null, null, null);
+        VehicleEventFilter second = new VehicleEventFilter(400002, 200002L, null, null, null);
+        VehicleEventFilter other = new VehicleEventFilter(400001, null, null, null, null);
+
+        // Then
+        assertEquals(first.shape(), second.shape());
+        assertSame(first.namedPredicates(), second.namedPredicates());
+        assertNotEquals(first.shape(), other.shape());
+    }
+}
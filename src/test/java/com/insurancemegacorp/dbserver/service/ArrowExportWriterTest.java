@@ -0,0 +1,68 @@
+package com.insurancemegacorp.dbserver.service;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Types;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ArrowExportWriterTest {
+
+    @Test
+    void testWritesTypedColumnsInBatches() throws Exception {
+        // Given
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(metaData.getColumnCount()).thenReturn(3);
+        when(metaData.getColumnLabel(1)).thenReturn("event_time");
+        when(metaData.getColumnType(1)).thenReturn(Types.BIGINT);
+        when(metaData.getColumnLabel(2)).thenReturn("g_force");
+        when(metaData.getColumnType(2)).thenReturn(Types.REAL);
+        when(metaData.getColumnLabel(3)).thenReturn("vin");
+        when(metaData.getColumnType(3)).thenReturn(Types.VARCHAR);
+
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getMetaData()).thenReturn(metaData);
+        when(rs.next()).thenReturn(true, true, true, false);
+        when(rs.getLong(1)).thenReturn(1700000000000L, 1700000000001L, 1700000000002L);
+        when(rs.getFloat(2)).thenReturn(0.5f, 0f, 2.5f);
+        when(rs.getString(3)).thenReturn("VIN1", null, "VIN3");
+        // Per row: event_time, g_force, vin; the second row's g_force and vin are NULL
+        when(rs.wasNull()).thenReturn(false, false, false, false, true, true, false, false, false);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (BufferAllocator allocator = new RootAllocator()) {
+            // When
+            long rows = new ArrowExportWriter(allocator, out, 2).extractData(rs);
+
+            // Then
+            assertEquals(3, rows);
+            try (ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(out.toByteArray()), allocator)) {
+                VectorSchemaRoot root = reader.getVectorSchemaRoot();
+                assertTrue(reader.loadNextBatch());
+                assertEquals(2, root.getRowCount());
+                assertEquals(1700000000001L, ((BigIntVector) root.getVector("event_time")).get(1));
+                assertEquals(0.5f, ((Float4Vector) root.getVector("g_force")).get(0));
+                assertTrue(root.getVector("g_force").isNull(1));
+                assertTrue(root.getVector("vin").isNull(1));
+
+                assertTrue(reader.loadNextBatch());
+                assertEquals(1, root.getRowCount());
+                assertEquals("VIN3", new String(((VarCharVector) root.getVector("vin")).get(0)));
+                assertFalse(reader.loadNextBatch());
+            }
+        }
+    }
+}
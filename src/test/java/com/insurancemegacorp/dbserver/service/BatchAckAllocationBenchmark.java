@@ -0,0 +1,117 @@
+package com.insurancemegacorp.dbserver.service;
+
+import com.insurancemegacorp.dbserver.config.IngestionProperties;
+import com.insurancemegacorp.dbserver.dto.BatchIngestResultDto;
+import com.insurancemegacorp.dbserver.dto.VehicleEventDto;
+import com.insurancemegacorp.dbserver.model.VehicleEvent;
+import com.insurancemegacorp.dbserver.repository.VehicleEventRepository;
+import com.insurancemegacorp.dbserver.util.VehicleEventValidator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Allocation per 10k-event batch for the full DTO response versus {@code ack_only}. Not part
+ * of the regular test run; execute with {@code mvn test -Dtest=BatchAckAllocationBenchmark}.
+ * The repository and writer are mocked so only the service-side mapping is measured.
+ */
+@ExtendWith(MockitoExtension.class)
+class BatchAckAllocationBenchmark {
+
+    private static final int BATCH_SIZE = 10_000;
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int MEASURED_ITERATIONS = 50;
+
+    @Mock
+    private VehicleEventRepository vehicleEventRepository;
+
+    @Mock
+    private VehicleEventWriter vehicleEventWriter;
+
+    @Mock
+    private IngestionSpool ingestionSpool;
+
+    @Spy
+    private IngestionProperties ingestionProperties = new IngestionProperties();
+
+    @Spy
+    private VehicleEventValidator vehicleEventValidator = new VehicleEventValidator();
+
+    @InjectMocks
+    private VehicleEventService vehicleEventService;
+
+    @Test
+    void compareAllocationPerBatch() {
+        // Given
+        List<VehicleEventDto> batch = batch();
+        when(vehicleEventWriter.write(anyList(), eq(IngestMode.JPA)))
+            .thenAnswer(invocation -> (long) ((List<VehicleEvent>) invocation.getArgument(0)).size());
+        when(vehicleEventWriter.writeAndCommit(anyList(), eq(IngestMode.JPA)))
+            .thenAnswer(invocation -> (long) ((List<VehicleEvent>) invocation.getArgument(0)).size());
+
+        // When
+        long fullBytes = allocatedPerBatch(() -> vehicleEventService.batchInsertEvents(batch).size());
+        long ackBytes = allocatedPerBatch(() -> {
+            BatchIngestResultDto result = vehicleEventService.insertValidEvents(batch, IngestMode.JPA, false, false);
+            return (int) result.getInsertedCount();
+        });
+
+        // Then
+        System.out.printf("Full DTO response: %,d bytes/batch (%,d bytes/event)%n", fullBytes, fullBytes / BATCH_SIZE);
+        System.out.printf("Ack-only response: %,d bytes/batch (%,d bytes/event)%n", ackBytes, ackBytes / BATCH_SIZE);
+        System.out.printf("Saved: %,d bytes/batch (%.0f%%)%n", fullBytes - ackBytes, 100.0 * (fullBytes - ackBytes) / fullBytes);
+        assertTrue(ackBytes < fullBytes);
+    }
+
+    private long allocatedPerBatch(BatchRun run) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        int sink = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink += run.insert();
+        }
+        clearInvocations(vehicleEventRepository, vehicleEventWriter);
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sink += run.insert();
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        assertEquals((WARMUP_ITERATIONS + MEASURED_ITERATIONS) * BATCH_SIZE, sink);
+        return allocated / MEASURED_ITERATIONS;
+    }
+
+    private List<VehicleEventDto> batch() {
+        List<VehicleEventDto> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            VehicleEventDto dto = new VehicleEventDto();
+            dto.setEventId(1700000000000L + i);
+            dto.setDriverId(400001L + i % 50);
+            dto.setVehicleId(String.valueOf(200001 + i % 50));
+            dto.setLatitude(new BigDecimal("33.7490"));
+            dto.setLongitude(new BigDecimal("-84.3880"));
+            dto.setSpeedMph(new BigDecimal("42.5"));
+            dto.setGforce(new BigDecimal("0.4"));
+            batch.add(dto);
+        }
+        return batch;
+    }
+
+    @FunctionalInterface
+    private interface BatchRun {
+        int insert();
+    }
+}
@@ -0,0 +1,118 @@
+package com.insurancemegacorp.dbserver.service;
+
+import com.insurancemegacorp.dbserver.config.IngestionProperties;
+import com.insurancemegacorp.dbserver.model.VehicleEvent;
+import com.insurancemegacorp.dbserver.repository.DriverFeatureStateRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DriverFeatureAggregatorTest {
+
+    @Mock
+    private DriverFeatureStateRepository driverFeatureStateRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private DriverFeatureAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        IngestionProperties properties = new IngestionProperties();
+        properties.getFeatures().setFlushIntervalMs(100);
+        aggregator = new DriverFeatureAggregator(driverFeatureStateRepository, properties, transactionManager,
+                new SimpleMeterRegistry());
+        when(driverFeatureStateRepository.tableExists()).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        aggregator.stop();
+    }
+
+    @Test
+    void testStart_SeedsEmptyTableInOneTransaction() throws InterruptedException {
+        // Given
+        when(driverFeatureStateRepository.isEmpty()).thenReturn(true);
+        when(driverFeatureStateRepository.seed()).thenReturn(42);
+
+        // When
+        aggregator.start();
+
+        // Then - not usable until the seed has run, then seeded exactly once
+        assertFalse(aggregator.isActive());
+        verify(driverFeatureStateRepository, timeout(5000)).seed();
+        awaitActive();
+        InOrder inOrder = inOrder(transactionManager, driverFeatureStateRepository);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(driverFeatureStateRepository).truncate();
+        inOrder.verify(driverFeatureStateRepository).seed();
+        inOrder.verify(transactionManager).commit(any());
+        verify(driverFeatureStateRepository, times(1)).isEmpty();
+    }
+
+    @Test
+    void testStart_PopulatedTableIsActiveAndMergesDeltas() {
+        // Given
+        when(driverFeatureStateRepository.isEmpty()).thenReturn(false);
+        aggregator.start();
+
+        // When
+        aggregator.onEventsCommitted(List.of(event(400001), event(400002)));
+        aggregator.flush();
+
+        // Then
+        assertTrue(aggregator.isActive());
+        verify(driverFeatureStateRepository).merge(argThat(batch -> batch.keySet().equals(Set.of(400001, 400002))));
+        verify(driverFeatureStateRepository, never()).seed();
+    }
+
+    @Test
+    void testStop_DoesNotMergeDeltasIntoUnseededTable() throws InterruptedException {
+        // Given - the seed keeps failing
+        when(driverFeatureStateRepository.isEmpty()).thenReturn(true);
+        when(driverFeatureStateRepository.seed()).thenThrow(new QueryTimeoutException("canceling statement due to statement timeout"));
+        aggregator.start();
+        aggregator.onEventsCommitted(List.of(event(400001)));
+        verify(driverFeatureStateRepository, timeout(5000)).seed();
+
+        // When
+        aggregator.stop();
+
+        // Then
+        assertFalse(aggregator.isActive());
+        verify(driverFeatureStateRepository, never()).merge(anyMap());
+    }
+
+    private void awaitActive() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!aggregator.isActive()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the seed");
+            Thread.sleep(10);
+        }
+    }
+
+    private static VehicleEvent event(int driverId) {
+        VehicleEvent event = new VehicleEvent();
+        event.setDriverId(driverId);
+        event.setSpeedMph(30f);
+        return event;
+    }
+}
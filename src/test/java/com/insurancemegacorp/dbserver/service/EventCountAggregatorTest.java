@@ -0,0 +1,90 @@
+package com.insurancemegacorp.dbserver.service;
+
+import com.insurancemegacorp.dbserver.config.IngestionProperties;
+import com.insurancemegacorp.dbserver.repository.EventDayCountRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.SQLException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventCountAggregatorTest {
+
+    @Mock
+    private EventDayCountRepository eventDayCountRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private EventCountAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        aggregator = new EventCountAggregator(eventDayCountRepository, new IngestionProperties(), transactionManager,
+                new SimpleMeterRegistry());
+        when(eventDayCountRepository.tableExists()).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        aggregator.stop();
+    }
+
+    @Test
+    void testStart_PopulatedTableCountsTelemetryDataV2BeforeFirstReconcile() {
+        // Given - a restart with counters left by the previous run
+        when(eventDayCountRepository.isEmpty()).thenReturn(false);
+        when(eventDayCountRepository.countTelemetryDataV2()).thenReturn(98000L);
+
+        // When
+        aggregator.start();
+
+        // Then - served straight away, the reconcile stays on its hourly schedule
+        assertTrue(aggregator.isReady());
+        assertEquals(98000L, aggregator.getTelemetryDataV2Count());
+        assertEquals(0L, aggregator.getReconciledAt());
+        verify(eventDayCountRepository, never()).reconcile();
+    }
+
+    @Test
+    void testStart_MissingTelemetryDataV2IsReportedAsNull() {
+        // Given
+        when(eventDayCountRepository.isEmpty()).thenReturn(false);
+        when(eventDayCountRepository.countTelemetryDataV2()).thenThrow(new BadSqlGrammarException("count",
+                "SELECT COUNT(*) FROM vehicle_telemetry_data_v2",
+                new SQLException("relation \"vehicle_telemetry_data_v2\" does not exist")));
+
+        // When
+        aggregator.start();
+
+        // Then - the counters still serve vehicle_events
+        assertTrue(aggregator.isReady());
+        assertNull(aggregator.getTelemetryDataV2Count());
+    }
+
+    @Test
+    void testTotals_IncludeDeltasNotYetFlushed() {
+        // Given
+        when(eventDayCountRepository.isEmpty()).thenReturn(false);
+        when(eventDayCountRepository.totals(100)).thenReturn(new long[] {500L, 3L, 40L});
+        aggregator.start();
+
+        // When
+        aggregator.mergePending(Map.of(99, new long[] {2L, 1L}, 100, new long[] {5L, 0L}));
+        long[] totals = aggregator.totals(100);
+
+        // Then
+        assertArrayEquals(new long[] {507L, 4L, 45L}, totals);
+    }
+}
@@ -0,0 +1,65 @@
+package com.insurancemegacorp.dbserver.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ExportRowWriterTest {
+
+    private ResultSet rs;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(metaData.getColumnCount()).thenReturn(3);
+        when(metaData.getColumnLabel(1)).thenReturn("driver_id");
+        when(metaData.getColumnLabel(2)).thenReturn("current_street");
+        when(metaData.getColumnLabel(3)).thenReturn("g_force");
+
+        rs = mock(ResultSet.class);
+        when(rs.getMetaData()).thenReturn(metaData);
+        when(rs.next()).thenReturn(true, true, false);
+        when(rs.getObject(1)).thenReturn(400001, 400002);
+        when(rs.getObject(2)).thenReturn("Main St, \"North\"").thenReturn(null);
+        when(rs.getObject(3)).thenReturn(0.5f).thenReturn(null);
+    }
+
+    @Test
+    void testCsvQuotesValuesAndWritesHeader() throws Exception {
+        // Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExportRowWriter writer = new ExportRowWriter(ExportFormat.CSV, out, new ObjectMapper());
+
+        // When
+        long rows = writer.extractData(rs);
+
+        // Then
+        assertEquals("driver_id,current_street,g_force\r\n"
+                + "400001,\"Main St, \"\"North\"\"\",0.5\r\n"
+                + "400002,,\r\n", out.toString(StandardCharsets.UTF_8));
+        assertEquals(2, rows);
+    }
+
+    @Test
+    void testNdjsonWritesOneTypedObjectPerLine() throws Exception {
+        // Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExportRowWriter writer = new ExportRowWriter(ExportFormat.NDJSON, out, new ObjectMapper());
+
+        // When
+        writer.extractData(rs);
+
+        // Then
+        assertEquals("{\"driver_id\":400001,\"current_street\":\"Main St, \\\"North\\\"\",\"g_force\":0.5}\n"
+                + "{\"driver_id\":400002,\"current_street\":null,\"g_force\":null}\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,98 @@
+package com.insurancemegacorp.dbserver.service;
+
+import com.insurancemegacorp.dbserver.config.IngestionProperties;
+import com.insurancemegacorp.dbserver.exception.IngestionBackpressureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyStoreTest {
+
+    private IngestionProperties properties;
+    private IdempotencyStore store;
+
+    @BeforeEach
+    void setUp() {
+        properties = new IngestionProperties();
+        properties.getIdempotency().setMaxEntries(1);
+        store = new IdempotencyStore(properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testExecute_ReplaysFirstResponseWithoutRunningAgain() {
+        // Given
+        AtomicInteger runs = new AtomicInteger();
+        String fingerprint = fingerprint("[{\"event_id\":1}]");
+
+        // When
+        ResponseEntity<String> first = store.execute("a:key-1", fingerprint, () -> ResponseEntity.ok("run " + runs.incrementAndGet()));
+        ResponseEntity<String> second = store.execute("a:key-1", fingerprint, () -> ResponseEntity.ok("run " + runs.incrementAndGet()));
+
+        // Then
+        assertEquals(1, runs.get());
+        assertEquals("run 1", second.getBody());
+        assertNull(first.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        assertEquals("true", second.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+    }
+
+    @Test
+    void testExecute_SameKeyWithDifferentBodyIsRejected() {
+        // Given - same event ids, different payload
+        store.execute("a:key-1", fingerprint("[{\"event_id\":1,\"speed_mph\":30}]"), () -> ResponseEntity.ok("done"));
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> store.execute("a:key-1",
+                fingerprint("[{\"event_id\":1,\"speed_mph\":90}]"), () -> ResponseEntity.ok("done")));
+    }
+
+    @Test
+    void testExecute_InFlightKeyIsNotEvictedAtCapacity() throws Exception {
+        // Given - the only slot is held by a request that is still running
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        CompletableFuture<ResponseEntity<String>> original = CompletableFuture.supplyAsync(() ->
+                store.execute("a:slow", fingerprint("slow"), () -> {
+                    runs.incrementAndGet();
+                    running.countDown();
+                    await(release);
+                    return ResponseEntity.ok("slow done");
+                }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        // When - a new key arrives, the store cannot make room
+        assertThrows(IngestionBackpressureException.class,
+                () -> store.execute("a:other", fingerprint("other"), () -> ResponseEntity.ok("other done")));
+        release.countDown();
+        original.get(5, TimeUnit.SECONDS);
+
+        // Then - the original's retry is still answered from the store, not run again
+        ResponseEntity<String> retry = store.execute("a:slow", fingerprint("slow"), () -> ResponseEntity.ok("ran twice"));
+        assertEquals("slow done", retry.getBody());
+        assertEquals(1, runs.get());
+
+        // And once it has completed, it can be evicted for a new key
+        assertEquals("other done", store.execute("a:other", fingerprint("other"), () -> ResponseEntity.ok("other done")).getBody());
+    }
+
+    private static String fingerprint(String body) {
+        return IdempotencyStore.digest(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.insurancemegacorp.dbserver.service;
+
+import com.insurancemegacorp.dbserver.config.IngestionProperties;
+import com.insurancemegacorp.dbserver.dto.IngestAckDto;
+import com.insurancemegacorp.dbserver.exception.IngestionBackpressureException;
+import com.insurancemegacorp.dbserver.model.VehicleEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IngestionBufferTest {
+
+    private static final long WAIT_MS = 5000;
+
+    @Mock
+    private VehicleEventWriter vehicleEventWriter;
+
+    @Mock
+    private IngestionSpool ingestionSpool;
+
+    private IngestionProperties properties;
+    private IngestionBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        properties = new IngestionProperties();
+        properties.getBuffer().setWriterThreads(1);
+        properties.getBuffer().setCommitSize(6);
+        properties.getBuffer().setLingerMs(2000);
+        properties.getBuffer().setCapacity(10);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (buffer != null) {
+            buffer.stop();
+        }
+    }
+
+    @Test
+    void testSubmit_GroupsRequestsIntoOneCommit() {
+        // Given
+        List<List<VehicleEvent>> commits = new ArrayList<>();
+        when(vehicleEventWriter.writeAndCommit(anyList(), any())).thenAnswer(invocation -> {
+            List<VehicleEvent> events = invocation.getArgument(0);
+            commits.add(List.copyOf(events));
+            return (long) events.size();
+        });
+        startBuffer();
+
+        // When - three requests of two events fill one commit group of six
+        IngestAckDto first = buffer.submit(events(1L, 2));
+        IngestAckDto second = buffer.submit(events(2L, 2));
+        IngestAckDto third = buffer.submit(events(3L, 2));
+
+        // Then
+        for (IngestAckDto ack : List.of(first, second, third)) {
+            IngestAckDto done = buffer.await(ack.getAckId(), WAIT_MS);
+            assertEquals("COMMITTED", done.getStatus());
+            assertEquals(2L, done.getInsertedCount());
+        }
+        assertEquals(1, commits.size());
+        assertEquals(6, commits.get(0).size());
+        assertEquals(0, buffer.getQueuedEvents());
+    }
+
+    @Test
+    void testSubmit_BadRequestFailsOnlyItsOwnAck() {
+        // Given - the writer rejects any commit that contains vehicle 2
+        when(vehicleEventWriter.writeAndCommit(anyList(), any())).thenAnswer(invocation -> {
+            List<VehicleEvent> events = invocation.getArgument(0);
+            if (events.stream().anyMatch(event -> event.getVehicleId() == 2L)) {
+                throw new DataIntegrityViolationException("value too long for type character varying(20)");
+            }
+            return (long) events.size();
+        });
+        startBuffer();
+
+        // When
+        IngestAckDto good = buffer.submit(events(1L, 2));
+        IngestAckDto bad = buffer.submit(events(2L, 2));
+        IngestAckDto alsoGood = buffer.submit(events(3L, 2));
+
+        // Then - the failed group is retried one request at a time
+        assertEquals("COMMITTED", buffer.await(good.getAckId(), WAIT_MS).getStatus());
+        assertEquals("COMMITTED", buffer.await(alsoGood.getAckId(), WAIT_MS).getStatus());
+        IngestAckDto failed = buffer.await(bad.getAckId(), WAIT_MS);
+        assertEquals("FAILED", failed.getStatus());
+        assertTrue(failed.getError().contains("value too long"));
+        verify(vehicleEventWriter, times(4)).writeAndCommit(anyList(), any());
+        verify(ingestionSpool, never()).append(anyList());
+    }
+
+    @Test
+    void testSubmit_BatchLargerThanCapacityIsRejected() {
+        // Given
+        startBuffer();
+
+        // When / Then - it could never fit, so retrying would not help
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> buffer.submit(events(1L, 11)));
+        assertTrue(e.getMessage().contains("capacity of 10"));
+        verifyNoInteractions(vehicleEventWriter);
+    }
+
+    @Test
+    void testSubmit_FullBufferWithoutSpoolAppliesBackpressure() throws InterruptedException {
+        // Given - the writer is stuck on the first group, which holds 6 of the 10 slots
+        properties.getBuffer().setLingerMs(0);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(vehicleEventWriter.writeAndCommit(anyList(), any())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await(WAIT_MS, TimeUnit.MILLISECONDS);
+            return (long) invocation.<List<VehicleEvent>>getArgument(0).size();
+        });
+        startBuffer();
+        buffer.submit(events(1L, 6));
+        assertTrue(writing.await(WAIT_MS, TimeUnit.MILLISECONDS));
+
+        // When
+        IngestAckDto queued = buffer.submit(events(2L, 6));
+
+        // Then
+        assertThrows(IngestionBackpressureException.class, () -> buffer.submit(events(3L, 6)));
+        release.countDown();
+        assertEquals("COMMITTED", buffer.await(queued.getAckId(), WAIT_MS).getStatus());
+    }
+
+    @Test
+    void testAwaitQueuedAtMost_WakesWhenWritersDrain() throws Exception {
+        // Given - one group is being written and a second one is queued behind it
+        properties.getBuffer().setLingerMs(0);
+        properties.getBuffer().setCommitSize(1);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(vehicleEventWriter.writeAndCommit(anyList(), any())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await(WAIT_MS, TimeUnit.MILLISECONDS);
+            return (long) invocation.<List<VehicleEvent>>getArgument(0).size();
+        });
+        startBuffer();
+        buffer.submit(events(1L, 2));
+        assertTrue(writing.await(WAIT_MS, TimeUnit.MILLISECONDS));
+        buffer.submit(events(2L, 3));
+
+        // When / Then - times out while the writer is stuck, returns once it moves on
+        assertFalse(buffer.awaitQueuedAtMost(0, 50));
+        release.countDown();
+        assertTrue(buffer.awaitQueuedAtMost(0, WAIT_MS));
+        assertEquals(0, buffer.getQueuedEvents());
+    }
+
+    private void startBuffer() {
+        buffer = new IngestionBuffer(vehicleEventWriter, ingestionSpool, properties, new SimpleMeterRegistry());
+        buffer.start();
+    }
+
+    private static List<VehicleEvent> events(long vehicleId, int count) {
+        List<VehicleEvent> events = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            VehicleEvent event = new VehicleEvent();
+            event.setVehicleId(vehicleId);
+            events.add(event);
+        }
+        return events;
+    }
+}
@@ -0,0 +1,220 @@
+package com.insurancemegacorp.dbserver.service;
+
+import com.insurancemegacorp.dbserver.config.IngestionProperties;
+import com.insurancemegacorp.dbserver.model.VehicleEvent;
+import com.insurancemegacorp.dbserver.util.VehicleEventBinaryCodec;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IngestionSpoolTest {
+
+    private static final long WAIT_MS = 5000;
+
+    @TempDir
+    Path directory;
+
+    private IngestionProperties properties;
+    private final List<IngestionSpool> started = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        properties = new IngestionProperties();
+        properties.getSpool().setEnabled(true);
+        properties.getSpool().setDirectory(directory.toString());
+        properties.getSpool().setSegmentSizeBytes(4096);
+        properties.getSpool().setForceOnAppend(false);
+        properties.getSpool().setPollIntervalMs(10);
+        properties.getSpool().setMaxBackoffMs(50);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (IngestionSpool spool : started) {
+            spool.stop();
+        }
+    }
+
+    @Test
+    void testReplay_CommitsRecordsInAppendOrder() throws Exception {
+        // Given
+        List<Long> replayed = Collections.synchronizedList(new ArrayList<>());
+        IngestionSpool spool = start(recordingWriter(replayed));
+
+        // When
+        spool.append(events(1L, 2L));
+        spool.append(events(3L));
+        spool.append(events(4L, 5L));
+
+        // Then
+        awaitTrue(() -> spool.getPendingBytes() == 0);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), replayed);
+    }
+
+    @Test
+    void testReplay_RollsOverSegmentsAndDeletesReplayedOnes() throws Exception {
+        // Given - every record is bigger than a segment, so each one gets its own
+        properties.getSpool().setSegmentSizeBytes(1);
+        List<Long> replayed = Collections.synchronizedList(new ArrayList<>());
+        IngestionSpool spool = start(recordingWriter(replayed));
+
+        // When
+        spool.append(events(1L));
+        spool.append(events(2L));
+        spool.append(events(3L));
+
+        // Then - only the active segment is left
+        awaitTrue(() -> spool.getPendingBytes() == 0);
+        assertEquals(List.of(1L, 2L, 3L), replayed);
+        awaitTrue(() -> segmentFiles().size() == 1);
+        assertEquals("spool-0000000000000003.seg", segmentFiles().get(0));
+    }
+
+    @Test
+    void testRecover_TruncatesTornRecordAndOverwritesIt() throws Exception {
+        // Given - two records spooled while the database is down, the second one torn by a crash
+        IngestionSpool down = start(unavailableWriter());
+        down.append(events(1L));
+        long firstRecordBytes = down.getPendingBytes();
+        down.append(events(2L));
+        down.stop();
+        started.remove(down);
+        corruptPayloadAt(segment(0), firstRecordBytes);
+
+        // When
+        List<Long> replayed = Collections.synchronizedList(new ArrayList<>());
+        IngestionSpool spool = start(recordingWriter(replayed));
+        spool.append(events(3L));
+
+        // Then - the torn record is dropped and the new one is appended in its place
+        awaitTrue(() -> spool.getPendingBytes() == 0);
+        assertEquals(List.of(1L, 3L), replayed);
+    }
+
+    @Test
+    void testRecover_ResumesFromCheckpoint() throws Exception {
+        // Given - the first record commits, then the database goes away
+        List<Long> beforeRestart = Collections.synchronizedList(new ArrayList<>());
+        VehicleEventWriter failsAfterFirst = mock(VehicleEventWriter.class);
+        AtomicInteger calls = new AtomicInteger();
+        when(failsAfterFirst.writeAndCommit(anyList(), any())).thenAnswer(invocation -> {
+            if (calls.getAndIncrement() > 0) {
+                throw new DataAccessResourceFailureException("Connection refused");
+            }
+            List<VehicleEvent> events = invocation.getArgument(0);
+            events.forEach(event -> beforeRestart.add(event.getVehicleId()));
+            return (long) events.size();
+        });
+        IngestionSpool first = start(failsAfterFirst);
+        first.append(events(1L));
+        long firstRecordBytes = first.getPendingBytes();
+        first.append(events(2L));
+        first.append(events(3L));
+        long total = first.getPendingBytes();
+        awaitTrue(() -> first.getPendingBytes() == total - firstRecordBytes);
+        first.stop();
+        started.remove(first);
+
+        // When
+        List<Long> afterRestart = Collections.synchronizedList(new ArrayList<>());
+        IngestionSpool restarted = start(recordingWriter(afterRestart));
+
+        // Then
+        assertEquals(List.of(1L), beforeRestart);
+        awaitTrue(() -> restarted.getPendingBytes() == 0);
+        assertEquals(List.of(2L, 3L), afterRestart);
+    }
+
+    private IngestionSpool start(VehicleEventWriter writer) throws IOException {
+        IngestionSpool spool = new IngestionSpool(writer, new VehicleEventBinaryCodec(), properties, new SimpleMeterRegistry());
+        spool.start();
+        started.add(spool);
+        return spool;
+    }
+
+    private static VehicleEventWriter recordingWriter(List<Long> replayed) {
+        VehicleEventWriter writer = mock(VehicleEventWriter.class);
+        when(writer.writeAndCommit(anyList(), any())).thenAnswer(invocation -> {
+            List<VehicleEvent> events = invocation.getArgument(0);
+            events.forEach(event -> replayed.add(event.getVehicleId()));
+            return (long) events.size();
+        });
+        return writer;
+    }
+
+    private static VehicleEventWriter unavailableWriter() {
+        VehicleEventWriter writer = mock(VehicleEventWriter.class);
+        when(writer.writeAndCommit(anyList(), any())).thenThrow(new DataAccessResourceFailureException("Connection refused"));
+        return writer;
+    }
+
+    private static List<VehicleEvent> events(Long... vehicleIds) {
+        List<VehicleEvent> events = new ArrayList<>();
+        for (Long vehicleId : vehicleIds) {
+            VehicleEvent event = new VehicleEvent();
+            event.setPolicyId(1L);
+            event.setVehicleId(vehicleId);
+            event.setDriverId(400001);
+            event.setEventTime(1700000000000L + vehicleId);
+            events.add(event);
+        }
+        return events;
+    }
+
+    private Path segment(long segment) {
+        return directory.resolve(String.format("spool-%016d.seg", segment));
+    }
+
+    private List<String> segmentFiles() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(".seg"))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void corruptPayloadAt(Path segment, long recordOffset) throws IOException {
+        // Flip the first payload byte, just past the 20 byte record header
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            channel.read(b, recordOffset + 20);
+            b.put(0, (byte) ~b.get(0));
+            b.rewind();
+            channel.write(b, recordOffset + 20);
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + WAIT_MS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the spool");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.insurancemegacorp.dbserver.service;
+
+import com.insurancemegacorp.dbserver.config.IngestionProperties;
+import com.insurancemegacorp.dbserver.exception.LiveFeedUnavailableException;
+import com.insurancemegacorp.dbserver.model.VehicleEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LiveEventBroadcasterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Long> sent = new CopyOnWriteArrayList<>();
+    private LiveEventBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        IngestionProperties properties = new IngestionProperties();
+        properties.getLive().setBufferSize(2);
+        properties.getLive().setMaxSubscribers(1);
+        broadcaster = new LiveEventBroadcaster(properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.stop();
+    }
+
+    @Test
+    void testOnEventsCommitted_FullBufferDropsOldestEvents() throws Exception {
+        // Given - the sender is stuck writing the first event
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        broadcaster.subscribe(event -> true, event -> {
+            if (event.getEventTime() == 1L) {
+                sending.countDown();
+                await(release);
+            }
+            sent.add(event.getEventTime());
+            return event.getEventTime();
+        });
+        broadcaster.onEventsCommitted(List.of(event(1L)));
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+
+        // When - four more arrive for a buffer of two
+        broadcaster.onEventsCommitted(List.of(event(2L), event(3L), event(4L), event(5L)));
+        release.countDown();
+
+        // Then - the two newest survive
+        waitFor(() -> sent.size() == 3);
+        assertEquals(List.of(1L, 4L, 5L), sent);
+        assertEquals(2.0, meterRegistry.get("events.live.dropped").counter().count());
+    }
+
+    @Test
+    void testSubscribe_DisconnectedSubscriberIsRemoved() {
+        // Given - a client that went away
+        SseEmitter emitter = broadcaster.subscribe(event -> true, VehicleEvent::getEventTime);
+        assertEquals(1, broadcaster.getSubscriberCount());
+        assertThrows(LiveFeedUnavailableException.class,
+                () -> broadcaster.subscribe(event -> true, VehicleEvent::getEventTime));
+        emitter.complete();
+
+        // When - the next send fails
+        broadcaster.onEventsCommitted(List.of(event(1L)));
+
+        // Then - its slot is freed for a new subscriber
+        waitFor(() -> broadcaster.getSubscriberCount() == 0);
+        assertEquals(0.0, meterRegistry.get("events.live.subscribers").gauge().value());
+        broadcaster.subscribe(event -> true, event -> {
+            sent.add(event.getEventTime());
+            return event.getEventTime();
+        });
+        broadcaster.onEventsCommitted(List.of(event(2L)));
+        waitFor(() -> !sent.isEmpty());
+        assertEquals(List.of(2L), sent);
+    }
+
+    @Test
+    void testOnEventsCommitted_SkipsEventsOutsideFilter() {
+        // Given
+        broadcaster.subscribe(event -> event.getEventTime() % 2 == 0, event -> {
+            sent.add(event.getEventTime());
+            return event.getEventTime();
+        });
+
+        // When
+        broadcaster.onEventsCommitted(List.of(event(1L), event(2L), event(3L), event(4L)));
+
+        // Then
+        waitFor(() -> sent.size() == 2);
+        assertEquals(List.of(2L, 4L), sent);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the live feed");
+            Thread.onSpinWait();
+        }
+    }
+
+    private static VehicleEvent event(long eventTime) {
+        VehicleEvent event = new VehicleEvent();
+        event.setVehicleId(200001L);
+        event.setDriverId(400001);
+        event.setEventTime(eventTime);
+        return event;
+    }
+}
@@ -0,0 +1,116 @@
+package com.insurancemegacorp.dbserver.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurancemegacorp.dbserver.config.IngestionProperties;
+import com.insurancemegacorp.dbserver.exception.ExportAbortedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ResultSetExporterTest {
+
+    private final TrackingOutputStream body = new TrackingOutputStream();
+    private ResultSetExporter exporter;
+
+    @BeforeEach
+    void setUp() {
+        exporter = new ResultSetExporter(new ObjectMapper(), new IngestionProperties(), mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void testExport_CompletesGzipStreamOnSuccess() throws Exception {
+        // Given
+        ResultSet rs = resultSet();
+        when(rs.next()).thenReturn(true, false);
+
+        // When
+        long rows = exporter.export("events", ExportFormat.CSV, () -> new GZIPOutputStream(body),
+                (fetchSize, extractor) -> extract(extractor, rs));
+
+        // Then
+        assertEquals(1L, rows);
+        assertTrue(body.closed);
+        assertEquals("vin\r\nVIN1\r\n", gunzip(body.toByteArray()));
+    }
+
+    @Test
+    void testExport_FailureMidStreamLeavesGzipStreamUnfinished() throws Exception {
+        // Given - the cursor fails after the first row
+        ResultSet rs = resultSet();
+        when(rs.next()).thenReturn(true).thenThrow(new SQLException("canceling statement due to statement timeout"));
+
+        // When
+        ExportAbortedException e = assertThrows(ExportAbortedException.class,
+                () -> exporter.export("events", ExportFormat.CSV, () -> new GZIPOutputStream(body),
+                        (fetchSize, extractor) -> extract(extractor, rs)));
+
+        // Then - no trailer, so the client cannot mistake it for a complete file
+        assertTrue(e.getMessage().contains("statement timeout"));
+        assertFalse(body.closed);
+        assertThrows(EOFException.class, () -> gunzip(body.toByteArray()));
+    }
+
+    @Test
+    void testExport_ArrowFailureWritesNoEndOfStream() throws Exception {
+        // Given
+        ResultSet rs = resultSet();
+        when(rs.next()).thenReturn(true).thenThrow(new SQLException("connection reset"));
+
+        // When / Then
+        assertThrows(ExportAbortedException.class, () -> exporter.export("events", ExportFormat.ARROW, () -> body,
+                (fetchSize, extractor) -> extract(extractor, rs)));
+        assertFalse(body.closed);
+        exporter.close();
+    }
+
+    private static Long extract(ResultSetExtractor<Long> extractor, ResultSet rs) {
+        try {
+            return extractor.extractData(rs);
+        } catch (SQLException e) {
+            throw new QueryTimeoutException(e.getMessage(), e);
+        }
+    }
+
+    private static ResultSet resultSet() throws SQLException {
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(metaData.getColumnCount()).thenReturn(1);
+        lenient().when(metaData.getColumnLabel(1)).thenReturn("vin");
+        lenient().when(metaData.getColumnType(1)).thenReturn(Types.VARCHAR);
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getMetaData()).thenReturn(metaData);
+        lenient().when(rs.getObject(1)).thenReturn("VIN1");
+        lenient().when(rs.getString(1)).thenReturn("VIN1");
+        return rs;
+    }
+
+    private static String gunzip(byte[] bytes) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static class TrackingOutputStream extends ByteArrayOutputStream {
+        private boolean closed;
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
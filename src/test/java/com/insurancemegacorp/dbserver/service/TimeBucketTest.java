@@ -0,0 +1,28 @@
+package com.insurancemegacorp.dbserver.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeBucketTest {
+
+    @Test
+    void testFrom_ParsesCodesIgnoringCaseAndWhitespace() {
+        assertEquals(TimeBucket.ONE_MINUTE, TimeBucket.from("1m"));
+        assertEquals(TimeBucket.FIVE_MINUTES, TimeBucket.from(" 5M "));
+        assertEquals(TimeBucket.ONE_DAY, TimeBucket.from("1d"));
+        assertEquals(300_000L, TimeBucket.from("5m").getMillis());
+    }
+
+    @Test
+    void testFrom_DefaultsToOneHour() {
+        assertEquals(TimeBucket.ONE_HOUR, TimeBucket.from(null));
+        assertEquals(TimeBucket.ONE_HOUR, TimeBucket.from("  "));
+    }
+
+    @Test
+    void testFrom_RejectsUnknownCode() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> TimeBucket.from("15m"));
+        assertTrue(e.getMessage().contains("15m"));
+    }
+}
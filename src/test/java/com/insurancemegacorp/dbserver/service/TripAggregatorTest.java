@@ -0,0 +1,202 @@
+package com.insurancemegacorp.dbserver.service;
+
+import com.insurancemegacorp.dbserver.config.IngestionProperties;
+import com.insurancemegacorp.dbserver.exception.TripsUnavailableException;
+import com.insurancemegacorp.dbserver.model.TripSummary;
+import com.insurancemegacorp.dbserver.model.VehicleEvent;
+import com.insurancemegacorp.dbserver.repository.TripRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TripAggregatorTest {
+
+    private static final long VEHICLE_ID = 200001L;
+
+    @Mock
+    private TripRepository tripRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<List<TripSummary>> upserts = new ArrayList<>();
+    private TripAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        IngestionProperties properties = new IngestionProperties();
+        // Flushed by the tests only
+        properties.getTrips().setFlushIntervalMs(60_000);
+        aggregator = new TripAggregator(tripRepository, properties, transactionManager, meterRegistry);
+        when(tripRepository.tableExists()).thenReturn(true);
+        lenient().doAnswer(invocation -> {
+            Collection<TripSummary> trips = invocation.getArgument(0);
+            List<TripSummary> sorted = new ArrayList<>(trips);
+            sorted.sort(Comparator.comparingLong(TripSummary::getStartTime));
+            upserts.add(sorted);
+            return null;
+        }).when(tripRepository).upsert(any());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        aggregator.stop();
+    }
+
+    @Test
+    void testFlush_LaggedEventsDoNotCloseTripOfVehicleStillReporting() {
+        // Given - a device uploading an hour behind, well past the 5 min gap time
+        aggregator.start();
+        long hourAgo = System.currentTimeMillis() - 3_600_000;
+
+        // When
+        aggregator.onEventsCommitted(List.of(event(hourAgo, 30f), event(hourAgo + 10_000, 30f)));
+        aggregator.flush();
+
+        // Then - still open, since its events have just arrived
+        TripSummary trip = lastUpsert().get(0);
+        assertTrue(trip.isOpen());
+        assertEquals(2, trip.getEventCount());
+    }
+
+    @Test
+    void testStart_ResumesLatestOpenTripAndClosesTheOneBeforeIt() {
+        // Given - two trips left open by a previous run
+        long t0 = System.currentTimeMillis() - 600_000;
+        TripSummary older = new TripSummary(VEHICLE_ID, event(t0, 30f));
+        TripSummary latest = new TripSummary(VEHICLE_ID, event(t0 + 300_000, 30f));
+        when(tripRepository.findOpen()).thenReturn(List.of(older, latest));
+
+        // When
+        aggregator.start();
+        aggregator.onEventsCommitted(List.of(event(t0 + 310_000, 30f)));
+        aggregator.flush();
+
+        // Then
+        List<TripSummary> trips = lastUpsert();
+        assertEquals(2, trips.size());
+        assertEquals(t0, trips.get(0).getStartTime());
+        assertFalse(trips.get(0).isOpen());
+        assertEquals(t0 + 300_000, trips.get(1).getStartTime());
+        assertEquals(t0 + 310_000, trips.get(1).getEndTime());
+        assertEquals(2, trips.get(1).getEventCount());
+        assertTrue(trips.get(1).isOpen());
+    }
+
+    @Test
+    void testOnEventsCommitted_SkipsAndCountsEventsOlderThanTheTrip() {
+        // Given
+        long t0 = System.currentTimeMillis();
+        when(tripRepository.findOpen()).thenReturn(List.of(new TripSummary(VEHICLE_ID, event(t0, 30f))));
+        aggregator.start();
+
+        // When
+        aggregator.onEventsCommitted(List.of(event(t0 - 1_000, 30f)));
+        aggregator.flush();
+
+        // Then
+        assertEquals(1, lastUpsert().get(0).getEventCount());
+        assertEquals(1.0, meterRegistry.get("trips.late.events").counter().count());
+    }
+
+    @Test
+    void testFlush_FailedTripIsRetriedWithItsNewestState() {
+        // Given - the first write fails
+        doThrow(new QueryTimeoutException("canceling statement due to statement timeout"))
+                .doAnswer(invocation -> {
+                    upserts.add(new ArrayList<>(invocation.<Collection<TripSummary>>getArgument(0)));
+                    return null;
+                })
+                .when(tripRepository).upsert(any());
+        aggregator.start();
+        long t0 = System.currentTimeMillis();
+        aggregator.onEventsCommitted(List.of(event(t0, 30f)));
+        aggregator.flush();
+
+        // When - the trip grows before the retry
+        aggregator.onEventsCommitted(List.of(event(t0 + 10_000, 30f)));
+        aggregator.flush();
+        aggregator.flush();
+
+        // Then - written once, with both events
+        assertEquals(1, upserts.size());
+        assertEquals(2, lastUpsert().get(0).getEventCount());
+        verify(tripRepository, times(2)).upsert(any());
+    }
+
+    @Test
+    void testResegment_EndsBeforeTheTripInProgress() {
+        // Given - a trip in progress and an earlier stored trip
+        long liveStart = System.currentTimeMillis() - 60_000;
+        aggregator.start();
+        aggregator.onEventsCommitted(List.of(event(liveStart, 30f)));
+        when(tripRepository.findSegmentStart(VEHICLE_ID, liveStart - 3_600_000)).thenReturn(liveStart - 3_600_000);
+        doAnswer(invocation -> {
+            Consumer<VehicleEvent> consumer = invocation.getArgument(4);
+            consumer.accept(event(liveStart - 1_200_000, 30f));
+            consumer.accept(event(liveStart - 1_190_000, 30f));
+            return null;
+        }).when(tripRepository).scanEvents(anyLong(), anyLong(), anyLong(), anyInt(), any());
+
+        // When
+        int written = aggregator.resegment(VEHICLE_ID, liveStart - 3_600_000, System.currentTimeMillis());
+
+        // Then - the live trip is flushed but neither scanned, deleted nor rebuilt
+        assertEquals(1, written);
+        verify(tripRepository).scanEvents(eq(VEHICLE_ID), eq(liveStart - 3_600_000), eq(liveStart - 1), anyInt(), any());
+        verify(tripRepository).deleteStartingBetween(VEHICLE_ID, liveStart - 3_600_000, liveStart - 1);
+        TripSummary rebuilt = lastUpsert().get(0);
+        assertEquals(liveStart - 1_200_000, rebuilt.getStartTime());
+        assertFalse(rebuilt.isOpen());
+        assertEquals(liveStart, upserts.get(0).get(0).getStartTime());
+    }
+
+    @Test
+    void testResegment_RejectedWithoutTripsTable() {
+        // Given
+        when(tripRepository.tableExists()).thenReturn(false);
+        aggregator.start();
+
+        // When / Then
+        assertFalse(aggregator.isActive());
+        assertThrows(TripsUnavailableException.class, () -> aggregator.resegment(VEHICLE_ID, 0L, 1L));
+        verify(tripRepository, never()).deleteStartingBetween(anyLong(), anyLong(), anyLong());
+    }
+
+    private List<TripSummary> lastUpsert() {
+        assertFalse(upserts.isEmpty(), "Nothing was upserted");
+        return upserts.get(upserts.size() - 1);
+    }
+
+    private static VehicleEvent event(long time, float speedMph) {
+        VehicleEvent event = new VehicleEvent();
+        event.setVehicleId(VEHICLE_ID);
+        event.setDriverId(400001);
+        event.setEventTime(time);
+        event.setSpeedMph(speedMph);
+        event.setGpsLatitude(40.0);
+        event.setGpsLongitude(-75.0);
+        return event;
+    }
+}
@@ -0,0 +1,101 @@
+package com.insurancemegacorp.dbserver.service;
+
+import com.insurancemegacorp.dbserver.model.TripSummary;
+import com.insurancemegacorp.dbserver.model.VehicleEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TripSegmenterTest {
+
+    private static final long T0 = 1700000000000L;
+
+    @Test
+    void testAccept_ShortStopStaysInTripAndLongStopEndsItWhereTheVehicleStopped() {
+        // Given - 5 min gap, 3 min stop, moving at 3 mph or more
+        TripSegmenter segmenter = new TripSegmenter(200001L, 300_000, 180_000, 3.0f);
+        List<TripSummary> closed = new ArrayList<>();
+
+        // When - stationary, 2 min driving with a 1 min stop, then parked for 4 min
+        feed(segmenter, closed, event(T0, 0f, 0));
+        for (int s = 0; s <= 60; s += 10) {
+            feed(segmenter, closed, event(T0 + 10_000 + s * 1000L, 30f, s));
+        }
+        feed(segmenter, closed, event(T0 + 80_000, 0f, 60));
+        feed(segmenter, closed, event(T0 + 140_000, 0f, 60));
+        feed(segmenter, closed, event(T0 + 150_000, 40f, 70));
+        feed(segmenter, closed, event(T0 + 160_000, 0f, 80));
+        feed(segmenter, closed, event(T0 + 400_000, 0f, 80));
+
+        // Then
+        assertEquals(1, closed.size());
+        TripSummary trip = closed.get(0);
+        assertFalse(trip.isOpen());
+        assertEquals(T0 + 10_000, trip.getStartTime());
+        assertEquals(T0 + 160_000, trip.getEndTime());
+        assertEquals(11, trip.getEventCount());
+        assertEquals(40f, trip.getMaxSpeedMph());
+        // 0.001 degree of latitude per step is about 111 m
+        assertEquals(80 * 0.001 * 111_195, trip.getDistanceMeters(), 50);
+        // Only the 40 mph event is over the 35 mph limit, until the next event 10 s later
+        assertEquals(10.0, trip.getSpeedingSeconds(), 1e-9);
+        assertNull(segmenter.getOpenTrip());
+    }
+
+    @Test
+    void testAccept_GapEndsTripAtItsLastEventAndStartsTheNext() {
+        // Given
+        TripSegmenter segmenter = new TripSegmenter(200001L, 300_000, 180_000, 3.0f);
+        List<TripSummary> closed = new ArrayList<>();
+
+        // When
+        feed(segmenter, closed, event(T0, 25f, 0));
+        feed(segmenter, closed, event(T0 + 10_000, 25f, 1));
+        feed(segmenter, closed, event(T0 + 900_000, 25f, 2));
+
+        // Then
+        assertEquals(1, closed.size());
+        assertEquals(T0 + 10_000, closed.get(0).getEndTime());
+        assertEquals(T0 + 900_000, segmenter.getOpenTrip().getStartTime());
+        assertTrue(segmenter.isLate(event(T0 + 5_000, 25f, 0)));
+        assertNull(segmenter.closeIfIdle(T0 + 1_000_000));
+        assertNotNull(segmenter.closeIfIdle(T0 + 1_300_000));
+    }
+
+    @Test
+    void testCloseIfIdle_CountsFromArrivalNotEventTime() {
+        // Given - events an hour old, received at T0
+        TripSegmenter segmenter = new TripSegmenter(200001L, 300_000, 180_000, 3.0f);
+        segmenter.accept(event(T0 - 3_600_000, 25f, 0), T0);
+        segmenter.accept(event(T0 - 3_590_000, 25f, 1), T0);
+
+        // When / Then - idle only once nothing has arrived for the gap time
+        assertNull(segmenter.closeIfIdle(T0 + 200_000));
+        TripSummary closed = segmenter.closeIfIdle(T0 + 400_000);
+        assertNotNull(closed);
+        assertEquals(T0 - 3_590_000, closed.getEndTime());
+    }
+
+    private static void feed(TripSegmenter segmenter, List<TripSummary> closed, VehicleEvent event) {
+        TripSummary trip = segmenter.accept(event);
+        if (trip != null) {
+            closed.add(trip);
+        }
+    }
+
+    private static VehicleEvent event(long time, float speedMph, int step) {
+        VehicleEvent event = new VehicleEvent();
+        event.setVehicleId(200001L);
+        event.setDriverId(400001);
+        event.setEventTime(time);
+        event.setSpeedMph(speedMph);
+        event.setSpeedLimitMph(35f);
+        event.setGForce(0.3f);
+        event.setGpsLatitude(40.0 + step * 0.001);
+        event.setGpsLongitude(-75.0);
+        return event;
+    }
+}
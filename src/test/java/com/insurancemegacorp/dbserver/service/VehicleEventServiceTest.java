@@ -0,0 +1,304 @@
+package com.insurancemegacorp.dbserver.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurancemegacorp.dbserver.config.IngestionProperties;
+import com.insurancemegacorp.dbserver.dto.BatchIngestResultDto;
+import com.insurancemegacorp.dbserver.dto.SlicePageDto;
+import com.insurancemegacorp.dbserver.dto.StreamIngestResultDto;
+import com.insurancemegacorp.dbserver.dto.TelemetryBucketDto;
+import com.insurancemegacorp.dbserver.dto.VehicleEventDto;
+import com.insurancemegacorp.dbserver.model.VehicleEvent;
+import com.insurancemegacorp.dbserver.repository.TelemetryTimeseriesRepository;
+import com.insurancemegacorp.dbserver.repository.VehicleEventCountEstimator;
+import com.insurancemegacorp.dbserver.repository.VehicleEventFilter;
+import com.insurancemegacorp.dbserver.repository.VehicleEventListingRepository;
+import com.insurancemegacorp.dbserver.repository.VehicleEventRepository;
+import com.insurancemegacorp.dbserver.util.QueryFilterBuilder;
+import com.insurancemegacorp.dbserver.util.VehicleEventValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VehicleEventServiceTest {
+
+    @Mock
+    private VehicleEventRepository vehicleEventRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private VehicleEventWriter vehicleEventWriter;
+
+    @Mock
+    private IngestionSpool ingestionSpool;
+
+    @Mock
+    private VehicleEventListingRepository vehicleEventListingRepository;
+
+    @Mock
+    private VehicleEventCountEstimator vehicleEventCountEstimator;
+
+    @Mock
+    private EventCountAggregator eventCountAggregator;
+
+    @Mock
+    private TelemetryTimeseriesRepository telemetryTimeseriesRepository;
+
+    @Spy
+    private QueryFilterBuilder queryFilterBuilder = new QueryFilterBuilder();
+
+    @Spy
+    private IngestionProperties ingestionProperties = new IngestionProperties();
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private VehicleEventValidator vehicleEventValidator = new VehicleEventValidator();
+
+    @InjectMocks
+    private VehicleEventService vehicleEventService;
+
+    @BeforeEach
+    void setUp() {
+        ingestionProperties.getStream().setChunkSize(2);
+    }
+
+    @Test
+    void testStreamInsertEventsCommitsInChunks() {
+        // Given
+        when(vehicleEventWriter.writeAndCommit(anyList(), eq(IngestMode.JDBC)))
+            .thenAnswer(invocation -> (long) ((List<VehicleEvent>) invocation.getArgument(0)).size());
+
+        // When
+        StreamIngestResultDto result = vehicleEventService.streamInsertEvents(ndjson(5), IngestMode.JDBC);
+
+        // Then
+        assertTrue(result.isComplete());
+        assertEquals(5L, result.getInsertedCount());
+        assertEquals(List.of(2L, 2L, 1L), result.getChunkCommits());
+        verify(vehicleEventWriter, times(3)).writeAndCommit(anyList(), eq(IngestMode.JDBC));
+    }
+
+    @Test
+    void testStreamInsertEventsSpoolsChunksBehindBacklog() {
+        // Given - a spooled backlog starts draining after the first chunk
+        when(ingestionSpool.shouldDivert()).thenReturn(false, true);
+        when(vehicleEventWriter.writeAndCommit(anyList(), eq(IngestMode.JPA))).thenReturn(2L);
+
+        // When
+        StreamIngestResultDto result = vehicleEventService.streamInsertEvents(ndjson(5), IngestMode.JPA);
+
+        // Then - later chunks queue behind the backlog instead of overtaking it
+        assertTrue(result.isComplete());
+        assertEquals(2L, result.getInsertedCount());
+        assertEquals(3L, result.getSpooledCount());
+        verify(vehicleEventWriter, times(1)).writeAndCommit(anyList(), any());
+        verify(ingestionSpool, times(2)).append(anyList());
+    }
+
+    @Test
+    void testInsertEventsSpoolsJpaBatchDuringOutage() throws Exception {
+        // Given
+        when(vehicleEventWriter.writeAndCommit(anyList(), eq(IngestMode.JPA)))
+            .thenThrow(new CannotGetJdbcConnectionException("Connection refused"));
+        when(ingestionSpool.isEnabled()).thenReturn(true);
+
+        List<VehicleEventDto> events = objectMapper.readValue("[" + event(1) + "]",
+            objectMapper.getTypeFactory().constructCollectionType(List.class, VehicleEventDto.class));
+
+        // When
+        BatchIngestResultDto result = vehicleEventService.insertEvents(events, IngestMode.JPA, false);
+
+        // Then
+        assertTrue(result.isSpooled());
+        assertEquals(1L, result.getSpooledCount());
+        verify(ingestionSpool).markUnhealthy();
+        verify(ingestionSpool).append(anyList());
+    }
+
+    @Test
+    void testStreamInsertEventsReportsCommittedChunksOnMalformedLine() {
+        // Given
+        when(vehicleEventWriter.writeAndCommit(anyList(), eq(IngestMode.COPY))).thenReturn(2L);
+        String body = event(1) + "\n" + event(2) + "\n{\"driverId\": \n";
+
+        // When
+        StreamIngestResultDto result = vehicleEventService.streamInsertEvents(
+            new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), IngestMode.COPY);
+
+        // Then
+        assertFalse(result.isComplete());
+        assertNotNull(result.getError());
+        assertEquals(List.of(2L), result.getChunkCommits());
+    }
+
+    @Test
+    void testInsertValidEventsReportsInvalidRowsAndFailedChunks() {
+        // Given
+        List<VehicleEventDto> batch = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            VehicleEventDto dto = new VehicleEventDto();
+            dto.setEventId(1700000000000L + i);
+            dto.setDriverId(400001L);
+            dto.setVehicleId("200001");
+            batch.add(dto);
+        }
+        batch.get(1).setDriverId(null);
+        batch.get(3).setVehicleId("VH-3");
+        // Valid rows are 0, 2 and 4; fail the chunk holding the first two of them
+        when(vehicleEventWriter.writeWithSavepoints(anyList(), eq(IngestMode.JDBC), anyInt(), any()))
+            .thenAnswer(invocation -> {
+                VehicleEventWriter.ChunkFailureListener listener = invocation.getArgument(3);
+                listener.onFailure(0, 2, new IllegalStateException("duplicate key"));
+                return 1L;
+            });
+
+        // When
+        BatchIngestResultDto result = vehicleEventService.insertValidEvents(batch, IngestMode.JDBC, false, true);
+
+        // Then
+        assertEquals(1L, result.getInsertedCount());
+        assertEquals(List.of(0, 1, 2, 3), result.getRejectedIndices());
+        assertEquals(VehicleEventValidator.WRITE_FAILED, result.getRejections().get(0).getCode());
+        assertEquals(VehicleEventValidator.MISSING_DRIVER_ID, result.getRejections().get(1).getCode());
+        assertEquals(VehicleEventValidator.INVALID_VEHICLE_ID, result.getRejections().get(3).getCode());
+        assertNotNull(result.getChecksum());
+    }
+
+    @Test
+    void testFindEventSliceSkipsCountUnlessEstimated() {
+        // Given
+        List<VehicleEvent> rows = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            VehicleEvent event = new VehicleEvent();
+            event.setDriverId(400001);
+            event.setVehicleId(200001L);
+            event.setEventTime(1700000000000L - i);
+            rows.add(event);
+        }
+        // Limit 1 asks for one extra row to detect the next slice
+        when(vehicleEventListingRepository.findPage(any(VehicleEventFilter.class), any(), eq(0L), eq(2)))
+            .thenReturn(rows);
+        when(vehicleEventCountEstimator.estimate(any(VehicleEventFilter.class))).thenReturn(12345L);
+
+        // When
+        SlicePageDto<VehicleEventDto> slice = vehicleEventService.findEventSliceWithFilters(
+            "400001", null, null, null, 1, 0, null, CountMode.NONE);
+        SlicePageDto<VehicleEventDto> estimated = vehicleEventService.findEventSliceWithFilters(
+            "400001", null, null, null, 1, 0, null, CountMode.ESTIMATE);
+
+        // Then
+        assertTrue(slice.isHasNext());
+        assertEquals(1, slice.getNumberOfElements());
+        assertNull(slice.getEstimatedTotalElements());
+        assertEquals(12345L, estimated.getEstimatedTotalElements());
+        verify(vehicleEventCountEstimator, times(1)).estimate(any(VehicleEventFilter.class));
+        verify(vehicleEventListingRepository, never()).count(any());
+    }
+
+    @Test
+    void testGetDatabaseStatsReadsMaintainedCountersWhenReady() {
+        // Given
+        when(eventCountAggregator.isReady()).thenReturn(true);
+        when(eventCountAggregator.totals(anyInt())).thenReturn(new long[] {125000L, 230L, 14000L});
+
+        // When
+        Map<String, Object> stats = vehicleEventService.getDatabaseStats();
+
+        // Then
+        assertEquals(125000L, stats.get("total_events"));
+        assertEquals(230L, stats.get("high_gforce_events"));
+        assertEquals(2000.0, stats.get("average_events_per_day"));
+        verify(vehicleEventRepository, never()).count();
+        verify(vehicleEventRepository, never()).countHighGForceEvents();
+    }
+
+    @Test
+    void testGetTelemetryTableCountsAfterRestartBeforeFirstReconcile() {
+        // Given - counters loaded from a populated table, not yet reconciled in this process
+        when(eventCountAggregator.isReady()).thenReturn(true);
+        when(eventCountAggregator.totals(Integer.MAX_VALUE)).thenReturn(new long[] {125000L, 230L, 125000L});
+        when(eventCountAggregator.getTelemetryDataV2Count()).thenReturn(98000L);
+        when(eventCountAggregator.getReconciledAt()).thenReturn(0L);
+
+        // When
+        Map<String, Object> counts = vehicleEventService.getTelemetryTableCounts();
+
+        // Then
+        assertEquals(98000L, counts.get("vehicle_telemetry_data_v2_count"));
+        assertEquals(223000L, counts.get("total_telemetry_records"));
+        assertFalse(counts.containsKey("counts_reconciled_at"));
+        assertFalse(counts.containsKey("note"));
+        verify(vehicleEventRepository, never()).count();
+    }
+
+    @Test
+    void testGetTelemetryTimeseriesRejectsTooManyBuckets() {
+        // When - 8 days of 1 minute buckets
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> vehicleEventService.getTelemetryTimeseries("1m", "2024-01-01", "2024-01-09", null, null));
+
+        // Then
+        assertTrue(e.getMessage().contains("11521 1m buckets"));
+        assertTrue(e.getMessage().contains("/telemetry/timeseries/export"));
+        verifyNoInteractions(telemetryTimeseriesRepository);
+    }
+
+    @Test
+    void testGetTelemetryTimeseriesQueriesBucketWidth() {
+        // Given
+        List<TelemetryBucketDto> buckets = List.of(new TelemetryBucketDto());
+        when(telemetryTimeseriesRepository.findBuckets(any(VehicleEventFilter.class), eq(3_600_000L))).thenReturn(buckets);
+
+        // When - the same range in the default 1h buckets
+        List<TelemetryBucketDto> result = vehicleEventService.getTelemetryTimeseries(null, "2024-01-01", "2024-01-09", null, null);
+
+        // Then
+        assertSame(buckets, result);
+    }
+
+    @Test
+    void testGetTelemetryTimeseriesRequiresOrderedRange() {
+        // When / Then
+        assertThrows(IllegalArgumentException.class,
+            () -> vehicleEventService.getTelemetryTimeseries("1h", null, "2024-01-09", null, null));
+        assertThrows(IllegalArgumentException.class,
+            () -> vehicleEventService.getTelemetryTimeseries("1h", "2024-01-09", "2024-01-01", null, null));
+        verifyNoInteractions(telemetryTimeseriesRepository);
+    }
+
+    private ByteArrayInputStream ndjson(int count) {
+        StringBuilder body = new StringBuilder();
+        for (int i = 1; i <= count; i++) {
+            body.append(event(i)).append('\n');
+        }
+        return new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String event(int i) {
+        return "{\"eventId\": " + (1700000000000L + i) + ", \"driverId\": 400001, \"vehicleId\": \"200001\", "
+            + "\"speedMph\": 42.5, \"gforce\": 0.4}";
+    }
+}
@@ -0,0 +1,134 @@
+package com.insurancemegacorp.dbserver.service;
+
+import com.insurancemegacorp.dbserver.config.IngestionProperties;
+import com.insurancemegacorp.dbserver.model.VehicleEvent;
+import com.insurancemegacorp.dbserver.repository.VehicleEventBatchRepository;
+import com.insurancemegacorp.dbserver.repository.VehicleEventCopyRepository;
+import com.insurancemegacorp.dbserver.repository.VehicleEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VehicleEventWriterTest {
+
+    @Mock
+    private VehicleEventRepository vehicleEventRepository;
+
+    @Mock
+    private VehicleEventBatchRepository vehicleEventBatchRepository;
+
+    @Mock
+    private VehicleEventCopyRepository vehicleEventCopyRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private IngestEventPublisher ingestEventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private Savepoint savepoint;
+
+    private VehicleEventWriter writer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        IngestionProperties properties = new IngestionProperties();
+        properties.getDedupe().setEnabled(true);
+        properties.getDedupe().setExpectedKeysPerGeneration(1000);
+        IngestDeduplicator deduplicator = new IngestDeduplicator(properties, new SimpleMeterRegistry());
+        writer = new VehicleEventWriter(vehicleEventRepository, vehicleEventBatchRepository, vehicleEventCopyRepository,
+                properties, entityManager, deduplicator, jdbcTemplate, ingestEventPublisher, transactionManager);
+        lenient().when(connection.setSavepoint()).thenReturn(savepoint);
+        lenient().when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenAnswer(invocation ->
+                invocation.<ConnectionCallback<?>>getArgument(0).doInConnection(connection));
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+    }
+
+    @Test
+    void testWrite_UniqueViolationFallsBackAndPublishesOnlyInsertedRows() throws Exception {
+        // Given - one of the "new" rows collides with a key older than the filter window
+        List<VehicleEvent> events = List.of(event(1L), event(2L), event(3L));
+        when(vehicleEventBatchRepository.insertBatch(anyList(), anyInt()))
+                .thenThrow(new DuplicateKeyException("duplicate key value violates unique constraint"));
+        List<VehicleEvent> accepted = List.of(events.get(0), events.get(2));
+        when(vehicleEventBatchRepository.insertIgnoringDuplicates(eq(events), anyInt())).thenReturn(accepted);
+
+        // When
+        long written = writer.write(events, IngestMode.JDBC);
+
+        // Then
+        assertEquals(2L, written);
+        verify(connection).rollback(savepoint);
+        verify(connection, never()).releaseSavepoint(any());
+        verify(ingestEventPublisher).publishAfterCommit(accepted);
+        verify(ingestEventPublisher, never()).publishAfterCommit(events);
+    }
+
+    @Test
+    void testWrite_KeysAreRecordedOnlyAfterCommit() {
+        // Given
+        List<VehicleEvent> events = List.of(event(1L), event(2L));
+        when(vehicleEventBatchRepository.insertBatch(anyList(), anyInt())).thenReturn(2L);
+
+        // When - the first attempt rolls back, the retry commits, then the batch is replayed
+        writer.write(events, IngestMode.JDBC);
+        TransactionSynchronizationManager.clear();
+        TransactionSynchronizationManager.initSynchronization();
+        writer.write(events, IngestMode.JDBC);
+        List<TransactionSynchronization> synchronizations = new ArrayList<>(TransactionSynchronizationManager.getSynchronizations());
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        writer.write(events, IngestMode.JDBC);
+
+        // Then - the retry still took the fast path, only the replay was a probable duplicate
+        verify(vehicleEventBatchRepository, times(2)).insertBatch(eq(events), anyInt());
+        verify(vehicleEventBatchRepository).insertIgnoringDuplicates(eq(events), anyInt());
+    }
+
+    private static VehicleEvent event(long vehicleId) {
+        VehicleEvent event = new VehicleEvent();
+        event.setPolicyId(300001L);
+        event.setVehicleId(vehicleId);
+        event.setDriverId(400001);
+        event.setEventTime(1700000000000L);
+        return event;
+    }
+}
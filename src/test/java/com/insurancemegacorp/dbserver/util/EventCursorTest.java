@@ -0,0 +1,35 @@
+package com.insurancemegacorp.dbserver.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventCursorTest {
+
+    @Test
+    void testEncode_RoundTripsKey() {
+        // Given
+        EventCursor cursor = new EventCursor(1700000000123L, 7L, 200001L, 400001);
+
+        // When
+        String encoded = cursor.encode();
+        EventCursor decoded = EventCursor.decode(encoded);
+
+        // Then
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"));
+        assertEquals(1700000000123L, decoded.getEventTime());
+        assertEquals(7L, decoded.getPolicyId());
+        assertEquals(200001L, decoded.getVehicleId());
+        assertEquals(400001, decoded.getDriverId());
+    }
+
+    @Test
+    void testDecode_RejectsTamperedCursor() {
+        // Given
+        String encoded = new EventCursor(1700000000123L, 7L, 200001L, 400001).encode();
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> EventCursor.decode("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> EventCursor.decode(encoded.substring(2)));
+    }
+}
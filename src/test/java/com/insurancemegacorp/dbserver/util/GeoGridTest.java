@@ -0,0 +1,40 @@
+package com.insurancemegacorp.dbserver.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoGridTest {
+
+    @Test
+    void testRadiusBoxCoversCellOfEveryPointInside() {
+        // Given
+        double lat = 33.7490;
+        double lon = -84.3880;
+        GeoBox box = GeoBox.around(lat, lon, 500);
+
+        // When
+        long[] cells = GeoGrid.cellsCovering(box, 1024);
+
+        // Then
+        assertNotNull(cells);
+        assertTrue(cells.length <= 4, "500 m should touch at most 2 x 2 cells");
+        // Points about 450 m north, south, east and west of the centre
+        for (double[] point : new double[][] {{lat + 0.004, lon}, {lat - 0.004, lon}, {lat, lon + 0.0049}, {lat, lon - 0.0049}}) {
+            long cell = GeoGrid.cellOf(point[0], point[1]);
+            assertTrue(Arrays.stream(cells).anyMatch(c -> c == cell), "missing cell for " + Arrays.toString(point));
+        }
+    }
+
+    @Test
+    void testLargeBoxesFallBackAndEdgesClamp() {
+        // Then
+        assertNull(GeoGrid.cellsCovering(GeoBox.of(30, -90, 40, -80), 1024));
+        assertEquals(GeoGrid.cellOf(89.999, 179.999), GeoGrid.cellOf(90, 180));
+        assertEquals(0L, GeoGrid.cellOf(-90, -180));
+        assertThrows(IllegalArgumentException.class, () -> GeoBox.of(10, 0, 5, 1));
+        assertThrows(IllegalArgumentException.class, () -> GeoBox.around(91, 0, 500));
+    }
+}
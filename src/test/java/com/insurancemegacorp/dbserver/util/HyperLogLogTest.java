@@ -0,0 +1,53 @@
+package com.insurancemegacorp.dbserver.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    @Test
+    void testEstimate_StaysWithinErrorBound() {
+        // Given
+        HyperLogLog small = new HyperLogLog();
+        HyperLogLog large = new HyperLogLog();
+
+        // When - every value added twice
+        for (long i = 0; i < 2 * 500; i++) {
+            small.add(400000L + i % 500);
+        }
+        for (long i = 0; i < 100_000; i++) {
+            large.add(200000L + i);
+            large.add(200000L + i);
+        }
+
+        // Then - four standard errors
+        double bound = 4 * HyperLogLog.RELATIVE_STANDARD_ERROR;
+        assertEquals(500, small.estimate(), 500 * bound);
+        assertEquals(100_000, large.estimate(), 100_000 * bound);
+    }
+
+    @Test
+    void testMerge_MatchesUnionAndSurvivesSerialization() {
+        // Given
+        HyperLogLog monday = new HyperLogLog();
+        HyperLogLog tuesday = new HyperLogLog();
+        HyperLogLog union = new HyperLogLog();
+        for (long i = 0; i < 20_000; i++) {
+            monday.add(i);
+            tuesday.add(i + 10_000);
+            union.add(i);
+            union.add(i + 10_000);
+        }
+
+        // When
+        HyperLogLog merged = HyperLogLog.fromBytes(monday.toBytes());
+        merged.merge(tuesday);
+        merged.merge(tuesday);
+
+        // Then
+        assertEquals(union.estimate(), merged.estimate());
+        assertArrayEquals(union.toBytes(), merged.toBytes());
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[16]));
+    }
+}
@@ -0,0 +1,58 @@
+package com.insurancemegacorp.dbserver.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingBloomFilterTest {
+
+    @Test
+    void testPut_NoFalseNegativesAndBoundedFalsePositives() {
+        // Given
+        SlidingBloomFilter filter = new SlidingBloomFilter(10_000, 0.01, 2);
+
+        // When
+        for (long i = 0; i < 5_000; i++) {
+            filter.put(SlidingBloomFilter.hashKey(1L, 200001L, 400001, 1700000000000L + i));
+        }
+
+        // Then
+        for (long i = 0; i < 5_000; i++) {
+            assertTrue(filter.mightContain(SlidingBloomFilter.hashKey(1L, 200001L, 400001, 1700000000000L + i)));
+        }
+        int falsePositives = 0;
+        for (long i = 0; i < 10_000; i++) {
+            if (filter.mightContain(SlidingBloomFilter.hashKey(1L, 200002L, 400002, 1700000000000L + i))) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 200, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void testPut_ReportsRepeatedKeyAsSeen() {
+        // Given
+        SlidingBloomFilter filter = new SlidingBloomFilter(1_000, 0.01, 2);
+        long key = SlidingBloomFilter.hashKey(1L, 200001L, 400001, 1700000000000L);
+
+        // When / Then
+        assertFalse(filter.put(key));
+        assertTrue(filter.put(key));
+    }
+
+    @Test
+    void testRotation_ForgetsKeysOutsideTheWindow() {
+        // Given
+        SlidingBloomFilter filter = new SlidingBloomFilter(100, 0.01, 2);
+        long oldKey = SlidingBloomFilter.hashKey(1L, 1L, 1, 1L);
+        filter.put(oldKey);
+
+        // When - fill two more generations
+        for (long i = 0; i < 250; i++) {
+            filter.put(SlidingBloomFilter.hashKey(2L, 2L, 2, i));
+        }
+
+        // Then
+        assertFalse(filter.mightContain(oldKey));
+    }
+}
@@ -0,0 +1,89 @@
+package com.insurancemegacorp.dbserver.util;
+
+import com.insurancemegacorp.dbserver.model.VehicleEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VehicleEventBinaryCodecTest {
+
+    private VehicleEventBinaryCodec codec;
+
+    @BeforeEach
+    void setUp() {
+        codec = new VehicleEventBinaryCodec();
+    }
+
+    @Test
+    void testBatch_RoundTripsAllColumnsAndNulls() {
+        // Given
+        VehicleEvent full = new VehicleEvent();
+        full.setPolicyId(7L);
+        full.setVehicleId(200001L);
+        full.setDriverId(400001);
+        full.setEventTime(1700000000000L);
+        full.setVin("1HGCM82633A004352");
+        full.setSpeedMph(42.5f);
+        full.setCurrentStreet("Peachtree St NE");
+        full.setGpsLatitude(33.7490);
+        full.setGpsLongitude(-84.3880);
+        full.setAccelerometerZ(9.81f);
+        full.setMagnetometerHeading(270.0f);
+        full.setDeviceSignalStrength(-67);
+        full.setDeviceOrientation("landscape");
+        full.setDeviceScreenOn(true);
+        full.setDeviceCharging(false);
+
+        VehicleEvent sparse = new VehicleEvent();
+        sparse.setPolicyId(1L);
+        sparse.setVehicleId(200002L);
+        sparse.setDriverId(400002);
+        sparse.setEventTime(1700000000001L);
+
+        // When
+        List<VehicleEvent> decoded = codec.decodeBatch(ByteBuffer.wrap(codec.encodeBatch(List.of(full, sparse))));
+
+        // Then
+        assertEquals(2, decoded.size());
+        VehicleEvent first = decoded.get(0);
+        assertEquals(7L, first.getPolicyId());
+        assertEquals(1700000000000L, first.getEventTime());
+        assertEquals("1HGCM82633A004352", first.getVin());
+        assertEquals(42.5f, first.getSpeedMph());
+        assertEquals("Peachtree St NE", first.getCurrentStreet());
+        assertEquals(-84.3880, first.getGpsLongitude());
+        assertEquals(9.81f, first.getAccelerometerZ());
+        assertEquals(270.0f, first.getMagnetometerHeading());
+        assertEquals(-67, first.getDeviceSignalStrength());
+        assertEquals("landscape", first.getDeviceOrientation());
+        assertTrue(first.getDeviceScreenOn());
+        assertFalse(first.getDeviceCharging());
+        assertNull(first.getGForce());
+
+        VehicleEvent second = decoded.get(1);
+        assertEquals(400002, second.getDriverId());
+        assertNull(second.getVin());
+        assertNull(second.getDeviceScreenOn());
+    }
+
+    @Test
+    void testDecodeBatch_RejectsBadMagicAndTruncation() {
+        // Given
+        VehicleEvent event = new VehicleEvent();
+        event.setPolicyId(1L);
+        event.setVin("ABC");
+        byte[] batch = codec.encodeBatch(List.of(event));
+        byte[] badMagic = batch.clone();
+        badMagic[0] = 'X';
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> codec.decodeBatch(ByteBuffer.wrap(badMagic)));
+        assertThrows(IllegalArgumentException.class,
+                () -> codec.decodeBatch(ByteBuffer.wrap(Arrays.copyOf(batch, batch.length - 2))));
+    }
+}